@@ -70,9 +70,19 @@ public class GuiBase extends GuiCore {
 	@Override
 	public void initGui() {
 		super.initGui();
+		closeElements();
 		this.elements.clear();
 	}
 
+	/**
+	 * Let all of the elements know the gui has been closed
+	 */
+	@Override
+	public void onGuiClosed() {
+		super.onGuiClosed();
+		closeElements();
+	}
+
 	/**
 	 * Draws all the tooltips and sets the mouse position correctly
 	 */
@@ -290,6 +300,14 @@ public class GuiBase extends GuiCore {
 		}
 	}
 
+	/**
+	 * Let all of the elements know they are no longer being used
+	 */
+	protected void closeElements() {
+		for (int i = this.elements.size(); i-- > 0;)
+			this.elements.get(i).onGuiClosed();
+	}
+
 	/**
 	 * Update all of the element information
 	 */
@@ -0,0 +1,133 @@
+package cjminecraft.core.client.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.sync.PacketBatchQuery;
+import cjminecraft.core.network.sync.SyncQuery;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Runs sync requests on the client every so many ticks instead of every so
+ * many frames, so how often the server is asked for data does not depend on
+ * the frame rate. Each request starts at a random point in its interval so
+ * that lots of open guis do not all ask the server on the same tick.
+ * {@link SyncQuery}s which are due on the same tick are sent together in a
+ * single {@link PacketBatchQuery}
+ *
+ * @author CJMinecraft
+ *
+ */
+@SideOnly(Side.CLIENT)
+@Mod.EventBusSubscriber(modid = CJCore.MODID, value = Side.CLIENT)
+public class SyncScheduler {
+
+	private static final Random random = new Random();
+	private static final List<Entry> entries = new ArrayList<Entry>();
+	private static final List<Runnable> due = new ArrayList<Runnable>();
+	private static final List<SyncQuery> dueQueries = new ArrayList<SyncQuery>();
+
+	/**
+	 * Schedule a request to be run every interval
+	 *
+	 * @param interval
+	 *            How many ticks between each time the request is run
+	 * @param request
+	 *            The request which asks the server for data
+	 * @return The id used to cancel the request
+	 */
+	public static int schedule(int interval, @Nonnull Runnable request) {
+		return add(new Entry(Math.max(1, interval), request, null));
+	}
+
+	/**
+	 * Schedule a query to be sent every interval. All queries due on the same
+	 * tick are sent in one packet
+	 *
+	 * @param interval
+	 *            How many ticks between each time the query is sent
+	 * @param query
+	 *            The query which asks the server for data
+	 * @return The id used to cancel the query
+	 */
+	public static int schedule(int interval, @Nonnull SyncQuery query) {
+		return add(new Entry(Math.max(1, interval), null, query));
+	}
+
+	private static int add(Entry entry) {
+		for (int id = 0; id < entries.size(); id++) {
+			if (entries.get(id) == null) {
+				entries.set(id, entry);
+				return id;
+			}
+		}
+		entries.add(entry);
+		return entries.size() - 1;
+	}
+
+	/**
+	 * Stop a request from being run
+	 *
+	 * @param id
+	 *            The id given by {@link #schedule(int, Runnable)}
+	 */
+	public static void cancel(int id) {
+		if (id >= 0 && id < entries.size())
+			entries.set(id, null);
+	}
+
+	/**
+	 * Run every request which is due this tick
+	 *
+	 * @param event
+	 *            The event
+	 */
+	@SubscribeEvent
+	public static void onClientTick(TickEvent.ClientTickEvent event) {
+		if (event.phase != TickEvent.Phase.END)
+			return;
+		for (int i = 0; i < entries.size(); i++) {
+			Entry entry = entries.get(i);
+			if (entry != null && --entry.countdown <= 0) {
+				entry.countdown = entry.interval;
+				if (entry.query != null)
+					dueQueries.add(entry.query);
+				else
+					due.add(entry.request);
+			}
+		}
+		for (int i = 0; i < due.size(); i++)
+			due.get(i).run();
+		due.clear();
+		for (int from = 0; from < dueQueries.size(); from += PacketBatchQuery.MAX_QUERIES)
+			PacketHandler.INSTANCE.sendToServer(new PacketBatchQuery(new ArrayList<SyncQuery>(
+					dueQueries.subList(from, Math.min(dueQueries.size(), from + PacketBatchQuery.MAX_QUERIES)))));
+		dueQueries.clear();
+	}
+
+	private static class Entry {
+
+		private final int interval;
+		private final Runnable request;
+		private final SyncQuery query;
+		private int countdown;
+
+		private Entry(int interval, Runnable request, SyncQuery query) {
+			this.interval = interval;
+			this.request = request;
+			this.query = query;
+			this.countdown = 1 + random.nextInt(interval);
+		}
+
+	}
+
+}
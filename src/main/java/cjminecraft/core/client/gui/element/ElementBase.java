@@ -195,6 +195,14 @@ public abstract class ElementBase {
 	public void update() {
 	}
 
+	/**
+	 * Called when the gui holding the element is closed or its elements are
+	 * about to be recreated. Stop anything the element has started here, such
+	 * as syncing with the server
+	 */
+	public void onGuiClosed() {
+	}
+
 	/**
 	 * Draw the background of the element
 	 * 
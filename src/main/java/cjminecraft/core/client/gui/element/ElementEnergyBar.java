@@ -9,11 +9,15 @@ import javax.annotation.Nullable;
 import cjminecraft.core.CJCore;
 import cjminecraft.core.client.gui.GuiCore;
 import cjminecraft.core.client.gui.ISpecialOverlayElement;
+import cjminecraft.core.client.gui.SyncScheduler;
 import cjminecraft.core.config.CJCoreConfig;
 import cjminecraft.core.energy.EnergyData;
 import cjminecraft.core.energy.EnergyUnit;
 import cjminecraft.core.energy.compat.forge.CustomForgeEnergyStorage;
 import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.network.sync.SubscriptionManager;
+import cjminecraft.core.network.sync.SyncQuery;
 import cjminecraft.core.util.RenderUtils;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
@@ -47,7 +51,11 @@ public class ElementEnergyBar extends ElementTexture implements ISpecialOverlayE
 	private BlockPos pos;
 	private EnumFacing side;
 	private boolean shouldSync = false;
-	private int sync = 0;
+	private int syncInterval = 0;
+	private int energyTarget = -1;
+	private int capacityTarget = -1;
+	private int scheduled = -1;
+	private EnergyUnit syncUnit;
 
 	/**
 	 * A simple yet effective energy bar which helps show energy. Can be synced
@@ -129,6 +137,8 @@ public class ElementEnergyBar extends ElementTexture implements ISpecialOverlayE
 	 * @return The updated element
 	 */
 	public ElementEnergyBar shouldSync(BlockPos pos, EnumFacing side) {
+		if (!pos.equals(this.pos) || side != this.side)
+			unsubscribe();
 		this.shouldSync = true;
 		this.pos = pos;
 		this.side = side;
@@ -141,12 +151,31 @@ public class ElementEnergyBar extends ElementTexture implements ISpecialOverlayE
 	 * @return The updated element
 	 */
 	public ElementEnergyBar shouldntSync() {
+		unsubscribe();
 		this.shouldSync = false;
 		this.pos = BlockPos.ORIGIN;
 		this.side = null;
 		return this;
 	}
 
+	/**
+	 * Sets how the energy is synced with the server. By default the server
+	 * pushes the energy whenever it changes. When an interval is given the
+	 * energy is asked for every interval instead, which sends less for
+	 * machines whose energy changes every tick
+	 * 
+	 * @param ticks
+	 *            How many ticks between each time the energy is asked for.
+	 *            0 lets the server push the energy instead
+	 * @return The updated element
+	 */
+	public ElementEnergyBar setSyncInterval(int ticks) {
+		if (ticks != this.syncInterval)
+			unsubscribe();
+		this.syncInterval = Math.max(0, ticks);
+		return this;
+	}
+
 	@Override
 	public ElementBase setSize(int width, int height) {
 		return super.setSize(Math.min(width, DEFAULT_WIDTH), Math.min(height, DEFAULT_HEIGHT));
@@ -191,13 +220,53 @@ public class ElementEnergyBar extends ElementTexture implements ISpecialOverlayE
 
 	@Override
 	public void update() {
-		if (this.shouldSync) {
-			setEnergy(EnergyUtils.getCachedEnergyData(CJCore.MODID));
-			this.sync++;
-			this.sync %= 10;
-			if (this.sync == 0)
-				EnergyUtils.syncEnergyData(CJCoreConfig.ENERGY.DEFAULT_ENERGY_UNIT, this.pos, this.side, CJCore.MODID);
-		}
+		// Sync again when the unit being shown has changed
+		if (this.energyTarget != -1 && this.syncUnit != CJCoreConfig.ENERGY.DEFAULT_ENERGY_UNIT)
+			unsubscribe();
+		if (this.shouldSync && this.energyTarget == -1)
+			subscribe();
+	}
+
+	@Override
+	public void onGuiClosed() {
+		unsubscribe();
+	}
+
+	/**
+	 * Start syncing the energy of the {@link TileEntity}, either by
+	 * subscribing to it or by asking for it every sync interval. The energy is
+	 * synced in the unit being shown so nothing is lost converting it
+	 */
+	private void subscribe() {
+		this.syncUnit = CJCoreConfig.ENERGY.DEFAULT_ENERGY_UNIT;
+		this.energyTarget = SyncTargetRegistry.register((long energy) -> this.energy = EnergyUtils
+				.convertEnergy(this.syncUnit, CJCoreConfig.ENERGY.DEFAULT_ENERGY_UNIT, energy));
+		this.capacityTarget = SyncTargetRegistry.register((long capacity) -> this.capacity = EnergyUtils
+				.convertEnergy(this.syncUnit, CJCoreConfig.ENERGY.DEFAULT_ENERGY_UNIT, capacity));
+		if (this.syncInterval > 0)
+			this.scheduled = SyncScheduler.schedule(this.syncInterval,
+					SyncQuery.energyData(this.syncUnit, this.pos, this.side, this.energyTarget,
+							this.capacityTarget));
+		else
+			EnergyUtils.subscribeEnergyData(this.syncUnit, this.pos, this.side, this.energyTarget,
+					this.capacityTarget);
+	}
+
+	/**
+	 * Stop syncing the energy of the {@link TileEntity}
+	 */
+	private void unsubscribe() {
+		if (this.energyTarget == -1)
+			return;
+		if (this.scheduled != -1)
+			SyncScheduler.cancel(this.scheduled);
+		else
+			SubscriptionManager.unsubscribe(this.energyTarget);
+		this.scheduled = -1;
+		SyncTargetRegistry.unregister(this.energyTarget);
+		SyncTargetRegistry.unregister(this.capacityTarget);
+		this.energyTarget = -1;
+		this.capacityTarget = -1;
 	}
 
 	@Override
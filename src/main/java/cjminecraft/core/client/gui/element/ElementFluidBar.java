@@ -4,14 +4,18 @@ import java.util.List;
 
 import javax.annotation.Nullable;
 
-import cjminecraft.core.CJCore;
 import cjminecraft.core.client.gui.GuiCore;
 import cjminecraft.core.client.gui.ISpecialOverlayElement;
+import cjminecraft.core.client.gui.SyncScheduler;
 import cjminecraft.core.fluid.FluidUtils;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.network.sync.SubscriptionManager;
+import cjminecraft.core.network.sync.SyncQuery;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.FluidTankInfo;
 
 /**
@@ -31,7 +35,10 @@ public class ElementFluidBar extends ElementBase implements ISpecialOverlayEleme
 	private BlockPos pos;
 	private EnumFacing side;
 	private boolean shouldSync = false;
-	private int sync = 0;
+	private int syncInterval = 0;
+	private int capacityTarget = -1;
+	private int fluidStackTarget = -1;
+	private int scheduled = -1;
 
 	/**
 	 * A neat little fluid bar to display all the fluids you will ever need. Can
@@ -97,6 +104,8 @@ public class ElementFluidBar extends ElementBase implements ISpecialOverlayEleme
 	 * @return The updated element
 	 */
 	public ElementFluidBar shouldSync(BlockPos pos, EnumFacing side) {
+		if (!pos.equals(this.pos) || side != this.side)
+			unsubscribe();
 		this.shouldSync = true;
 		this.pos = pos;
 		this.side = side;
@@ -109,11 +118,30 @@ public class ElementFluidBar extends ElementBase implements ISpecialOverlayEleme
 	 * @return The updated element
 	 */
 	public ElementFluidBar shouldntSync() {
+		unsubscribe();
 		this.shouldSync = false;
 		this.pos = BlockPos.ORIGIN;
 		this.side = null;
 		return this;
 	}
+
+	/**
+	 * Sets how the fluid is synced with the server. By default the server
+	 * pushes the fluid whenever it changes. When an interval is given the
+	 * fluid is asked for every interval instead, which sends less for
+	 * machines whose fluid changes every tick
+	 * 
+	 * @param ticks
+	 *            How many ticks between each time the fluid is asked for.
+	 *            0 lets the server push the fluid instead
+	 * @return The updated element
+	 */
+	public ElementFluidBar setSyncInterval(int ticks) {
+		if (ticks != this.syncInterval)
+			unsubscribe();
+		this.syncInterval = Math.max(0, ticks);
+		return this;
+	}
 	
 	@Override
 	public ElementBase setSize(int width, int height) {
@@ -160,13 +188,48 @@ public class ElementFluidBar extends ElementBase implements ISpecialOverlayEleme
 
 	@Override
 	public void update() {
-		if (this.shouldSync) {
-			setFluidTankInfo(FluidUtils.getCachedFluidData(CJCore.MODID, this.getClass().getName() + this.tankIndex));
-			this.sync++;
-			this.sync %= 10;
-			if (this.sync == 0)
-				FluidUtils.syncFluidData(this.tankIndex, this.pos, this.side, CJCore.MODID, this.getClass().getName() + this.tankIndex);
-		}
+		if (this.shouldSync && this.capacityTarget == -1)
+			subscribe();
+	}
+
+	@Override
+	public void onGuiClosed() {
+		unsubscribe();
+	}
+
+	/**
+	 * Start syncing the tank of the {@link TileEntity}, either by subscribing
+	 * to it or by asking for it every sync interval
+	 */
+	private void subscribe() {
+		this.capacityTarget = SyncTargetRegistry.register((int capacity) -> setFluidTankInfo(
+				new FluidTankInfo(this.fluidTank == null ? null : this.fluidTank.fluid, capacity)));
+		this.fluidStackTarget = SyncTargetRegistry.register(FluidStack.class, fluidStack -> setFluidTankInfo(
+				new FluidTankInfo(fluidStack, this.fluidTank == null ? 0 : this.fluidTank.capacity)));
+		if (this.syncInterval > 0)
+			this.scheduled = SyncScheduler.schedule(this.syncInterval,
+					SyncQuery.fluid(this.tankIndex, this.pos, this.side, this.capacityTarget,
+							this.fluidStackTarget));
+		else
+			FluidUtils.subscribeFluidData(this.tankIndex, this.pos, this.side, this.capacityTarget,
+					this.fluidStackTarget);
+	}
+
+	/**
+	 * Stop syncing the tank of the {@link TileEntity}
+	 */
+	private void unsubscribe() {
+		if (this.capacityTarget == -1)
+			return;
+		if (this.scheduled != -1)
+			SyncScheduler.cancel(this.scheduled);
+		else
+			SubscriptionManager.unsubscribe(this.capacityTarget);
+		this.scheduled = -1;
+		SyncTargetRegistry.unregister(this.capacityTarget);
+		SyncTargetRegistry.unregister(this.fluidStackTarget);
+		this.capacityTarget = -1;
+		this.fluidStackTarget = -1;
 	}
 
 	@Override
@@ -15,6 +15,8 @@ public class CJCoreConfig {
 	public static Energy ENERGY = new Energy();
 	@Config.LangKey("gui.config.category.fluid")
 	public static Fluids FLUIDS = new Fluids();
+	@Config.LangKey("gui.config.category.sync")
+	public static Sync SYNC = new Sync();
 
 	public static class Energy {
 
@@ -42,6 +44,24 @@ public class CJCoreConfig {
 		@Config.LangKey("gui.config.energy.energy_bar_simplify_energy.name")
 		public boolean ENERGY_BAR_SIMPLIFY_ENERGY = false;
 
+		/**
+		 * Whether energy networks should be solved on other threads
+		 */
+		@Config.Name("EnergyNetworkParallel")
+		@Config.Comment("Whether independent energy networks should be solved in parallel while the world ticks. When false every network is solved on the server thread")
+		@Config.LangKey("gui.config.energy.energy_network_parallel.name")
+		public boolean ENERGY_NETWORK_PARALLEL = true;
+
+		/**
+		 * How many threads can solve energy networks
+		 */
+		@Config.Name("EnergyNetworkThreads")
+		@Config.Comment("How many threads can solve energy networks in parallel. 0 will use one less than the number of processors")
+		@Config.LangKey("gui.config.energy.energy_network_threads.name")
+		@Config.RangeInt(min = 0, max = 64)
+		@Config.RequiresMcRestart
+		public int ENERGY_NETWORK_THREADS = 0;
+
 	}
 
 	public static class Fluids {
@@ -64,4 +84,18 @@ public class CJCoreConfig {
 
 	}
 
+	public static class Sync {
+
+		/**
+		 * How close a player must be to a tile entity to be sent its viewer
+		 * data. Off by default so only the players using it are sent it
+		 */
+		@Config.Name("TileSyncRadius")
+		@Config.Comment("How many blocks away a player can be from a machine and still be sent data such as its inventory. Players with the machine open or subscribed to it are always sent it. 0 will only send it to those players")
+		@Config.LangKey("gui.config.sync.tile_sync_radius.name")
+		@Config.RangeInt(min = 0, max = 256)
+		public int TILE_SYNC_RADIUS = 0;
+
+	}
+
 }
@@ -0,0 +1,320 @@
+package cjminecraft.core.energy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import cjminecraft.core.energy.support.IEnergySupport;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.capabilities.Capability;
+
+/**
+ * A handle to the energy of a single {@link TileEntity} or {@link ItemStack}
+ * on a single side. The supports and containers are resolved once and kept
+ * until the handle notices they are no longer valid, so machines which
+ * transfer energy to the same neighbours every tick should keep hold of a
+ * handle rather than calling {@link EnergyUtils} each time.
+ *
+ * A handle to a {@link TileEntity} is bound to its position. When the
+ * {@link TileEntity} is removed, its chunk is unloaded or its support cache is
+ * invalidated (see {@link EnergyUtils#invalidateSupportCache(TileEntity)}) the
+ * handle will look up the {@link TileEntity} at the position again, at most
+ * once per tick. A handle to a {@link TileEntity} from another mod which has
+ * no support also looks for support again at most once per tick.
+ *
+ * @author CJMinecraft
+ *
+ */
+public class EnergyHandle {
+
+	@Nullable
+	private final World world;
+	@Nullable
+	private final BlockPos pos;
+	@Nullable
+	private final ItemStack stack;
+	@Nullable
+	private final EnumFacing side;
+
+	@Nullable
+	private TileEntity te;
+	@Nullable
+	private Chunk chunk;
+	@Nullable
+	private EnergyUtils.SupportCacheEntry entry;
+	private int generation;
+	private long lastResolved = Long.MIN_VALUE;
+	private boolean resolved;
+
+	private IEnergySupport holder, consumer, producer, any;
+	private Object holderContainer, consumerContainer, producerContainer, anyContainer;
+
+	/**
+	 * Create a handle to the energy of the given {@link TileEntity}
+	 *
+	 * @param te
+	 *            The {@link TileEntity} which handles energy
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 */
+	public EnergyHandle(@Nonnull TileEntity te, @Nullable EnumFacing side) {
+		this.world = te.getWorld();
+		this.pos = te.getPos();
+		this.stack = null;
+		this.side = side;
+		this.te = te;
+	}
+
+	/**
+	 * Create a handle to the energy of the {@link TileEntity} at the given
+	 * position. The {@link TileEntity} does not have to exist yet
+	 *
+	 * @param world
+	 *            The world the {@link TileEntity} is in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 */
+	public EnergyHandle(@Nonnull World world, @Nonnull BlockPos pos, @Nullable EnumFacing side) {
+		this.world = world;
+		this.pos = pos.toImmutable();
+		this.stack = null;
+		this.side = side;
+	}
+
+	/**
+	 * Create a handle to the energy of the given {@link ItemStack}
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} which handles energy
+	 * @param side
+	 *            The side of the {@link ItemStack} for use with
+	 *            {@link Capability}
+	 */
+	public EnergyHandle(@Nonnull ItemStack stack, @Nullable EnumFacing side) {
+		this.world = null;
+		this.pos = null;
+		this.stack = stack;
+		this.side = side;
+	}
+
+	/**
+	 * Makes sure the supports and containers are still valid, resolving them
+	 * again if needed
+	 *
+	 * @return Whether there is anything to handle energy with
+	 */
+	private boolean validate() {
+		if (this.stack != null) {
+			if (this.stack.isEmpty())
+				return false;
+			if (!this.resolved || this.generation != EnergyUtils.supportGeneration) {
+				this.generation = EnergyUtils.supportGeneration;
+				resolve();
+			}
+			return true;
+		}
+		if (this.resolved && this.te != null && !this.te.isInvalid() && this.entry.valid
+				&& (this.chunk == null || this.chunk.isLoaded())
+				&& (this.any != null || EnergyUtils.canCacheNoSupport(this.te)))
+			return true;
+		if (this.world == null) {
+			if (this.te == null || this.te.isInvalid())
+				return false;
+		} else {
+			long time = this.world.getTotalWorldTime();
+			if (this.lastResolved == time)
+				return false;
+			this.lastResolved = time;
+			this.chunk = this.world.getChunkProvider().getLoadedChunk(this.pos.getX() >> 4, this.pos.getZ() >> 4);
+			if (this.chunk == null) {
+				clear();
+				return false;
+			}
+			if (this.te == null || this.te.isInvalid() || (this.entry != null && !this.entry.valid))
+				this.te = this.world.getTileEntity(this.pos);
+			if (this.te == null) {
+				clear();
+				return false;
+			}
+		}
+		this.entry = EnergyUtils.getSupportCacheEntry(this.te);
+		resolve();
+		return true;
+	}
+
+	/**
+	 * Resolve all of the supports and containers
+	 */
+	private void resolve() {
+		if (this.stack != null) {
+			this.holder = EnergyUtils.getEnergyHolderSupport(this.stack, this.side);
+			this.consumer = EnergyUtils.getEnergyConsumerSupport(this.stack, this.side);
+			this.producer = EnergyUtils.getEnergyProducerSupport(this.stack, this.side);
+			this.any = EnergyUtils.getEnergySupport(this.stack, this.side);
+			this.holderContainer = this.holder == null ? null : this.holder.getContainer(this.stack, this.side);
+			this.consumerContainer = this.consumer == null ? null : this.consumer.getContainer(this.stack, this.side);
+			this.producerContainer = this.producer == null ? null : this.producer.getContainer(this.stack, this.side);
+			this.anyContainer = this.any == null ? null : this.any.getContainer(this.stack, this.side);
+		} else {
+			this.holder = EnergyUtils.getEnergyHolderSupport(this.te, this.side);
+			this.consumer = EnergyUtils.getEnergyConsumerSupport(this.te, this.side);
+			this.producer = EnergyUtils.getEnergyProducerSupport(this.te, this.side);
+			this.any = EnergyUtils.getEnergySupport(this.te, this.side);
+			this.holderContainer = this.holder == null ? null : this.holder.getContainer(this.te, this.side);
+			this.consumerContainer = this.consumer == null ? null : this.consumer.getContainer(this.te, this.side);
+			this.producerContainer = this.producer == null ? null : this.producer.getContainer(this.te, this.side);
+			this.anyContainer = this.any == null ? null : this.any.getContainer(this.te, this.side);
+		}
+		this.resolved = true;
+	}
+
+	/**
+	 * Forget all of the supports and containers
+	 */
+	private void clear() {
+		this.te = null;
+		this.entry = null;
+		this.holder = this.consumer = this.producer = this.any = null;
+		this.holderContainer = this.consumerContainer = this.producerContainer = this.anyContainer = null;
+		this.resolved = false;
+	}
+
+	/**
+	 * Forces the handle to resolve its supports and containers again on the
+	 * next call
+	 */
+	public void refresh() {
+		this.resolved = false;
+		this.lastResolved = Long.MIN_VALUE;
+		if (this.world != null)
+			this.chunk = null;
+	}
+
+	/**
+	 * @return Whether the {@link TileEntity} or {@link ItemStack} has a
+	 *         compatible energy support
+	 */
+	public boolean hasSupport() {
+		return validate() && this.any != null;
+	}
+
+	/**
+	 * @return Whether energy can be given
+	 */
+	public boolean canReceive() {
+		return validate() && this.consumer != null && this.consumer.canReceive(this.consumerContainer, this.side);
+	}
+
+	/**
+	 * @return Whether energy can be taken
+	 */
+	public boolean canExtract() {
+		return validate() && this.producer != null && this.producer.canExtract(this.producerContainer, this.side);
+	}
+
+	/**
+	 * Get the energy stored
+	 *
+	 * @param unit
+	 *            The unit the energy stored will be returned in
+	 * @return The amount of energy stored in the {@link EnergyUnit} provided
+	 */
+	public long getEnergyStored(@Nonnull EnergyUnit unit) {
+		if (!validate() || this.any == null)
+			return 0;
+		return EnergyUtils.convertEnergy(this.any.defaultEnergyUnit(), unit,
+				this.any.getEnergyStored(this.anyContainer, this.side));
+	}
+
+	/**
+	 * Get the capacity
+	 *
+	 * @param unit
+	 *            The unit the capacity will be returned in
+	 * @return The maximum amount of energy in the {@link EnergyUnit} provided
+	 */
+	public long getCapacity(@Nonnull EnergyUnit unit) {
+		if (!validate() || this.any == null)
+			return 0;
+		return EnergyUtils.convertEnergy(this.any.defaultEnergyUnit(), unit,
+				this.any.getCapacity(this.anyContainer, this.side));
+	}
+
+	/**
+	 * Give energy
+	 *
+	 * @param energy
+	 *            The energy to be given in the provided {@link EnergyUnit}
+	 * @param unit
+	 *            The {@link EnergyUnit} of the energy to give and the energy
+	 *            returned
+	 * @param simulate
+	 *            Whether or not it is a simulation. If so, no energy is
+	 *            actually given
+	 * @return The amount of energy which was given (or would have been given if
+	 *         it is simulated) in the {@link EnergyUnit} provided
+	 */
+	public long giveEnergy(long energy, @Nonnull EnergyUnit unit, boolean simulate) {
+		if (!validate() || this.consumer == null || !this.consumer.canReceive(this.consumerContainer, this.side))
+			return 0;
+		EnergyUnit defaultUnit = this.consumer.defaultEnergyUnit();
+		return EnergyUtils.convertEnergy(defaultUnit, unit, this.consumer.giveEnergy(this.consumerContainer,
+				EnergyUtils.convertEnergy(unit, defaultUnit, energy), simulate, this.side));
+	}
+
+	/**
+	 * Take energy
+	 *
+	 * @param energy
+	 *            The energy to be taken in the {@link EnergyUnit} provided
+	 * @param unit
+	 *            The {@link EnergyUnit} the energy will be returned in
+	 * @param simulate
+	 *            Whether or not it is a simulation. If so, no energy is
+	 *            actually taken
+	 * @return The amount of energy which was taken (or would have been taken if
+	 *         it is simulated) in the {@link EnergyUnit} provided
+	 */
+	public long takeEnergy(long energy, @Nonnull EnergyUnit unit, boolean simulate) {
+		if (!validate() || this.producer == null || !this.producer.canExtract(this.producerContainer, this.side))
+			return 0;
+		EnergyUnit defaultUnit = this.producer.defaultEnergyUnit();
+		return EnergyUtils.convertEnergy(defaultUnit, unit, this.producer.takeEnergy(this.producerContainer,
+				EnergyUtils.convertEnergy(unit, defaultUnit, energy), simulate, this.side));
+	}
+
+	/**
+	 * @return The {@link TileEntity} the handle is currently bound to. Can be
+	 *         <code>null</code>
+	 */
+	@Nullable
+	public TileEntity getTileEntity() {
+		return validate() ? this.te : null;
+	}
+
+	/**
+	 * @return The {@link ItemStack} the handle is bound to. Can be
+	 *         <code>null</code>
+	 */
+	@Nullable
+	public ItemStack getStack() {
+		return this.stack;
+	}
+
+	/**
+	 * @return The side used with {@link Capability}
+	 */
+	@Nullable
+	public EnumFacing getSide() {
+		return this.side;
+	}
+
+}
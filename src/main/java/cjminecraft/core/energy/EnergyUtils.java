@@ -11,26 +11,41 @@ import java.util.Map.Entry;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import buildcraft.api.mj.IMjPassiveProvider;
 import buildcraft.api.mj.IMjReadable;
 import buildcraft.api.mj.IMjReceiver;
 import cjminecraft.core.CJCore;
 import cjminecraft.core.config.CJCoreConfig;
 import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.energy.compat.EnergyStorage;
+import cjminecraft.core.energy.compat.ILongEnergyStorage;
+import cjminecraft.core.energy.compat.TileEntityEnergy;
 import cjminecraft.core.energy.support.BuildCraftSupport;
 import cjminecraft.core.energy.support.CoFHSupport;
 import cjminecraft.core.energy.support.ForgeEnergySupport;
 import cjminecraft.core.energy.support.IEnergySupport;
 import cjminecraft.core.energy.support.IndustrialCraftSupport;
+import cjminecraft.core.energy.support.LongEnergySupport;
 import cjminecraft.core.energy.support.TeslaSupport;
 import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
 import cjminecraft.core.network.energy.PacketGetCapacity;
 import cjminecraft.core.network.energy.PacketGetEnergy;
 import cjminecraft.core.network.energy.PacketGetEnergyData;
+import cjminecraft.core.network.sync.SubscriptionManager;
+import cjminecraft.core.network.sync.SyncCache;
+import cjminecraft.core.network.sync.SyncKey;
+import cjminecraft.core.util.NeighbourCache;
+import cjminecraft.core.util.TileEntityBase;
 import net.darkhax.tesla.api.ITeslaConsumer;
 import net.darkhax.tesla.api.ITeslaHolder;
 import net.darkhax.tesla.api.ITeslaProducer;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagLong;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
@@ -38,6 +53,7 @@ import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.CapabilityInject;
+import net.minecraftforge.common.capabilities.CapabilityManager;
 import net.minecraftforge.fml.common.Loader;
 import scala.annotation.meta.field;
 
@@ -49,13 +65,16 @@ import scala.annotation.meta.field;
  */
 public class EnergyUtils {
 
-	private static HashMap<String, HashMap<String, EnergyData>> cachedEnergyData = new HashMap<String, HashMap<String, EnergyData>>();
+	private static final SyncCache<EnergyData> cachedEnergyData = new SyncCache<EnergyData>();
 
 	public static final boolean TESLA_LOADED = Loader.isModLoaded("tesla");
 	public static final boolean INDUSTRAIL_CRAFT_LOADED = Loader.isModLoaded("ic2");
 	public static final boolean BUILDCRAFT_LOADED = Loader.isModLoaded("buildcraftlib");
 	public static final boolean REDSTONE_FLUX_API_LOADED = Loader.isModLoaded("redstoneflux");
 
+	@CapabilityInject(ILongEnergyStorage.class)
+	public static Capability<ILongEnergyStorage> LONG_ENERGY;
+
 	@CapabilityInject(ITeslaConsumer.class)
 	public static Capability<ITeslaConsumer> TESLA_CONSUMER;
 
@@ -81,10 +100,74 @@ public class EnergyUtils {
 	private static List<IEnergySupport> energyConsumerSupport = new ArrayList<IEnergySupport>();
 	private static List<IEnergySupport> energyProducerSupport = new ArrayList<IEnergySupport>();
 
+	/**
+	 * The roles which a resolved support can be cached under
+	 */
+	private static final int ROLE_HOLDER = 0, ROLE_CONSUMER = 1, ROLE_PRODUCER = 2, ROLE_ANY = 3;
+
+	/**
+	 * Marks a side and role which has been resolved and has no support. Only
+	 * cached for a {@link TileEntityEnergy}, which invalidates its own cache
+	 * when its capabilities change
+	 */
+	private static final Object NO_SUPPORT = new Object();
+
+	/**
+	 * Cache of resolved supports for each {@link TileEntity}. Keys are weak
+	 * and compared by identity
+	 */
+	private static final Cache<TileEntity, SupportCacheEntry> supportCache = CacheBuilder.newBuilder().weakKeys()
+			.build();
+
+	/**
+	 * Incremented every time a support is registered so {@link EnergyHandle}s
+	 * know to resolve their support again
+	 */
+	static volatile int supportGeneration;
+
+	/**
+	 * The exact ratio to convert between each pair of {@link EnergyUnit}s,
+	 * indexed by <code>from.ordinal() * units + to.ordinal()</code>. Each
+	 * ratio is reduced so the numerator and denominator share no factors
+	 */
+	private static final long[] conversionNumerators, conversionDenominators;
+
+	static {
+		EnergyUnit[] units = EnergyUnit.values();
+		long[] numerators = new long[units.length];
+		long[] denominators = new long[units.length];
+		for (int i = 0; i < units.length; i++) {
+			double multiplier = units[i].getMultiplier();
+			long denominator = 1;
+			while (denominator < 1000000 && multiplier * denominator != Math.rint(multiplier * denominator))
+				denominator++;
+			numerators[i] = Math.round(multiplier * denominator);
+			denominators[i] = denominator;
+		}
+		conversionNumerators = new long[units.length * units.length];
+		conversionDenominators = new long[units.length * units.length];
+		for (int from = 0; from < units.length; from++) {
+			for (int to = 0; to < units.length; to++) {
+				// energy / (fn / fd) * (tn / td) = energy * (tn * fd) / (td * fn)
+				long numerator = numerators[to] * denominators[from];
+				long denominator = denominators[to] * numerators[from];
+				long gcd = gcd(numerator, denominator);
+				conversionNumerators[from * units.length + to] = numerator / gcd;
+				conversionDenominators[from * units.length + to] = denominator / gcd;
+			}
+		}
+	}
+
 	/**
 	 * Should not be called outside of {@link CJCore}
 	 */
 	public static void preInit() {
+		registerLongEnergyCapability();
+		CJCore.logger.info("Adding Long Energy Support!");
+		addEnergyHolderSupport(new LongEnergySupport.LongEnergyHolder());
+		addEnergyConsumerSupport(new LongEnergySupport.LongEnergyConsumer());
+		addEnergyProducerSupport(new LongEnergySupport.LongEnergyProducer());
+
 		if (TESLA_LOADED) {
 			CJCore.logger.info("Adding Tesla Support!");
 			addEnergyHolderSupport(new TeslaSupport.TeslaHolderSupport());
@@ -119,6 +202,28 @@ public class EnergyUtils {
 		addEnergyProducerSupport(new ForgeEnergySupport.ForgeEnergyProducer());
 	}
 
+	/**
+	 * Registers the {@link #LONG_ENERGY} capability
+	 */
+	private static void registerLongEnergyCapability() {
+		CapabilityManager.INSTANCE.register(ILongEnergyStorage.class, new Capability.IStorage<ILongEnergyStorage>() {
+			@Override
+			public NBTBase writeNBT(Capability<ILongEnergyStorage> capability, ILongEnergyStorage instance,
+					EnumFacing side) {
+				return new NBTTagLong(instance.getEnergyStored());
+			}
+
+			@Override
+			public void readNBT(Capability<ILongEnergyStorage> capability, ILongEnergyStorage instance,
+					EnumFacing side, NBTBase nbt) {
+				if (!(instance instanceof EnergyStorage))
+					throw new IllegalArgumentException(
+							"Can not deserialize to an instance that isn't the default implementation");
+				((EnergyStorage) instance).setEnergyStored(((NBTTagLong) nbt).getLong());
+			}
+		}, () -> new EnergyStorage(1000));
+	}
+
 	/**
 	 * Add support for an energy holder.
 	 * 
@@ -131,6 +236,7 @@ public class EnergyUtils {
 					support.getClass().getSimpleName()));
 		else {
 			energyHolderSupport.add(support);
+			clearSupportCache();
 			CJCore.logger.info(
 					String.format("Successfully registered energy support %s", support.getClass().getSimpleName()));
 		}
@@ -148,6 +254,7 @@ public class EnergyUtils {
 					support.getClass().getSimpleName()));
 		else {
 			energyConsumerSupport.add(support);
+			clearSupportCache();
 			CJCore.logger.info(
 					String.format("Successfully registered energy support %s", support.getClass().getSimpleName()));
 		}
@@ -165,6 +272,7 @@ public class EnergyUtils {
 					support.getClass().getSimpleName()));
 		else {
 			energyProducerSupport.add(support);
+			clearSupportCache();
 			CJCore.logger.info(
 					String.format("Successfully registered energy support %s", support.getClass().getSimpleName()));
 		}
@@ -185,12 +293,7 @@ public class EnergyUtils {
 	 */
 	@Nullable
 	public static <I> IEnergySupport<I> getEnergyHolderSupport(@Nullable TileEntity te, @Nullable EnumFacing from) {
-		if (te == null)
-			return null;
-		for (IEnergySupport<I> support : energyHolderSupport)
-			if (support.hasSupport(te, from))
-				return support;
-		return null;
+		return getCachedSupport(te, from, ROLE_HOLDER);
 	}
 
 	/**
@@ -208,12 +311,7 @@ public class EnergyUtils {
 	 */
 	@Nullable
 	public static <I> IEnergySupport<I> getEnergyConsumerSupport(@Nullable TileEntity te, @Nullable EnumFacing from) {
-		if (te == null)
-			return null;
-		for (IEnergySupport<I> support : energyConsumerSupport)
-			if (support.hasSupport(te, from))
-				return support;
-		return null;
+		return getCachedSupport(te, from, ROLE_CONSUMER);
 	}
 
 	/**
@@ -232,12 +330,7 @@ public class EnergyUtils {
 	 */
 	@Nullable
 	public static <I> IEnergySupport<I> getEnergyProducerSupport(@Nullable TileEntity te, @Nullable EnumFacing from) {
-		if (te == null)
-			return null;
-		for (IEnergySupport<I> support : energyProducerSupport)
-			if (support.hasSupport(te, from))
-				return support;
-		return null;
+		return getCachedSupport(te, from, ROLE_PRODUCER);
 	}
 
 	/**
@@ -324,12 +417,7 @@ public class EnergyUtils {
 	 */
 	@Nullable
 	public static <I> IEnergySupport<I> getEnergySupport(@Nullable TileEntity te, @Nullable EnumFacing from) {
-		IEnergySupport<I> support = getEnergyHolderSupport(te, from);
-		if (support == null)
-			support = getEnergyConsumerSupport(te, from);
-		if (support == null)
-			support = getEnergyProducerSupport(te, from);
-		return support;
+		return getCachedSupport(te, from, ROLE_ANY);
 	}
 
 	/**
@@ -355,6 +443,134 @@ public class EnergyUtils {
 		return support;
 	}
 
+	/**
+	 * Removes any cached support for the given {@link TileEntity}. Should be
+	 * called whenever the capabilities of the {@link TileEntity} change so the
+	 * support is resolved again on the next call. Any {@link EnergyHandle}
+	 * bound to the {@link TileEntity} will also resolve its support again
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} whose capabilities have changed
+	 */
+	public static void invalidateSupportCache(@Nullable TileEntity te) {
+		if (te == null)
+			return;
+		SupportCacheEntry entry = supportCache.getIfPresent(te);
+		if (entry != null) {
+			entry.valid = false;
+			supportCache.invalidate(te);
+		}
+	}
+
+	/**
+	 * Removes every cached support, used when a new support is registered
+	 */
+	private static void clearSupportCache() {
+		for (SupportCacheEntry entry : supportCache.asMap().values())
+			entry.valid = false;
+		supportCache.invalidateAll();
+		supportGeneration++;
+	}
+
+	/**
+	 * Get the cache entry for the given {@link TileEntity}, creating it if
+	 * there is none
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} which handles energy
+	 * @return The cache entry of the {@link TileEntity}
+	 */
+	static SupportCacheEntry getSupportCacheEntry(@Nonnull TileEntity te) {
+		SupportCacheEntry entry = supportCache.getIfPresent(te);
+		if (entry == null) {
+			entry = new SupportCacheEntry();
+			supportCache.put(te, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Get the support for the {@link TileEntity}, side and role from the
+	 * cache, resolving and caching it if it has not been resolved before
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} which handles energy
+	 * @param from
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param role
+	 *            The role of the support
+	 * @return The {@link IEnergySupport} for the {@link TileEntity} if it has
+	 *         support. Can be <code>null</code>
+	 */
+	@Nullable
+	private static <I> IEnergySupport<I> getCachedSupport(@Nullable TileEntity te, @Nullable EnumFacing from,
+			int role) {
+		if (te == null)
+			return null;
+		if (te.isInvalid()) {
+			invalidateSupportCache(te);
+			return resolveSupport(te, from, role);
+		}
+		Object[] supports = getSupportCacheEntry(te).supports;
+		int index = role * 7 + (from == null ? 6 : from.getIndex());
+		Object support = supports[index];
+		if (support == null) {
+			support = resolveSupport(te, from, role);
+			if (support != null)
+				supports[index] = support;
+			else if (canCacheNoSupport(te))
+				supports[index] = NO_SUPPORT;
+		}
+		return support == NO_SUPPORT ? null : (IEnergySupport<I>) support;
+	}
+
+	/**
+	 * Check whether it can be remembered that the {@link TileEntity} has no
+	 * support. Other mods may add capabilities to their tile entities at any
+	 * time without invalidating the cache, so this is only done for a
+	 * {@link TileEntityEnergy}
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} which has no support
+	 * @return Whether having no support can be cached
+	 */
+	static boolean canCacheNoSupport(@Nonnull TileEntity te) {
+		return te instanceof TileEntityEnergy;
+	}
+
+	/**
+	 * Find the first registered support for the {@link TileEntity}, side and
+	 * role
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} which handles energy
+	 * @param from
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param role
+	 *            The role of the support
+	 * @return The {@link IEnergySupport} for the {@link TileEntity} if it has
+	 *         support. Can be <code>null</code>
+	 */
+	@Nullable
+	private static <I> IEnergySupport<I> resolveSupport(TileEntity te, @Nullable EnumFacing from, int role) {
+		if (role == ROLE_ANY) {
+			IEnergySupport<I> support = getCachedSupport(te, from, ROLE_HOLDER);
+			if (support == null)
+				support = getCachedSupport(te, from, ROLE_CONSUMER);
+			if (support == null)
+				support = getCachedSupport(te, from, ROLE_PRODUCER);
+			return support;
+		}
+		List<IEnergySupport> supports = role == ROLE_HOLDER ? energyHolderSupport
+				: role == ROLE_CONSUMER ? energyConsumerSupport : energyProducerSupport;
+		for (IEnergySupport<I> support : supports)
+			if (support.hasSupport(te, from))
+				return support;
+		return null;
+	}
+
 	/**
 	 * States whether the {@link TileEntity} has a compatible energy support
 	 * 
@@ -383,6 +599,19 @@ public class EnergyUtils {
 		return getEnergySupport(stack, from) != null;
 	}
 
+	/**
+	 * Casts the energy to an int, capping it at {@link Integer#MAX_VALUE} and
+	 * {@link Integer#MIN_VALUE} rather than wrapping around
+	 * 
+	 * @param energy
+	 *            The energy to cast
+	 * @return The energy as an int
+	 */
+	public static int clampToInt(long energy) {
+		return energy > Integer.MAX_VALUE ? Integer.MAX_VALUE
+				: energy < Integer.MIN_VALUE ? Integer.MIN_VALUE : (int) energy;
+	}
+
 	/**
 	 * Convert one energy unit to another energy unit
 	 * 
@@ -395,7 +624,80 @@ public class EnergyUtils {
 	 * @return The converted energy
 	 */
 	public static long convertEnergy(EnergyUnit from, EnergyUnit to, long energy) {
-		return (long) ((double) energy / (double) from.getMultiplier() * (double) to.getMultiplier());
+		if (from == to)
+			return energy;
+		int index = from.ordinal() * EnergyUnit.VALUES.size() + to.ordinal();
+		return convertEnergy(energy, conversionNumerators[index], conversionDenominators[index]);
+	}
+
+	/**
+	 * Convert every value in the array from one energy unit to another energy
+	 * unit. The values are replaced with the converted energy
+	 * 
+	 * @param from
+	 *            The unit the energy is in
+	 * @param to
+	 *            The unit the energy wants to be in
+	 * @param energy
+	 *            The energy to convert
+	 */
+	public static void convertEnergy(EnergyUnit from, EnergyUnit to, long[] energy) {
+		convertEnergy(from, to, energy, 0, energy.length);
+	}
+
+	/**
+	 * Convert a range of values in the array from one energy unit to another
+	 * energy unit. The values are replaced with the converted energy
+	 * 
+	 * @param from
+	 *            The unit the energy is in
+	 * @param to
+	 *            The unit the energy wants to be in
+	 * @param energy
+	 *            The energy to convert
+	 * @param offset
+	 *            The index of the first value to convert
+	 * @param length
+	 *            How many values to convert
+	 */
+	public static void convertEnergy(EnergyUnit from, EnergyUnit to, long[] energy, int offset, int length) {
+		if (from == to)
+			return;
+		int index = from.ordinal() * EnergyUnit.VALUES.size() + to.ordinal();
+		long numerator = conversionNumerators[index], denominator = conversionDenominators[index];
+		for (int i = offset; i < offset + length; i++)
+			energy[i] = convertEnergy(energy[i], numerator, denominator);
+	}
+
+	/**
+	 * Multiplies the energy by the ratio, rounding towards zero like a cast
+	 * would. If the result does not fit inside of a long it is capped at
+	 * {@link Long#MAX_VALUE} or {@link Long#MIN_VALUE}
+	 */
+	private static long convertEnergy(long energy, long numerator, long denominator) {
+		if (numerator == denominator)
+			return energy;
+		// energy * n / d = (energy / d) * n + (energy % d) * n / d, both parts
+		// have the same sign so only the first part can overflow
+		long quotient = energy / denominator;
+		long remainder = energy % denominator;
+		if (quotient > Long.MAX_VALUE / numerator)
+			return Long.MAX_VALUE;
+		if (quotient < Long.MIN_VALUE / numerator)
+			return Long.MIN_VALUE;
+		long converted = quotient * numerator + remainder * numerator / denominator;
+		if ((converted ^ quotient) < 0 && quotient != 0)
+			return quotient < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+		return converted;
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
 	}
 
 	/**
@@ -1054,12 +1356,15 @@ public class EnergyUtils {
 	 */
 	public static long takeEnergyAllFaces(@Nonnull World world, BlockPos pos, long energy, @Nonnull EnergyUnit unit,
 			boolean simulate, boolean share) {
+		TileEntity center = world.getTileEntity(pos);
+		if (center instanceof TileEntityBase)
+			return takeEnergyAllFaces(((TileEntityBase) center).getNeighbourCache(), energy, unit, simulate, share);
 		HashMap<EnumFacing, TileEntity> tiles = new HashMap<EnumFacing, TileEntity>();
 		for (EnumFacing side : EnumFacing.VALUES) {
 			TileEntity te = world.getTileEntity(pos.offset(side));
 			if (te == null)
 				continue;
-			if (hasSupport(te, side))
+			if (hasSupport(te, side.getOpposite()))
 				tiles.put(side, te);
 		}
 		if (tiles.size() <= 0)
@@ -1073,7 +1378,7 @@ public class EnergyUtils {
 				Entry<EnumFacing, TileEntity> entry = tilesIterator.next();
 				EnumFacing side = entry.getKey();
 				TileEntity te = entry.getValue();
-				long et = takeEnergy(te, energyPerSide + extraEnergy, unit, simulate, side);
+				long et = takeEnergy(te, energyPerSide + extraEnergy, unit, simulate, side.getOpposite());
 				energyTaken += et;
 				if (et < energyPerSide)
 					extraEnergy = energyPerSide - et;
@@ -1088,7 +1393,7 @@ public class EnergyUtils {
 				Entry<EnumFacing, TileEntity> entry = tilesIterator.next();
 				EnumFacing side = entry.getKey();
 				TileEntity te = entry.getValue();
-				energyTaken += takeEnergy(te, energy, unit, simulate, side);
+				energyTaken += takeEnergy(te, energy, unit, simulate, side.getOpposite());
 			}
 			return energyTaken;
 		}
@@ -1143,12 +1448,15 @@ public class EnergyUtils {
 	 */
 	public static long giveEnergyAllFaces(@Nonnull World world, BlockPos pos, long energy, @Nonnull EnergyUnit unit,
 			boolean simulate, boolean share) {
+		TileEntity center = world.getTileEntity(pos);
+		if (center instanceof TileEntityBase)
+			return giveEnergyAllFaces(((TileEntityBase) center).getNeighbourCache(), energy, unit, simulate, share);
 		HashMap<EnumFacing, TileEntity> tiles = new HashMap<EnumFacing, TileEntity>();
 		for (EnumFacing side : EnumFacing.VALUES) {
 			TileEntity te = world.getTileEntity(pos.offset(side));
 			if (te == null)
 				continue;
-			if (hasSupport(te, side))
+			if (hasSupport(te, side.getOpposite()))
 				tiles.put(side, te);
 		}
 		if (tiles.size() <= 0)
@@ -1162,7 +1470,7 @@ public class EnergyUtils {
 				Entry<EnumFacing, TileEntity> entry = tilesIterator.next();
 				EnumFacing side = entry.getKey();
 				TileEntity te = entry.getValue();
-				long eg = giveEnergy(te, energyPerSide + extraEnergy, unit, simulate, side);
+				long eg = giveEnergy(te, energyPerSide + extraEnergy, unit, simulate, side.getOpposite());
 				energyGiven += eg;
 				if (eg < energyPerSide)
 					extraEnergy = energyPerSide - eg;
@@ -1177,12 +1485,164 @@ public class EnergyUtils {
 				Entry<EnumFacing, TileEntity> entry = tilesIterator.next();
 				EnumFacing side = entry.getKey();
 				TileEntity te = entry.getValue();
-				energyGiven += giveEnergy(te, energy, unit, simulate, side);
+				energyGiven += giveEnergy(te, energy, unit, simulate, side.getOpposite());
 			}
 			return energyGiven;
 		}
 	}
 
+	/**
+	 * Takes energy from all connecting energy handlers surrounding the given
+	 * {@link TileEntity}. If the {@link TileEntity} is a {@link TileEntityBase}
+	 * its {@link NeighbourCache} is used so no world lookups are needed
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param energy
+	 *            The energy to take altogether. Will be distributed evenly
+	 *            between the {@link TileEntity}s. Needs to be in the
+	 *            {@link EnergyUnit} provided
+	 * @param unit
+	 *            The {@link EnergyUnit} the energy taken will be returned in
+	 * @param simulate
+	 *            Whether it is a simulation or not. If so, the energy won't
+	 *            actually be taken
+	 * @param share
+	 *            Whether to take the energy from every face or to share the
+	 *            amount of energy to take
+	 * @return The amount of energy taken in the {@link EnergyUnit} provided
+	 */
+	public static long takeEnergyAllFaces(@Nonnull TileEntity te, long energy, @Nonnull EnergyUnit unit,
+			boolean simulate, boolean share) {
+		if (te instanceof TileEntityBase)
+			return takeEnergyAllFaces(((TileEntityBase) te).getNeighbourCache(), energy, unit, simulate, share);
+		return takeEnergyAllFaces(te.getWorld(), te.getPos(), energy, unit, simulate, share);
+	}
+
+	/**
+	 * Gives energy to all connecting energy handlers surrounding the given
+	 * {@link TileEntity}. If the {@link TileEntity} is a {@link TileEntityBase}
+	 * its {@link NeighbourCache} is used so no world lookups are needed
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param energy
+	 *            The energy to give altogether. Will be distributed evenly
+	 *            between the {@link TileEntity}s. Needs to be in the
+	 *            {@link EnergyUnit} provided
+	 * @param unit
+	 *            The {@link EnergyUnit} the energy given will be returned in
+	 * @param simulate
+	 *            Whether it is a simulation or not. If so, the energy won't
+	 *            actually be given
+	 * @param share
+	 *            Whether to give the energy to every face or to share the
+	 *            amount of energy to give
+	 * @return The amount of energy given in the {@link EnergyUnit} provided
+	 */
+	public static long giveEnergyAllFaces(@Nonnull TileEntity te, long energy, @Nonnull EnergyUnit unit,
+			boolean simulate, boolean share) {
+		if (te instanceof TileEntityBase)
+			return giveEnergyAllFaces(((TileEntityBase) te).getNeighbourCache(), energy, unit, simulate, share);
+		return giveEnergyAllFaces(te.getWorld(), te.getPos(), energy, unit, simulate, share);
+	}
+
+	/**
+	 * Takes energy from all of the cached neighbours which have energy support
+	 * 
+	 * @param neighbours
+	 *            The cache of the surrounding {@link TileEntity}s
+	 * @param energy
+	 *            The energy to take altogether
+	 * @param unit
+	 *            The {@link EnergyUnit} of the energy
+	 * @param simulate
+	 *            Whether it is a simulation or not
+	 * @param share
+	 *            Whether to share the energy between the faces
+	 * @return The amount of energy taken in the {@link EnergyUnit} provided
+	 */
+	private static long takeEnergyAllFaces(NeighbourCache neighbours, long energy, @Nonnull EnergyUnit unit,
+			boolean simulate, boolean share) {
+		int faces = 0;
+		for (EnumFacing side : EnumFacing.VALUES)
+			if (neighbours.getEnergyHandle(side) != null)
+				faces++;
+		if (faces <= 0)
+			return 0;
+		long energyTaken = 0;
+		if (share) {
+			long energyPerSide = energy / faces;
+			long extraEnergy = 0;
+			for (EnumFacing side : EnumFacing.VALUES) {
+				EnergyHandle handle = neighbours.getEnergyHandle(side);
+				if (handle == null)
+					continue;
+				long et = handle.takeEnergy(energyPerSide + extraEnergy, unit, simulate);
+				energyTaken += et;
+				if (et < energyPerSide)
+					extraEnergy = energyPerSide - et;
+				else
+					extraEnergy = 0;
+			}
+		} else {
+			for (EnumFacing side : EnumFacing.VALUES) {
+				EnergyHandle handle = neighbours.getEnergyHandle(side);
+				if (handle != null)
+					energyTaken += handle.takeEnergy(energy, unit, simulate);
+			}
+		}
+		return energyTaken;
+	}
+
+	/**
+	 * Gives energy to all of the cached neighbours which have energy support
+	 * 
+	 * @param neighbours
+	 *            The cache of the surrounding {@link TileEntity}s
+	 * @param energy
+	 *            The energy to give altogether
+	 * @param unit
+	 *            The {@link EnergyUnit} of the energy
+	 * @param simulate
+	 *            Whether it is a simulation or not
+	 * @param share
+	 *            Whether to share the energy between the faces
+	 * @return The amount of energy given in the {@link EnergyUnit} provided
+	 */
+	private static long giveEnergyAllFaces(NeighbourCache neighbours, long energy, @Nonnull EnergyUnit unit,
+			boolean simulate, boolean share) {
+		int faces = 0;
+		for (EnumFacing side : EnumFacing.VALUES)
+			if (neighbours.getEnergyHandle(side) != null)
+				faces++;
+		if (faces <= 0)
+			return 0;
+		long energyGiven = 0;
+		if (share) {
+			long energyPerSide = energy / faces;
+			long extraEnergy = 0;
+			for (EnumFacing side : EnumFacing.VALUES) {
+				EnergyHandle handle = neighbours.getEnergyHandle(side);
+				if (handle == null)
+					continue;
+				long eg = handle.giveEnergy(energyPerSide + extraEnergy, unit, simulate);
+				energyGiven += eg;
+				if (eg < energyPerSide)
+					extraEnergy = energyPerSide - eg;
+				else
+					extraEnergy = 0;
+			}
+		} else {
+			for (EnumFacing side : EnumFacing.VALUES) {
+				EnergyHandle handle = neighbours.getEnergyHandle(side);
+				if (handle != null)
+					energyGiven += handle.giveEnergy(energy, unit, simulate);
+			}
+		}
+		return energyGiven;
+	}
+
 	/**
 	 * Saves data when syncing with the server
 	 * 
@@ -1194,10 +1654,7 @@ public class EnergyUtils {
 	 *            The data to sync
 	 */
 	public static void addCachedEnergyData(String modid, String className, EnergyData data) {
-		if (!cachedEnergyData.containsKey(modid))
-			cachedEnergyData.put(modid, new HashMap<String, EnergyData>());
-		if (!cachedEnergyData.get(modid).containsKey(className))
-			cachedEnergyData.get(modid).put(className, data);
+		cachedEnergyData.put(modid, className, data);
 	}
 
 	/**
@@ -1207,12 +1664,26 @@ public class EnergyUtils {
 	 *            The modid to get mod specific data
 	 * @return The latest data from the calling class
 	 */
+	@Deprecated
 	public static EnergyData getCachedEnergyData(String modid) {
-		return getCachedEnergyData(modid, new Exception().getStackTrace()[1].getClassName());
+		return getCachedEnergyData(SyncKey.forCaller(modid));
 	}
 
 	/**
-	 * Retrieves the latest data from the given class
+	 * Retrieves the latest data cached under the given key
+	 * 
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 * @return The latest data cached under the key
+	 */
+	public static EnergyData getCachedEnergyData(SyncKey key) {
+		return getCachedEnergyData(key.getModid(), key.getClassName());
+	}
+
+	/**
+	 * Retrieves the latest data from the given class. The data stays cached
+	 * until newer data arrives, so use {@link #getEnergyDataCache()} to check
+	 * how old it is
 	 * 
 	 * @param modid
 	 *            The modid to get mod specific data
@@ -1222,13 +1693,7 @@ public class EnergyUtils {
 	 */
 	@Nullable
 	public static EnergyData getCachedEnergyData(String modid, String className) {
-		if (!cachedEnergyData.containsKey(modid))
-			return null;
-		if (!cachedEnergyData.get(modid).containsKey(className))
-			return null;
-		EnergyData data = cachedEnergyData.get(modid).get(className);
-		cachedEnergyData.get(modid).remove(className);
-		return data;
+		return cachedEnergyData.get(modid, className);
 	}
 
 	/**
@@ -1248,8 +1713,26 @@ public class EnergyUtils {
 	 */
 	@Deprecated
 	public static void syncEnergy(BlockPos pos, @Nullable EnumFacing side, String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergy(EnergyUnit.MINECRAFT_JOULES, pos, side, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncEnergy(pos, side, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync energy with the server. To get the data use
+	 * {@link #getCachedEnergyData(SyncKey)} and then use
+	 * {@link EnergyData#getEnergy()}. This will store the data under the given
+	 * key
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncEnergy(BlockPos pos, @Nullable EnumFacing side, SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergy(EnergyUnit.MINECRAFT_JOULES, pos, side, false,
+				key.getModid(), key.getClassName()));
 	}
 
 	/**
@@ -1292,8 +1775,26 @@ public class EnergyUtils {
 	 */
 	@Deprecated
 	public static void syncCapacity(BlockPos pos, @Nullable EnumFacing side, String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetCapacity(EnergyUnit.MINECRAFT_JOULES, pos, side, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncCapacity(pos, side, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync capacity with the server. To get the data use
+	 * {@link #getCachedEnergyData(SyncKey)} and then use
+	 * {@link EnergyData#getCapacity()}. This will store the data under the
+	 * given key
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncCapacity(BlockPos pos, @Nullable EnumFacing side, SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetCapacity(EnergyUnit.MINECRAFT_JOULES, pos, side, false,
+				key.getModid(), key.getClassName()));
 	}
 
 	/**
@@ -1335,8 +1836,25 @@ public class EnergyUtils {
 	 */
 	@Deprecated
 	public static void syncEnergyData(BlockPos pos, @Nullable EnumFacing side, String modid) {
+		syncEnergyData(pos, side, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync {@link EnergyData} with the server. To get the data use
+	 * {@link #getCachedEnergyData(SyncKey)}. This will store the data under the
+	 * given key
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncEnergyData(BlockPos pos, @Nullable EnumFacing side, SyncKey key) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergyData(EnergyUnit.MINECRAFT_JOULES, pos, side, false,
-				modid, new Exception().getStackTrace()[1].getClassName()));
+				key.getModid(), key.getClassName()));
 	}
 
 	/**
@@ -1379,7 +1897,7 @@ public class EnergyUtils {
 	@Deprecated
 	public static void syncEnergyField(BlockPos pos, @Nullable EnumFacing side, String energyFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergy(EnergyUnit.MINECRAFT_JOULES, pos, side, true,
-				new Exception().getStackTrace()[1].getClassName(), energyFieldName));
+				SyncKey.getCallerClassName(), energyFieldName));
 	}
 
 	/**
@@ -1422,7 +1940,7 @@ public class EnergyUtils {
 	@Deprecated
 	public static void syncCapacityField(BlockPos pos, @Nullable EnumFacing side, String capacityFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetCapacity(EnergyUnit.MINECRAFT_JOULES, pos, side, true,
-				new Exception().getStackTrace()[1].getClassName(), capacityFieldName));
+				SyncKey.getCallerClassName(), capacityFieldName));
 	}
 
 	/**
@@ -1469,7 +1987,7 @@ public class EnergyUtils {
 	public static void syncEnergyDataFields(BlockPos pos, @Nullable EnumFacing side, String energyFieldName,
 			String capacityFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergyData(EnergyUnit.MINECRAFT_JOULES, pos, side, true,
-				new Exception().getStackTrace()[1].getClassName(), energyFieldName, capacityFieldName));
+				SyncKey.getCallerClassName(), energyFieldName, capacityFieldName));
 	}
 
 	/**
@@ -1515,9 +2033,30 @@ public class EnergyUtils {
 	 * @param modid
 	 *            The modid for mod specific data
 	 */
+	@Deprecated
 	public static void syncEnergy(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side, String modid) {
+		syncEnergy(unit, pos, side, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync energy with the server. To get the data use
+	 * {@link #getCachedEnergyData(SyncKey)} and then use
+	 * {@link EnergyData#getEnergy()}. This will store the data under the given
+	 * key
+	 * 
+	 * @param unit
+	 *            The {@link EnergyUnit} in which the energy will be returned in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncEnergy(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side, SyncKey key) {
 		PacketHandler.INSTANCE.sendToServer(
-				new PacketGetEnergy(unit, pos, side, false, modid, new Exception().getStackTrace()[1].getClassName()));
+				new PacketGetEnergy(unit, pos, side, false, key.getModid(), key.getClassName()));
 	}
 
 	/**
@@ -1562,9 +2101,31 @@ public class EnergyUtils {
 	 * @param modid
 	 *            The modid for mod specific data
 	 */
+	@Deprecated
 	public static void syncCapacity(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side, String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetCapacity(unit, pos, side, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncCapacity(unit, pos, side, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync capacity with the server. To get the data use
+	 * {@link #getCachedEnergyData(SyncKey)} and then use
+	 * {@link EnergyData#getCapacity()}. This will store the data under the
+	 * given key
+	 * 
+	 * @param unit
+	 *            The {@link EnergyUnit} in which the capacity will be returned
+	 *            in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncCapacity(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side, SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetCapacity(unit, pos, side, false, key.getModid(),
+				key.getClassName()));
 	}
 
 	/**
@@ -1609,9 +2170,30 @@ public class EnergyUtils {
 	 * @param modid
 	 *            The modid for mod specific data
 	 */
+	@Deprecated
 	public static void syncEnergyData(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side, String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergyData(unit, pos, side, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncEnergyData(unit, pos, side, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync {@link EnergyData} with the server. To get the data use
+	 * {@link #getCachedEnergyData(SyncKey)}. This will store the data under the
+	 * given key
+	 * 
+	 * @param unit
+	 *            The {@link EnergyUnit} in which the energy data will be
+	 *            returned in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncEnergyData(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side, SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergyData(unit, pos, side, false, key.getModid(),
+				key.getClassName()));
 	}
 
 	/**
@@ -1655,10 +2237,11 @@ public class EnergyUtils {
 	 *            The name of the field which will hold the energy. Must be a
 	 *            <code>long</code>
 	 */
+	@Deprecated
 	public static void syncEnergyField(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
 			String energyFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergy(unit, pos, side, true,
-				new Exception().getStackTrace()[1].getClassName(), energyFieldName));
+				SyncKey.getCallerClassName(), energyFieldName));
 	}
 
 	/**
@@ -1701,10 +2284,11 @@ public class EnergyUtils {
 	 *            The name of the field which will hold the capacity. Must be a
 	 *            <code>long</code>
 	 */
+	@Deprecated
 	public static void syncCapacityField(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
 			String capacityFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetCapacity(unit, pos, side, true,
-				new Exception().getStackTrace()[1].getClassName(), capacityFieldName));
+				SyncKey.getCallerClassName(), capacityFieldName));
 	}
 
 	/**
@@ -1751,10 +2335,11 @@ public class EnergyUtils {
 	 *            The name of the field which will hold the capacity. Must be a
 	 *            <code>long</code>
 	 */
+	@Deprecated
 	public static void syncEnergyDataFields(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
 			String energyFieldName, String capacityFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergyData(unit, pos, side, true,
-				new Exception().getStackTrace()[1].getClassName(), energyFieldName, capacityFieldName));
+				SyncKey.getCallerClassName(), energyFieldName, capacityFieldName));
 	}
 
 	/**
@@ -1784,7 +2369,107 @@ public class EnergyUtils {
 		PacketHandler.INSTANCE.sendToServer(
 				new PacketGetEnergyData(unit, pos, side, true, className, energyFieldName, capacityFieldName));
 	}
-	
+
+	/**
+	 * Sync energy into a target registered with the
+	 * {@link SyncTargetRegistry}. This will give the target the energy of the
+	 * {@link TileEntity} at the given {@link BlockPos}
+	 *
+	 * @param unit
+	 *            The {@link EnergyUnit} in which the energy will be returned in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param energyTarget
+	 *            The id of the target which will be given the energy
+	 */
+	public static void syncEnergy(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int energyTarget) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergy(unit, pos, side, energyTarget));
+	}
+
+	/**
+	 * Sync capacity into a target registered with the
+	 * {@link SyncTargetRegistry}. This will give the target the capacity of
+	 * the {@link TileEntity} at the given {@link BlockPos}
+	 *
+	 * @param unit
+	 *            The {@link EnergyUnit} in which the capacity will be returned
+	 *            in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param capacityTarget
+	 *            The id of the target which will be given the capacity
+	 */
+	public static void syncCapacity(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int capacityTarget) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetCapacity(unit, pos, side, capacityTarget));
+	}
+
+	/**
+	 * Sync energy and capacity into targets registered with the
+	 * {@link SyncTargetRegistry}. This will give the targets the energy and
+	 * capacity (each respectively) of the {@link TileEntity} at the given
+	 * {@link BlockPos}
+	 *
+	 * @param unit
+	 *            The {@link EnergyUnit} in which the energy data will be
+	 *            returned in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param energyTarget
+	 *            The id of the target which will be given the energy
+	 * @param capacityTarget
+	 *            The id of the target which will be given the capacity
+	 */
+	public static void syncEnergyData(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int energyTarget, int capacityTarget) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetEnergyData(unit, pos, side, energyTarget, capacityTarget));
+	}
+
+	/**
+	 * Subscribe to the energy and capacity of the {@link TileEntity} at the
+	 * given {@link BlockPos}. The server will push them to the targets
+	 * registered with the {@link SyncTargetRegistry} in the given unit
+	 * whenever they change, until {@link SubscriptionManager#unsubscribe(int)}
+	 * is called with the energy target
+	 *
+	 * @param unit
+	 *            The {@link EnergyUnit} in which the energy data will be
+	 *            pushed in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param energyTarget
+	 *            The id of the target which will be given the energy
+	 * @param capacityTarget
+	 *            The id of the target which will be given the capacity
+	 */
+	public static void subscribeEnergyData(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int energyTarget, int capacityTarget) {
+		SubscriptionManager.subscribeEnergy(unit, pos, side, energyTarget, capacityTarget);
+	}
+
+	/**
+	 * Gets the cache of energy data synced from the server, which can be used to
+	 * check how old the data is
+	 * 
+	 * @return The cache of energy data
+	 */
+	public static SyncCache<EnergyData> getEnergyDataCache() {
+		return cachedEnergyData;
+	}
+
 	/**
 	 * Clears all the cached energy data
 	 */
@@ -1853,4 +2538,26 @@ public class EnergyUtils {
 		}
 	}
 
+	/**
+	 * The resolved supports of a single {@link TileEntity}
+	 * 
+	 * @author CJMinecraft
+	 *
+	 */
+	static class SupportCacheEntry {
+
+		/**
+		 * One slot for every role and side (including the <code>null</code>
+		 * side)
+		 */
+		final Object[] supports = new Object[28];
+
+		/**
+		 * Set to <code>false</code> once the entry has been removed from the
+		 * cache
+		 */
+		volatile boolean valid = true;
+
+	}
+
 }
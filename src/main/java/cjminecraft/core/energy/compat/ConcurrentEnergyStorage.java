@@ -0,0 +1,99 @@
+package cjminecraft.core.energy.compat;
+
+/**
+ * An {@link EnergyStorage} which can safely be used from more than one thread.
+ * The energy is changed with a compare and swap so giving and taking energy
+ * never needs a lock, and the limits of each transfer are read once per call
+ * so {@link #extractEnergyInternal(long, boolean)} and
+ * {@link #receiveEnergyInternal(long, boolean)} never touch the limits of any
+ * other call.
+ *
+ * To use inside of a {@link TileEntityEnergy} set <code>this.storage</code> to
+ * a new {@link ConcurrentEnergyStorage} in the constructor
+ *
+ * @author CJMinecraft
+ *
+ */
+public class ConcurrentEnergyStorage extends EnergyStorage {
+
+	/**
+	 * Initialise an energy storage.
+	 *
+	 * @param capacity
+	 *            The capacity of the energy storage
+	 */
+	public ConcurrentEnergyStorage(long capacity) {
+		super(capacity);
+	}
+
+	/**
+	 * Initialise an energy storage.
+	 *
+	 * @param capacity
+	 *            The capacity of the energy storage
+	 * @param maxTransfer
+	 *            The maximum amount of energy which can be received and
+	 *            extracted
+	 */
+	public ConcurrentEnergyStorage(long capacity, long maxTransfer) {
+		super(capacity, maxTransfer);
+	}
+
+	/**
+	 * Initialise an energy storage
+	 *
+	 * @param capacity
+	 *            The capacity of the energy storage
+	 * @param maxReceive
+	 *            The maximum amount of energy which can be received
+	 * @param maxExtract
+	 *            The maximum amount of energy which can be extracted
+	 */
+	public ConcurrentEnergyStorage(long capacity, long maxReceive, long maxExtract) {
+		super(capacity, maxReceive, maxExtract);
+	}
+
+	/**
+	 * Initialise an energy storage
+	 *
+	 * @param capacity
+	 *            The capacity of the energy storage
+	 * @param maxReceive
+	 *            The maximum amount of energy which can be received
+	 * @param maxExtract
+	 *            The maximum amount of energy which can be extracted
+	 * @param energy
+	 *            The energy inside of the energy storage
+	 */
+	public ConcurrentEnergyStorage(long capacity, long maxReceive, long maxExtract, long energy) {
+		super(capacity, maxReceive, maxExtract, energy);
+	}
+
+	@Override
+	protected long receiveEnergy(long maxReceive, long limit, boolean simulate) {
+		long capacity = getMaxEnergyStored();
+		long toReceive = Math.min(limit, maxReceive);
+		while (true) {
+			long stored = getEnergyStored();
+			long energyReceived = Math.min(capacity - stored, toReceive);
+			if (energyReceived <= 0)
+				return 0;
+			if (simulate || compareAndSetEnergy(stored, stored + energyReceived))
+				return energyReceived;
+		}
+	}
+
+	@Override
+	protected long extractEnergy(long maxExtract, long limit, boolean simulate) {
+		long toExtract = Math.min(limit, maxExtract);
+		while (true) {
+			long stored = getEnergyStored();
+			long energyExtracted = Math.min(stored, toExtract);
+			if (energyExtracted <= 0)
+				return 0;
+			if (simulate || compareAndSetEnergy(stored, stored - energyExtracted))
+				return energyExtracted;
+		}
+	}
+
+}
@@ -143,12 +143,8 @@ public class EnergyCapabilityProvider implements ICapabilityProvider {
 			}
 
 			@Override
-			public long receiveEnergy(long maxReceive, boolean simulate) {
-				if (!canReceive())
-					return 0;
-
-				long energyReceived = Math.min(getMaxEnergyStored() - getEnergyStored(),
-						Math.min(getMaxReceive(), maxReceive));
+			protected long receiveEnergy(long maxReceive, long limit, boolean simulate) {
+				long energyReceived = Math.min(getMaxEnergyStored() - getEnergyStored(), Math.min(limit, maxReceive));
 				if (!stack.hasTagCompound())
 					stack.setTagCompound(new NBTTagCompound());
 				if (!simulate)
@@ -157,10 +153,8 @@ public class EnergyCapabilityProvider implements ICapabilityProvider {
 			}
 
 			@Override
-			public long extractEnergy(long maxExtract, boolean simulate) {
-				if (!canExtract())
-					return 0;
-				long energyExtracted = Math.min(getEnergyStored(), Math.min(getMaxExtract(), maxExtract));
+			protected long extractEnergy(long maxExtract, long limit, boolean simulate) {
+				long energyExtracted = Math.min(getEnergyStored(), Math.min(limit, maxExtract));
 				if (!stack.hasTagCompound())
 					stack.setTagCompound(new NBTTagCompound());
 				if (!simulate)
@@ -186,6 +180,8 @@ public class EnergyCapabilityProvider implements ICapabilityProvider {
 	 */
 	@Override
 	public <T> T getCapability(Capability<T> capability, EnumFacing facing) {
+		if (capability == EnergyUtils.LONG_ENERGY)
+			return (T) this.storage;
 		if (capability == CapabilityEnergy.ENERGY) {
 			if (this.forgeWrapper == null)
 				this.forgeWrapper = new ForgeEnergyWrapper(this.storage);
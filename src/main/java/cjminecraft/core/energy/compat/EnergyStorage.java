@@ -1,5 +1,7 @@
 package cjminecraft.core.energy.compat;
 
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 
@@ -9,12 +11,15 @@ import net.minecraft.tileentity.TileEntity;
  * @author CJMinecraft
  *
  */
-public class EnergyStorage {
+public class EnergyStorage implements ILongEnergyStorage {
+
+	private static final AtomicLongFieldUpdater<EnergyStorage> ENERGY = AtomicLongFieldUpdater
+			.newUpdater(EnergyStorage.class, "energy");
 
-	private long energy;
-	private long capacity;
-	private long maxReceive;
-	private long maxExtract;
+	private volatile long energy;
+	private volatile long capacity;
+	private volatile long maxReceive;
+	private volatile long maxExtract;
 
 	/**
 	 * Initialise an energy storage.
@@ -82,14 +87,11 @@ public class EnergyStorage {
 	 *            given
 	 * @return The amount of energy which was received
 	 */
+	@Override
 	public long receiveEnergy(long maxReceive, boolean simulate) {
 		if (!canReceive())
 			return 0;
-
-		long energyReceived = Math.min(this.capacity - this.energy, Math.min(this.maxReceive, maxReceive));
-		if (!simulate)
-			this.energy += energyReceived;
-		return energyReceived;
+		return receiveEnergy(maxReceive, getMaxReceive(), simulate);
 	}
 
 	/**
@@ -102,14 +104,11 @@ public class EnergyStorage {
 	 *            taken
 	 * @return The amount of energy which was extracted
 	 */
+	@Override
 	public long extractEnergy(long maxExtract, boolean simulate) {
 		if (!canExtract())
 			return 0;
-
-		long energyExtracted = Math.min(this.energy, Math.min(this.maxExtract, maxExtract));
-		if (!simulate)
-			this.energy -= energyExtracted;
-		return energyExtracted;
+		return extractEnergy(maxExtract, getMaxExtract(), simulate);
 	}
 
 	/**
@@ -122,13 +121,7 @@ public class EnergyStorage {
 	 * @return The amount of energy taken
 	 */
 	public long extractEnergyInternal(long maxExtract, boolean simulate) {
-		long before = this.maxExtract;
-		this.maxExtract = Long.MAX_VALUE;
-
-		long toReturn = this.extractEnergy(maxExtract, simulate);
-
-		this.maxExtract = before;
-		return toReturn;
+		return extractEnergy(maxExtract, Long.MAX_VALUE, simulate);
 	}
 
 	/**
@@ -141,13 +134,61 @@ public class EnergyStorage {
 	 * @return The amount of energy given
 	 */
 	public long receiveEnergyInternal(long maxReceive, boolean simulate) {
-		long before = this.maxReceive;
-		this.maxReceive = Long.MAX_VALUE;
+		return receiveEnergy(maxReceive, Long.MAX_VALUE, simulate);
+	}
 
-		long toReturn = this.receiveEnergy(maxReceive, simulate);
+	/**
+	 * Give energy to the energy storage, receiving no more than the given
+	 * limit
+	 * 
+	 * @param maxReceive
+	 *            The amount of energy to give
+	 * @param limit
+	 *            The most energy which can be received in this call
+	 * @param simulate
+	 *            Whether it is a simulation - if so, no energy will actually be
+	 *            given
+	 * @return The amount of energy which was received
+	 */
+	protected long receiveEnergy(long maxReceive, long limit, boolean simulate) {
+		long energyReceived = Math.min(this.capacity - this.energy, Math.min(limit, maxReceive));
+		if (!simulate)
+			this.energy += energyReceived;
+		return energyReceived;
+	}
+
+	/**
+	 * Take energy from the energy storage, extracting no more than the given
+	 * limit
+	 * 
+	 * @param maxExtract
+	 *            The amount of energy to take
+	 * @param limit
+	 *            The most energy which can be extracted in this call
+	 * @param simulate
+	 *            Whether it is a simulation - if so, no energy will actually be
+	 *            taken
+	 * @return The amount of energy which was extracted
+	 */
+	protected long extractEnergy(long maxExtract, long limit, boolean simulate) {
+		long energyExtracted = Math.min(this.energy, Math.min(limit, maxExtract));
+		if (!simulate)
+			this.energy -= energyExtracted;
+		return energyExtracted;
+	}
 
-		this.maxReceive = before;
-		return toReturn;
+	/**
+	 * Set the energy only if it is still the expected value, for subclasses
+	 * which give and take energy from more than one thread
+	 * 
+	 * @param expected
+	 *            The energy which should be stored
+	 * @param energy
+	 *            The energy to set
+	 * @return Whether the energy was set
+	 */
+	protected final boolean compareAndSetEnergy(long expected, long energy) {
+		return ENERGY.compareAndSet(this, expected, energy);
 	}
 
 	/**
@@ -158,10 +199,10 @@ public class EnergyStorage {
 	 *            The {@link NBTTagCompound} with all the data
 	 */
 	public void readFromNBT(NBTTagCompound nbt) {
-		this.energy = nbt.getInteger("Energy");
-		this.capacity = nbt.getInteger("Capacity");
-		this.maxReceive = nbt.getInteger("MaxReceive");
-		this.maxExtract = nbt.getInteger("MaxExtract");
+		this.energy = nbt.getLong("Energy");
+		this.capacity = nbt.getLong("Capacity");
+		this.maxReceive = nbt.getLong("MaxReceive");
+		this.maxExtract = nbt.getLong("MaxExtract");
 	}
 
 	/**
@@ -270,6 +311,7 @@ public class EnergyStorage {
 	 * 
 	 * @return The energy inside of the energy storage
 	 */
+	@Override
 	public long getEnergyStored() {
 		return this.energy;
 	}
@@ -279,6 +321,7 @@ public class EnergyStorage {
 	 * 
 	 * @return The maximum amount of energy in the energy storage
 	 */
+	@Override
 	public long getMaxEnergyStored() {
 		return this.capacity;
 	}
@@ -286,6 +329,7 @@ public class EnergyStorage {
 	/**
 	 * @return whether you can take energy from the energy storage
 	 */
+	@Override
 	public boolean canExtract() {
 		return this.maxExtract > 0;
 	}
@@ -293,6 +337,7 @@ public class EnergyStorage {
 	/**
 	 * @return whether you can give energy to the energy storage
 	 */
+	@Override
 	public boolean canReceive() {
 		return this.maxReceive > 0;
 	}
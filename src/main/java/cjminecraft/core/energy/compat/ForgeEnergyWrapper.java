@@ -1,5 +1,6 @@
 package cjminecraft.core.energy.compat;
 
+import cjminecraft.core.energy.EnergyUtils;
 import cjminecraft.core.energy.compat.forge.CustomForgeEnergyStorage;
 import net.darkhax.tesla.api.ITeslaConsumer;
 import net.darkhax.tesla.api.ITeslaHolder;
@@ -29,22 +30,22 @@ class ForgeEnergyWrapper implements IEnergyStorage {
 
 	@Override
 	public int receiveEnergy(int maxReceive, boolean simulate) {
-		return (int) this.storage.receiveEnergy(maxReceive, simulate);
+		return EnergyUtils.clampToInt(this.storage.receiveEnergy(maxReceive, simulate));
 	}
 
 	@Override
 	public int extractEnergy(int maxExtract, boolean simulate) {
-		return (int) this.storage.extractEnergy(maxExtract, simulate);
+		return EnergyUtils.clampToInt(this.storage.extractEnergy(maxExtract, simulate));
 	}
 
 	@Override
 	public int getEnergyStored() {
-		return (int) this.storage.getEnergyStored();
+		return EnergyUtils.clampToInt(this.storage.getEnergyStored());
 	}
 
 	@Override
 	public int getMaxEnergyStored() {
-		return (int) this.storage.getMaxEnergyStored();
+		return EnergyUtils.clampToInt(this.storage.getMaxEnergyStored());
 	}
 
 	@Override
@@ -58,7 +59,7 @@ class ForgeEnergyWrapper implements IEnergyStorage {
 	}
 	
 	public int getMaxTransfer() {
-		return (int) this.storage.getMaxTransfer();
+		return EnergyUtils.clampToInt(this.storage.getMaxTransfer());
 	}
 
 }
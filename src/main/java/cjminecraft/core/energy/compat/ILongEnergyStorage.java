@@ -0,0 +1,62 @@
+package cjminecraft.core.energy.compat;
+
+import cjminecraft.core.energy.EnergyUtils;
+import net.minecraftforge.energy.IEnergyStorage;
+
+/**
+ * The long valued version of {@link IEnergyStorage}. Exposed by every
+ * {@link TileEntityEnergy} and {@link EnergyCapabilityProvider} through
+ * {@link EnergyUtils#LONG_ENERGY} so energy can be moved between CJCore
+ * storages without being capped at {@link Integer#MAX_VALUE}. All energy is in
+ * forge energy
+ * 
+ * @author CJMinecraft
+ *
+ */
+public interface ILongEnergyStorage {
+
+	/**
+	 * Give energy to the storage
+	 * 
+	 * @param maxReceive
+	 *            The amount of energy to give
+	 * @param simulate
+	 *            Whether it is a simulation - if so, no energy will actually be
+	 *            given
+	 * @return The amount of energy which was received
+	 */
+	long receiveEnergy(long maxReceive, boolean simulate);
+
+	/**
+	 * Take energy from the storage
+	 * 
+	 * @param maxExtract
+	 *            The amount of energy to take
+	 * @param simulate
+	 *            Whether it is a simulation - if so, no energy will actually be
+	 *            taken
+	 * @return The amount of energy which was extracted
+	 */
+	long extractEnergy(long maxExtract, boolean simulate);
+
+	/**
+	 * @return The amount of energy in the storage
+	 */
+	long getEnergyStored();
+
+	/**
+	 * @return The maximum amount of energy in the storage
+	 */
+	long getMaxEnergyStored();
+
+	/**
+	 * @return Whether you can take energy from the storage
+	 */
+	boolean canExtract();
+
+	/**
+	 * @return Whether you can give energy to the storage
+	 */
+	boolean canReceive();
+
+}
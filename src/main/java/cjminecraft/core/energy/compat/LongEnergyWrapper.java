@@ -0,0 +1,65 @@
+package cjminecraft.core.energy.compat;
+
+import cjminecraft.core.energy.EnergyUtils;
+import net.minecraftforge.energy.IEnergyStorage;
+
+/**
+ * Exposes a forge energy storage as an {@link ILongEnergyStorage}. Used by
+ * {@link TileEntityEnergy} when a subclass gives a face its own forge energy
+ * storage, so the long capability has the same limits as the forge one
+ *
+ * @author CJMinecraft
+ *
+ */
+class LongEnergyWrapper implements ILongEnergyStorage {
+
+	private IEnergyStorage storage;
+
+	/**
+	 * Initialise a new long energy wrapper around the forge energy storage
+	 *
+	 * @param storage
+	 *            The forge energy storage of the face
+	 */
+	public LongEnergyWrapper(IEnergyStorage storage) {
+		this.storage = storage;
+	}
+
+	@Override
+	public long receiveEnergy(long maxReceive, boolean simulate) {
+		return this.storage.receiveEnergy(EnergyUtils.clampToInt(maxReceive), simulate);
+	}
+
+	@Override
+	public long extractEnergy(long maxExtract, boolean simulate) {
+		return this.storage.extractEnergy(EnergyUtils.clampToInt(maxExtract), simulate);
+	}
+
+	@Override
+	public long getEnergyStored() {
+		return this.storage.getEnergyStored();
+	}
+
+	@Override
+	public long getMaxEnergyStored() {
+		return this.storage.getMaxEnergyStored();
+	}
+
+	@Override
+	public boolean canExtract() {
+		return this.storage.canExtract();
+	}
+
+	@Override
+	public boolean canReceive() {
+		return this.storage.canReceive();
+	}
+
+	/**
+	 * @return The forge energy storage being wrapped
+	 */
+	IEnergyStorage getStorage() {
+		return this.storage;
+	}
+
+}
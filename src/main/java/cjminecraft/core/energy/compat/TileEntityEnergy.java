@@ -1,6 +1,11 @@
 package cjminecraft.core.energy.compat;
 
+import javax.annotation.Nullable;
+
 import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.energy.network.EnergyNetwork;
+import cjminecraft.core.energy.network.EnergyNetworkManager;
+import cjminecraft.core.energy.network.EnergyNetworkRole;
 import cjminecraft.core.util.TileEntityBase;
 import ic2.api.energy.event.EnergyTileLoadEvent;
 import ic2.api.energy.event.EnergyTileUnloadEvent;
@@ -11,12 +16,16 @@ import net.minecraft.util.EnumFacing;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.energy.CapabilityEnergy;
+import net.minecraftforge.energy.IEnergyStorage;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.Optional;
 
 /**
  * A simple {@link TileEntity} which can hold energy. This uses forge energy. To
- * access the energy storage, use <code>this.storage</code>
+ * access the energy storage, use <code>this.storage</code>. The storage is
+ * also exposed through {@link EnergyUtils#LONG_ENERGY} so other CJCore
+ * {@link TileEntity}s can move more than {@link Integer#MAX_VALUE} at once,
+ * on the same faces as forge energy
  * 
  * @author CJMinecraft
  *
@@ -26,6 +35,8 @@ public class TileEntityEnergy extends TileEntityBase implements IEnergyTile {
 
 	protected EnergyStorage storage;
 	private Object forgeWrapper;
+	private final LongEnergyWrapper[] longWrappers = new LongEnergyWrapper[7];
+	private boolean energyNetworkEnabled;
 
 	/**
 	 * Create an energy storage
@@ -91,15 +102,43 @@ public class TileEntityEnergy extends TileEntityBase implements IEnergyTile {
 		return super.writeToNBT(nbt);
 	}
 
+	/**
+	 * {@link EnergyUtils#LONG_ENERGY} is only exposed on the faces which have
+	 * {@link CapabilityEnergy#ENERGY}, so limiting the forge capability also
+	 * limits the long one
+	 */
 	@Override
 	public boolean hasCapability(Capability<?> capability, EnumFacing facing) {
 		if (capability == CapabilityEnergy.ENERGY)
 			return true;
+		if (capability == EnergyUtils.LONG_ENERGY)
+			return hasCapability(CapabilityEnergy.ENERGY, facing);
 		return super.hasCapability(capability, facing);
 	}
 
+	/**
+	 * {@link EnergyUtils#LONG_ENERGY} gives the same storage as
+	 * {@link CapabilityEnergy#ENERGY} on each face. If a subclass gives a face
+	 * its own forge energy storage, the long capability wraps it so it has the
+	 * same limits
+	 */
 	@Override
 	public <T> T getCapability(Capability<T> capability, EnumFacing facing) {
+		if (capability == EnergyUtils.LONG_ENERGY) {
+			if (!hasCapability(CapabilityEnergy.ENERGY, facing))
+				return null;
+			IEnergyStorage forge = getCapability(CapabilityEnergy.ENERGY, facing);
+			if (forge == null)
+				return null;
+			if (forge == this.forgeWrapper)
+				return (T) this.storage;
+			if (forge instanceof ILongEnergyStorage)
+				return (T) forge;
+			int face = facing == null ? 6 : facing.getIndex();
+			if (this.longWrappers[face] == null || this.longWrappers[face].getStorage() != forge)
+				this.longWrappers[face] = new LongEnergyWrapper(forge);
+			return (T) this.longWrappers[face];
+		}
 		if (capability == CapabilityEnergy.ENERGY) {
 			if(this.forgeWrapper == null)
 				this.forgeWrapper = new ForgeEnergyWrapper(this.storage);
@@ -109,28 +148,125 @@ public class TileEntityEnergy extends TileEntityBase implements IEnergyTile {
 	}
 	
 	private boolean addedToEnet;
-	
+
 	@Override
-	@Optional.Method(modid = "ic2")
 	public void onLoad() {
-		if(!this.addedToEnet && !FMLCommonHandler.instance().getEffectiveSide().isClient() && EnergyUtils.INDUSTRAIL_CRAFT_LOADED) {
-			MinecraftForge.EVENT_BUS.post(new EnergyTileLoadEvent(this));
-			this.addedToEnet = true;
-		}
+		if (EnergyUtils.INDUSTRAIL_CRAFT_LOADED)
+			addToEnet();
+		if (!this.world.isRemote && getEnergyNetworkRole() != null)
+			EnergyNetworkManager.get(this.world).add(this);
 	}
-	
+
 	@Override
-	@Optional.Method(modid = "ic2")
 	public void invalidate() {
 		super.invalidate();
-		onChunkUnload();
+		EnergyUtils.invalidateSupportCache(this);
+		if (EnergyUtils.INDUSTRAIL_CRAFT_LOADED)
+			removeFromEnet();
+		removeFromEnergyNetwork();
 	}
-	
+
 	@Override
-	@Optional.Method(modid = "ic2")
 	public void onChunkUnload() {
 		super.onChunkUnload();
-		if(this.addedToEnet && EnergyUtils.INDUSTRAIL_CRAFT_LOADED) {
+		EnergyUtils.invalidateSupportCache(this);
+		if (EnergyUtils.INDUSTRAIL_CRAFT_LOADED)
+			removeFromEnet();
+		removeFromEnergyNetwork();
+	}
+
+	private void removeFromEnergyNetwork() {
+		if (this.world != null && !this.world.isRemote && getEnergyNetworkRole() != null)
+			EnergyNetworkManager.get(this.world).remove(this);
+	}
+
+	/**
+	 * The part this {@link TileEntity} plays in an {@link EnergyNetwork}.
+	 * Override and return a role to join the network of any connected
+	 * {@link TileEntityEnergy}s, which will then share energy once per tick
+	 * without the need to push energy manually. {@link TileEntityEnergyProducer},
+	 * {@link TileEntityEnergyConsumer} and {@link TileEntityEnergyStorage}
+	 * join as their role once {@link #setEnergyNetworkEnabled(boolean)} has
+	 * been called
+	 * 
+	 * @return The role in the network or <code>null</code> to not join a
+	 *         network
+	 */
+	@Nullable
+	public EnergyNetworkRole getEnergyNetworkRole() {
+		return null;
+	}
+
+	/**
+	 * Let {@link TileEntityEnergyProducer}, {@link TileEntityEnergyConsumer}
+	 * and {@link TileEntityEnergyStorage} join an {@link EnergyNetwork} as
+	 * their role. Off by default so a {@link TileEntity} which already moves
+	 * its own energy does not have energy moved twice. Should be called from
+	 * the constructor, before the {@link TileEntity} is loaded
+	 * 
+	 * @param enabled
+	 *            Whether to join an {@link EnergyNetwork}
+	 */
+	protected void setEnergyNetworkEnabled(boolean enabled) {
+		this.energyNetworkEnabled = enabled;
+	}
+
+	/**
+	 * @return Whether {@link #setEnergyNetworkEnabled(boolean)} has let this
+	 *         {@link TileEntity} join an {@link EnergyNetwork}
+	 */
+	public boolean isEnergyNetworkEnabled() {
+		return this.energyNetworkEnabled;
+	}
+
+	/**
+	 * States whether this {@link TileEntity} connects to an
+	 * {@link EnergyNetwork} on the given side. If this changes, remove and add
+	 * the {@link TileEntity} again through {@link EnergyNetworkManager}
+	 * 
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @return Whether the side connects
+	 */
+	public boolean canConnectEnergy(EnumFacing side) {
+		return true;
+	}
+
+	/**
+	 * @return The {@link EnergyNetwork} this {@link TileEntity} is in. Can be
+	 *         <code>null</code>
+	 */
+	@Nullable
+	public EnergyNetwork getEnergyNetwork() {
+		if (this.world == null || this.world.isRemote || getEnergyNetworkRole() == null)
+			return null;
+		return EnergyNetworkManager.get(this.world).getNetwork(this.pos);
+	}
+
+	/**
+	 * @return The energy storage
+	 */
+	public EnergyStorage getEnergyStorage() {
+		return this.storage;
+	}
+
+	/**
+	 * Adds this {@link TileEntity} to the Industrial Craft 2 energy net
+	 */
+	@Optional.Method(modid = "ic2")
+	private void addToEnet() {
+		if (!this.addedToEnet && !FMLCommonHandler.instance().getEffectiveSide().isClient()) {
+			MinecraftForge.EVENT_BUS.post(new EnergyTileLoadEvent(this));
+			this.addedToEnet = true;
+		}
+	}
+
+	/**
+	 * Removes this {@link TileEntity} from the Industrial Craft 2 energy net
+	 */
+	@Optional.Method(modid = "ic2")
+	private void removeFromEnet() {
+		if (this.addedToEnet) {
 			MinecraftForge.EVENT_BUS.post(new EnergyTileUnloadEvent(this));
 			this.addedToEnet = false;
 		}
@@ -2,6 +2,7 @@ package cjminecraft.core.energy.compat;
 
 import cjminecraft.core.energy.EnergyUnit;
 import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.energy.network.EnergyNetworkRole;
 import cofh.redstoneflux.api.IEnergyReceiver;
 import ic2.api.energy.event.EnergyTileLoadEvent;
 import ic2.api.energy.event.EnergyTileUnloadEvent;
@@ -86,12 +87,12 @@ public class TileEntityEnergyConsumer extends TileEntityEnergy implements IEnerg
 
 	@Override
 	public int getEnergyStored(EnumFacing from) {
-		return (int) this.storage.getEnergyStored();
+		return EnergyUtils.clampToInt(this.storage.getEnergyStored());
 	}
 
 	@Override
 	public int getMaxEnergyStored(EnumFacing from) {
-		return (int) this.storage.getMaxEnergyStored();
+		return EnergyUtils.clampToInt(this.storage.getMaxEnergyStored());
 	}
 
 	@Override
@@ -101,7 +102,7 @@ public class TileEntityEnergyConsumer extends TileEntityEnergy implements IEnerg
 
 	@Override
 	public int receiveEnergy(EnumFacing from, int maxReceive, boolean simulate) {
-		return (int) this.storage.receiveEnergy(maxReceive, simulate);
+		return EnergyUtils.clampToInt(this.storage.receiveEnergy(maxReceive, simulate));
 	}
 
 	@Override
@@ -132,6 +133,15 @@ public class TileEntityEnergyConsumer extends TileEntityEnergy implements IEnerg
 		return super.getCapability(capability, facing);
 	}
 
+	/**
+	 * Joins the network of any connected {@link TileEntityEnergy}s as a
+	 * consumer once {@link #setEnergyNetworkEnabled(boolean)} has been called
+	 */
+	@Override
+	public EnergyNetworkRole getEnergyNetworkRole() {
+		return isEnergyNetworkEnabled() ? EnergyNetworkRole.CONSUMER : null;
+	}
+
 	/**
 	 * Determine if this acceptor can accept current from an adjacent emitter in
 	 * a direction.
@@ -4,6 +4,7 @@ import cjminecraft.core.energy.EnergyUtils;
 import cofh.redstoneflux.api.IEnergyProvider;
 import cjminecraft.core.energy.EnergyUnit;
 import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.energy.network.EnergyNetworkRole;
 import ic2.api.energy.tile.IEnergyAcceptor;
 import ic2.api.energy.tile.IEnergySource;
 import ic2.api.energy.tile.IEnergyTile;
@@ -83,12 +84,12 @@ public class TileEntityEnergyProducer extends TileEntityEnergy implements IEnerg
 
 	@Override
 	public int getEnergyStored(EnumFacing from) {
-		return (int) this.storage.getEnergyStored();
+		return EnergyUtils.clampToInt(this.storage.getEnergyStored());
 	}
 
 	@Override
 	public int getMaxEnergyStored(EnumFacing from) {
-		return (int) this.storage.getMaxEnergyStored();
+		return EnergyUtils.clampToInt(this.storage.getMaxEnergyStored());
 	}
 
 	@Override
@@ -98,7 +99,7 @@ public class TileEntityEnergyProducer extends TileEntityEnergy implements IEnerg
 
 	@Override
 	public int extractEnergy(EnumFacing from, int maxExtract, boolean simulate) {
-		return (int) this.storage.extractEnergy(maxExtract, simulate);
+		return EnergyUtils.clampToInt(this.storage.extractEnergy(maxExtract, simulate));
 	}
 
 	@Override
@@ -129,6 +130,15 @@ public class TileEntityEnergyProducer extends TileEntityEnergy implements IEnerg
 		return super.getCapability(capability, facing);
 	}
 
+	/**
+	 * Joins the network of any connected {@link TileEntityEnergy}s as a
+	 * producer once {@link #setEnergyNetworkEnabled(boolean)} has been called
+	 */
+	@Override
+	public EnergyNetworkRole getEnergyNetworkRole() {
+		return isEnergyNetworkEnabled() ? EnergyNetworkRole.PRODUCER : null;
+	}
+
 	/**
 	 * Determine if this emitter can emit energy to an adjacent receiver.
 	 *
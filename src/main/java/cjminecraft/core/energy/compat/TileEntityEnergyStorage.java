@@ -4,6 +4,7 @@ import cjminecraft.core.energy.EnergyUtils;
 import cofh.redstoneflux.api.IEnergyStorage;
 import cjminecraft.core.energy.EnergyUnit;
 import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.energy.network.EnergyNetworkRole;
 import ic2.api.energy.tile.IEnergyAcceptor;
 import ic2.api.energy.tile.IEnergyEmitter;
 import ic2.api.energy.tile.IEnergySink;
@@ -87,22 +88,22 @@ public class TileEntityEnergyStorage extends TileEntityEnergy implements IEnergy
 
 	@Override
 	public int receiveEnergy(int maxReceive, boolean simulate) {
-		return (int) this.storage.receiveEnergy(maxReceive, simulate);
+		return EnergyUtils.clampToInt(this.storage.receiveEnergy(maxReceive, simulate));
 	}
 
 	@Override
 	public int extractEnergy(int maxExtract, boolean simulate) {
-		return (int) this.storage.extractEnergy(maxExtract, simulate);
+		return EnergyUtils.clampToInt(this.storage.extractEnergy(maxExtract, simulate));
 	}
 
 	@Override
 	public int getEnergyStored() {
-		return (int) this.storage.getEnergyStored();
+		return EnergyUtils.clampToInt(this.storage.getEnergyStored());
 	}
 
 	@Override
 	public int getMaxEnergyStored() {
-		return (int) this.storage.getMaxEnergyStored();
+		return EnergyUtils.clampToInt(this.storage.getMaxEnergyStored());
 	}
 
 	@Override
@@ -133,6 +134,15 @@ public class TileEntityEnergyStorage extends TileEntityEnergy implements IEnergy
 		return super.getCapability(capability, facing);
 	}
 
+	/**
+	 * Joins the network of any connected {@link TileEntityEnergy}s as a
+	 * storage once {@link #setEnergyNetworkEnabled(boolean)} has been called
+	 */
+	@Override
+	public EnergyNetworkRole getEnergyNetworkRole() {
+		return isEnergyNetworkEnabled() ? EnergyNetworkRole.STORAGE : null;
+	}
+
 	/**
 	 * Determine if this acceptor can accept current from an adjacent emitter in
 	 * a direction.
@@ -0,0 +1,281 @@
+package cjminecraft.core.energy.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import cjminecraft.core.energy.compat.EnergyStorage;
+import cjminecraft.core.energy.compat.TileEntityEnergy;
+
+/**
+ * A group of connected {@link TileEntityEnergy}s. Once per tick the energy
+ * offered by every producer is shared between every consumer, with any surplus
+ * going into storage and any deficit being taken from storage. Each transfer
+ * is proportional to how much each {@link TileEntityEnergy} can give or take.
+ * Cables only connect the network so they cost nothing to solve.
+ *
+ * @author CJMinecraft
+ *
+ */
+public class EnergyNetwork {
+
+	final List<TileEntityEnergy> members = new ArrayList<TileEntityEnergy>();
+	final List<TileEntityEnergy> producers = new ArrayList<TileEntityEnergy>();
+	final List<TileEntityEnergy> consumers = new ArrayList<TileEntityEnergy>();
+	final List<TileEntityEnergy> storages = new ArrayList<TileEntityEnergy>();
+
+	/**
+	 * Set when a member has been removed, the network may have been split
+	 */
+	boolean dirty;
+
+	private TileEntityEnergy[] producerTiles = new TileEntityEnergy[0];
+	private TileEntityEnergy[] consumerTiles = new TileEntityEnergy[0];
+	private TileEntityEnergy[] storageTiles = new TileEntityEnergy[0];
+	private int producerCount, consumerCount, storageCount;
+
+	private long[] producerOffer = new long[0], producerOut = new long[0];
+	private long[] consumerDemand = new long[0], consumerIn = new long[0];
+	private long[] storageGive = new long[0], storageTake = new long[0], storageDelta = new long[0];
+
+	private long lastTransferred;
+
+	/**
+	 * Add a member to the network
+	 *
+	 * @param te
+	 *            The {@link TileEntityEnergy} to add
+	 */
+	void add(@Nonnull TileEntityEnergy te) {
+		this.members.add(te);
+		EnergyNetworkRole role = te.getEnergyNetworkRole();
+		if (role == EnergyNetworkRole.PRODUCER)
+			this.producers.add(te);
+		else if (role == EnergyNetworkRole.CONSUMER)
+			this.consumers.add(te);
+		else if (role == EnergyNetworkRole.STORAGE)
+			this.storages.add(te);
+	}
+
+	/**
+	 * Remove every member from the network
+	 */
+	void clear() {
+		this.members.clear();
+		this.producers.clear();
+		this.consumers.clear();
+		this.storages.clear();
+	}
+
+	/**
+	 * Share the energy between the members of the network
+	 *
+	 * @param manager
+	 *            The manager of the network's world
+	 */
+	void tick(EnergyNetworkManager manager) {
+		snapshot();
+		solve();
+		apply(manager);
+	}
+
+	/**
+	 * Read how much energy every member can give or take this tick. The
+	 * members are copied as well so the network can change before
+	 * {@link #apply()} is called
+	 */
+	void snapshot() {
+		this.producerCount = this.producers.size();
+		this.consumerCount = this.consumers.size();
+		this.storageCount = this.storages.size();
+		if (this.producerTiles.length < this.producerCount) {
+			this.producerTiles = new TileEntityEnergy[this.producerCount];
+			this.producerOffer = new long[this.producerCount];
+			this.producerOut = new long[this.producerCount];
+		}
+		if (this.consumerTiles.length < this.consumerCount) {
+			this.consumerTiles = new TileEntityEnergy[this.consumerCount];
+			this.consumerDemand = new long[this.consumerCount];
+			this.consumerIn = new long[this.consumerCount];
+		}
+		if (this.storageTiles.length < this.storageCount) {
+			this.storageTiles = new TileEntityEnergy[this.storageCount];
+			this.storageGive = new long[this.storageCount];
+			this.storageTake = new long[this.storageCount];
+			this.storageDelta = new long[this.storageCount];
+		}
+		for (int i = 0; i < this.producerCount; i++) {
+			this.producerTiles[i] = this.producers.get(i);
+			this.producerOffer[i] = getOffer(this.producerTiles[i].getEnergyStorage());
+		}
+		for (int i = 0; i < this.consumerCount; i++) {
+			this.consumerTiles[i] = this.consumers.get(i);
+			this.consumerDemand[i] = getDemand(this.consumerTiles[i].getEnergyStorage());
+		}
+		for (int i = 0; i < this.storageCount; i++) {
+			this.storageTiles[i] = this.storages.get(i);
+			EnergyStorage storage = this.storageTiles[i].getEnergyStorage();
+			this.storageGive[i] = getOffer(storage);
+			this.storageTake[i] = getDemand(storage);
+		}
+	}
+
+	/**
+	 * Work out how much energy each member gives or takes. Only reads and
+	 * writes the arrays filled by {@link #snapshot()} so is safe to call from
+	 * any thread
+	 */
+	void solve() {
+		int producers = this.producerCount, consumers = this.consumerCount, storages = this.storageCount;
+		long supply = sum(this.producerOffer, producers);
+		long demand = sum(this.consumerDemand, consumers);
+		if (supply >= demand) {
+			System.arraycopy(this.consumerDemand, 0, this.consumerIn, 0, consumers);
+			long stored = Math.min(supply - demand, sum(this.storageTake, storages));
+			distribute(stored, this.storageTake, storages, this.storageDelta);
+			distribute(demand + stored, this.producerOffer, producers, this.producerOut);
+		} else {
+			long fromStorage = Math.min(demand - supply, sum(this.storageGive, storages));
+			distribute(fromStorage, this.storageGive, storages, this.storageDelta);
+			for (int i = 0; i < storages; i++)
+				this.storageDelta[i] = -this.storageDelta[i];
+			System.arraycopy(this.producerOffer, 0, this.producerOut, 0, producers);
+			distribute(supply + fromStorage, this.consumerDemand, consumers, this.consumerIn);
+		}
+	}
+
+	/**
+	 * Give and take the energy worked out by {@link #solve()}. The members may
+	 * have changed since the snapshot was taken, so energy is taken first and
+	 * only what was actually taken is given out. Anything which could not be
+	 * given is put back where it came from so no energy is made or lost.
+	 * Members which have since been removed from the manager or whose chunk
+	 * has been unloaded (and possibly saved) are left alone
+	 *
+	 * @param manager
+	 *            The manager of the network's world
+	 */
+	void apply(EnergyNetworkManager manager) {
+		for (int i = 0; i < this.producerCount; i++)
+			this.producerOut[i] = extract(manager, this.producerTiles[i], this.producerOut[i]);
+		for (int i = 0; i < this.storageCount; i++)
+			if (this.storageDelta[i] < 0)
+				this.storageDelta[i] = -extract(manager, this.storageTiles[i], -this.storageDelta[i]);
+		long taken = sum(this.producerOut, this.producerCount);
+		for (int i = 0; i < this.storageCount; i++)
+			if (this.storageDelta[i] < 0)
+				taken -= this.storageDelta[i];
+		long left = taken;
+		for (int i = 0; i < this.consumerCount; i++)
+			left -= receive(manager, this.consumerTiles[i], Math.min(left, this.consumerIn[i]));
+		for (int i = 0; i < this.storageCount; i++)
+			if (this.storageDelta[i] > 0)
+				left -= receive(manager, this.storageTiles[i], Math.min(left, this.storageDelta[i]));
+		this.lastTransferred = taken - left;
+		for (int i = 0; i < this.storageCount && left > 0; i++)
+			if (this.storageDelta[i] < 0)
+				left -= refund(manager, this.storageTiles[i], Math.min(left, -this.storageDelta[i]));
+		for (int i = 0; i < this.producerCount && left > 0; i++)
+			left -= refund(manager, this.producerTiles[i], Math.min(left, this.producerOut[i]));
+		Arrays.fill(this.producerTiles, 0, this.producerCount, null);
+		Arrays.fill(this.consumerTiles, 0, this.consumerCount, null);
+		Arrays.fill(this.storageTiles, 0, this.storageCount, null);
+	}
+
+	private static long extract(EnergyNetworkManager manager, TileEntityEnergy te, long energy) {
+		if (energy <= 0 || !manager.isLoaded(te))
+			return 0;
+		long extracted = te.getEnergyStorage().extractEnergy(energy, false);
+		if (extracted > 0)
+			te.getWorld().markChunkDirty(te.getPos(), te);
+		return extracted;
+	}
+
+	private static long receive(EnergyNetworkManager manager, TileEntityEnergy te, long energy) {
+		if (energy <= 0 || !manager.isLoaded(te))
+			return 0;
+		long received = te.getEnergyStorage().receiveEnergy(energy, false);
+		if (received > 0)
+			te.getWorld().markChunkDirty(te.getPos(), te);
+		return received;
+	}
+
+	private static long refund(EnergyNetworkManager manager, TileEntityEnergy te, long energy) {
+		if (energy <= 0 || !manager.isLoaded(te))
+			return 0;
+		return te.getEnergyStorage().receiveEnergyInternal(energy, false);
+	}
+
+	private static long getOffer(EnergyStorage storage) {
+		return storage.canExtract() ? Math.min(storage.getEnergyStored(), storage.getMaxExtract()) : 0;
+	}
+
+	private static long getDemand(EnergyStorage storage) {
+		return storage.canReceive()
+				? Math.max(0, Math.min(storage.getMaxEnergyStored() - storage.getEnergyStored(), storage.getMaxReceive()))
+				: 0;
+	}
+
+	/**
+	 * Adds up the values without overflowing
+	 */
+	private static long sum(long[] values, int count) {
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			sum += values[i];
+			if (sum < 0)
+				return Long.MAX_VALUE;
+		}
+		return sum;
+	}
+
+	/**
+	 * Share the total between each slot in proportion to its weight. No slot
+	 * is given more than its weight
+	 *
+	 * @param total
+	 *            The amount to share out
+	 * @param weights
+	 *            The most each slot can have
+	 * @param count
+	 *            How many slots there are
+	 * @param out
+	 *            Where the share of each slot is put
+	 */
+	static void distribute(long total, long[] weights, int count, long[] out) {
+		long weightSum = sum(weights, count);
+		if (total >= weightSum) {
+			System.arraycopy(weights, 0, out, 0, count);
+			return;
+		}
+		double ratio = (double) total / (double) weightSum;
+		long assigned = 0;
+		for (int i = 0; i < count; i++) {
+			long share = Math.min(weights[i], Math.min(total - assigned, (long) (weights[i] * ratio)));
+			out[i] = share;
+			assigned += share;
+		}
+		for (int i = 0; i < count && assigned < total; i++) {
+			long extra = Math.min(total - assigned, weights[i] - out[i]);
+			out[i] += extra;
+			assigned += extra;
+		}
+	}
+
+	/**
+	 * @return How many {@link TileEntityEnergy}s are in the network
+	 */
+	public int getSize() {
+		return this.members.size();
+	}
+
+	/**
+	 * @return How much energy was moved the last time the network was ticked
+	 */
+	public long getLastTransferred() {
+		return this.lastTransferred;
+	}
+
+}
@@ -0,0 +1,329 @@
+package cjminecraft.core.energy.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinTask;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.config.CJCoreConfig;
+import cjminecraft.core.energy.compat.TileEntityEnergy;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Keeps track of every {@link EnergyNetwork} inside of a world. Networks are
+ * joined and merged straight away when a {@link TileEntityEnergy} is loaded.
+ * When one is removed its network is only marked as dirty and is split (if it
+ * needs to be) once at the start of the next tick, so unloading a chunk full
+ * of cables does not search the network once per cable.
+ *
+ * When there is more than one network and
+ * {@link CJCoreConfig.Energy#ENERGY_NETWORK_PARALLEL} is enabled, every network
+ * is read at the start of the world tick, solved on the
+ * {@link EnergyNetworkSolver} while the world ticks and applied at the end of
+ * the tick.
+ *
+ * @author CJMinecraft
+ *
+ */
+public class EnergyNetworkManager {
+
+	private static final Map<World, EnergyNetworkManager> managers = new WeakHashMap<World, EnergyNetworkManager>();
+
+	private final Long2ObjectMap<TileEntityEnergy> members = new Long2ObjectOpenHashMap<TileEntityEnergy>();
+	private final Long2ObjectMap<EnergyNetwork> networkByPos = new Long2ObjectOpenHashMap<EnergyNetwork>();
+	private final Set<EnergyNetwork> networks = Collections
+			.newSetFromMap(new IdentityHashMap<EnergyNetwork, Boolean>());
+
+	private EnergyNetwork[] pending = new EnergyNetwork[0];
+	private int pendingCount;
+	@Nullable
+	private ForkJoinTask<Void> pendingTask;
+
+	/**
+	 * Get the manager for the given world, creating it if there is none
+	 *
+	 * @param world
+	 *            The world
+	 * @return The manager of the world
+	 */
+	public static EnergyNetworkManager get(@Nonnull World world) {
+		EnergyNetworkManager manager = managers.get(world);
+		if (manager == null) {
+			manager = new EnergyNetworkManager();
+			managers.put(world, manager);
+		}
+		return manager;
+	}
+
+	/**
+	 * Should not be called outside of {@link cjminecraft.core.init.CJCoreEvents}
+	 *
+	 * @param world
+	 *            The world which is about to tick
+	 */
+	public static void startTick(@Nonnull World world) {
+		EnergyNetworkManager manager = managers.get(world);
+		if (manager != null)
+			manager.startTick();
+	}
+
+	/**
+	 * Should not be called outside of {@link cjminecraft.core.init.CJCoreEvents}
+	 *
+	 * @param world
+	 *            The world which has finished ticking
+	 */
+	public static void tick(@Nonnull World world) {
+		EnergyNetworkManager manager = managers.get(world);
+		if (manager != null)
+			manager.tick();
+	}
+
+	/**
+	 * Should not be called outside of {@link cjminecraft.core.init.CJCoreEvents}
+	 *
+	 * @param world
+	 *            The world which is being unloaded
+	 */
+	public static void unload(@Nonnull World world) {
+		EnergyNetworkManager manager = managers.remove(world);
+		if (manager != null && manager.pendingTask != null) {
+			manager.pendingTask.cancel(false);
+			manager.clearPending();
+		}
+	}
+
+	/**
+	 * Add the {@link TileEntityEnergy} to the network of its neighbours,
+	 * merging any networks it connects together
+	 *
+	 * @param te
+	 *            The {@link TileEntityEnergy} which has been loaded
+	 */
+	public void add(@Nonnull TileEntityEnergy te) {
+		if (te.getEnergyNetworkRole() == null)
+			return;
+		long key = te.getPos().toLong();
+		TileEntityEnergy previous = this.members.get(key);
+		if (previous == te)
+			return;
+		if (previous != null)
+			remove(previous);
+		this.members.put(key, te);
+		EnergyNetwork network = null;
+		for (EnumFacing side : EnumFacing.VALUES) {
+			BlockPos neighbourPos = te.getPos().offset(side);
+			TileEntityEnergy neighbour = this.members.get(neighbourPos.toLong());
+			if (neighbour == null || !isConnected(te, side, neighbour))
+				continue;
+			EnergyNetwork other = this.networkByPos.get(neighbourPos.toLong());
+			if (network == null)
+				network = other;
+			else if (other != network)
+				network = merge(network, other);
+		}
+		if (network == null) {
+			network = new EnergyNetwork();
+			this.networks.add(network);
+		}
+		network.add(te);
+		this.networkByPos.put(key, network);
+	}
+
+	/**
+	 * Remove the {@link TileEntityEnergy} from its network
+	 *
+	 * @param te
+	 *            The {@link TileEntityEnergy} which has been removed
+	 */
+	public void remove(@Nonnull TileEntityEnergy te) {
+		long key = te.getPos().toLong();
+		if (this.members.get(key) != te)
+			return;
+		this.members.remove(key);
+		EnergyNetwork network = this.networkByPos.remove(key);
+		if (network != null)
+			network.dirty = true;
+	}
+
+	/**
+	 * Get the network the {@link TileEntityEnergy} at the given position is in
+	 *
+	 * @param pos
+	 *            The position of the {@link TileEntityEnergy}
+	 * @return The network. Can be <code>null</code>
+	 */
+	@Nullable
+	public EnergyNetwork getNetwork(@Nonnull BlockPos pos) {
+		return this.networkByPos.get(pos.toLong());
+	}
+
+	/**
+	 * Check whether the {@link TileEntityEnergy} can still be given or have
+	 * energy taken. Unloading a chunk does not invalidate its tile entities,
+	 * so they are also checked against the members and the loaded chunks
+	 *
+	 * @param te
+	 *            The {@link TileEntityEnergy}
+	 * @return Whether it is still a loaded member of a network
+	 */
+	boolean isLoaded(@Nonnull TileEntityEnergy te) {
+		return !te.isInvalid() && this.members.get(te.getPos().toLong()) == te && te.getWorld() != null
+				&& te.getWorld().isBlockLoaded(te.getPos(), false);
+	}
+
+	/**
+	 * @return How many networks are in the world
+	 */
+	public int getNetworkCount() {
+		return this.networks.size();
+	}
+
+	/**
+	 * Split any dirty networks, read every network and start solving them on
+	 * the {@link EnergyNetworkSolver}
+	 */
+	private void startTick() {
+		if (this.pendingTask != null || !CJCoreConfig.ENERGY.ENERGY_NETWORK_PARALLEL || this.networks.size() < 2)
+			return;
+		rebuildDirtyNetworks();
+		this.pendingCount = this.networks.size();
+		if (this.pending.length < this.pendingCount)
+			this.pending = new EnergyNetwork[this.pendingCount];
+		int i = 0;
+		for (EnergyNetwork network : this.networks) {
+			network.snapshot();
+			this.pending[i++] = network;
+		}
+		this.pendingTask = EnergyNetworkSolver.submit(this.pending, this.pendingCount);
+	}
+
+	/**
+	 * Share the energy inside of every network. If the networks were solved in
+	 * parallel this waits for them and applies the result, otherwise any dirty
+	 * networks are split and every network is solved here
+	 */
+	private void tick() {
+		if (this.pendingTask == null) {
+			rebuildDirtyNetworks();
+			for (EnergyNetwork network : this.networks)
+				network.tick(this);
+			return;
+		}
+		try {
+			this.pendingTask.join();
+		} catch (RuntimeException e) {
+			CJCore.logger.catching(e);
+			for (int i = 0; i < this.pendingCount; i++)
+				this.pending[i].solve();
+		}
+		for (int i = 0; i < this.pendingCount; i++)
+			this.pending[i].apply(this);
+		clearPending();
+	}
+
+	private void clearPending() {
+		this.pendingTask = null;
+		Arrays.fill(this.pending, 0, this.pendingCount, null);
+		this.pendingCount = 0;
+	}
+
+	/**
+	 * Splits every dirty network into its connected parts
+	 */
+	void rebuildDirtyNetworks() {
+		List<EnergyNetwork> dirty = null;
+		for (EnergyNetwork network : this.networks) {
+			if (network.dirty) {
+				if (dirty == null)
+					dirty = new ArrayList<EnergyNetwork>();
+				dirty.add(network);
+			}
+		}
+		if (dirty == null)
+			return;
+		for (EnergyNetwork network : dirty)
+			rebuild(network);
+	}
+
+	/**
+	 * Finds the connected parts of the network by flooding out from each
+	 * member which is still loaded. The first part keeps the network, any
+	 * others are given new networks
+	 *
+	 * @param network
+	 *            The network to rebuild
+	 */
+	private void rebuild(EnergyNetwork network) {
+		List<TileEntityEnergy> old = new ArrayList<TileEntityEnergy>(network.members);
+		network.clear();
+		network.dirty = false;
+		this.networks.remove(network);
+		Set<TileEntityEnergy> visited = Collections.newSetFromMap(new IdentityHashMap<TileEntityEnergy, Boolean>());
+		ArrayDeque<TileEntityEnergy> queue = new ArrayDeque<TileEntityEnergy>();
+		EnergyNetwork current = network;
+		for (TileEntityEnergy start : old) {
+			if (visited.contains(start) || this.members.get(start.getPos().toLong()) != start)
+				continue;
+			if (current == null)
+				current = new EnergyNetwork();
+			this.networks.add(current);
+			visited.add(start);
+			queue.add(start);
+			while (!queue.isEmpty()) {
+				TileEntityEnergy te = queue.poll();
+				current.add(te);
+				this.networkByPos.put(te.getPos().toLong(), current);
+				for (EnumFacing side : EnumFacing.VALUES) {
+					TileEntityEnergy neighbour = this.members.get(te.getPos().offset(side).toLong());
+					if (neighbour != null && !visited.contains(neighbour) && isConnected(te, side, neighbour)) {
+						visited.add(neighbour);
+						queue.add(neighbour);
+					}
+				}
+			}
+			current = null;
+		}
+	}
+
+	/**
+	 * Moves every member of the smaller network into the larger network
+	 *
+	 * @return The network which is left
+	 */
+	private EnergyNetwork merge(EnergyNetwork a, EnergyNetwork b) {
+		EnergyNetwork large = a.members.size() >= b.members.size() ? a : b;
+		EnergyNetwork small = large == a ? b : a;
+		for (TileEntityEnergy te : small.members) {
+			long key = te.getPos().toLong();
+			if (this.members.get(key) != te)
+				continue;
+			large.add(te);
+			this.networkByPos.put(key, large);
+		}
+		if (small.dirty)
+			large.dirty = true;
+		small.clear();
+		this.networks.remove(small);
+		return large;
+	}
+
+	private static boolean isConnected(TileEntityEnergy te, EnumFacing side, TileEntityEnergy neighbour) {
+		return te.canConnectEnergy(side) && neighbour.canConnectEnergy(side.getOpposite());
+	}
+
+}
@@ -0,0 +1,32 @@
+package cjminecraft.core.energy.network;
+
+import cjminecraft.core.energy.compat.TileEntityEnergy;
+
+/**
+ * The part a {@link TileEntityEnergy} plays inside of an {@link EnergyNetwork}
+ *
+ * @author CJMinecraft
+ *
+ */
+public enum EnergyNetworkRole {
+
+	/**
+	 * Energy is taken from producers and given to consumers first, any surplus
+	 * goes into storage
+	 */
+	PRODUCER,
+	/**
+	 * Consumers are given energy from producers first, any deficit is taken
+	 * from storage
+	 */
+	CONSUMER,
+	/**
+	 * Storage soaks up any surplus and covers any deficit
+	 */
+	STORAGE,
+	/**
+	 * Cables only connect the network together, their energy is never touched
+	 */
+	CABLE;
+
+}
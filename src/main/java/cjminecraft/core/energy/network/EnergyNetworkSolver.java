@@ -0,0 +1,86 @@
+package cjminecraft.core.energy.network;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import javax.annotation.Nonnull;
+
+import cjminecraft.core.config.CJCoreConfig;
+
+/**
+ * Solves many {@link EnergyNetwork}s at once on a small pool of daemon
+ * threads. Only {@link EnergyNetwork#solve()} is run on the pool, which only
+ * touches the numbers read by {@link EnergyNetwork#snapshot()}, so no
+ * {@link net.minecraft.tileentity.TileEntity} or world is ever touched off of
+ * the server thread
+ *
+ * @author CJMinecraft
+ *
+ */
+public class EnergyNetworkSolver {
+
+	/**
+	 * How many networks a single task will solve before it stops splitting
+	 */
+	private static final int THRESHOLD = 16;
+
+	private static ForkJoinPool pool;
+
+	/**
+	 * Start solving the given networks on the pool
+	 *
+	 * @param networks
+	 *            The networks to solve, each must have been snapshot already
+	 * @param count
+	 *            How many of the networks to solve
+	 * @return The task which can be joined to wait for the networks to be
+	 *         solved
+	 */
+	static ForkJoinTask<Void> submit(@Nonnull EnergyNetwork[] networks, int count) {
+		return getPool().submit(new SolveTask(networks, 0, count));
+	}
+
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			int threads = CJCoreConfig.ENERGY.ENERGY_NETWORK_THREADS;
+			if (threads <= 0)
+				threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			pool = new ForkJoinPool(threads, p -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+				thread.setName("CJCore Energy Solver " + thread.getPoolIndex());
+				thread.setDaemon(true);
+				return thread;
+			}, null, false);
+		}
+		return pool;
+	}
+
+	private static class SolveTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final EnergyNetwork[] networks;
+		private final int from, to;
+
+		private SolveTask(EnergyNetwork[] networks, int from, int to) {
+			this.networks = networks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= THRESHOLD) {
+				for (int i = this.from; i < this.to; i++)
+					this.networks[i].solve();
+				return;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			invokeAll(new SolveTask(this.networks, this.from, middle), new SolveTask(this.networks, middle, this.to));
+		}
+
+	}
+
+}
@@ -1,6 +1,7 @@
 package cjminecraft.core.energy.support;
 
 import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.energy.EnergyUtils;
 import cofh.redstoneflux.api.IEnergyHandler;
 import cofh.redstoneflux.api.IEnergyProvider;
 import cofh.redstoneflux.api.IEnergyReceiver;
@@ -106,7 +107,7 @@ public class CoFHSupport {
 
 		@Override
 		public long takeEnergy(IEnergyProvider container, long energy, boolean simulate, EnumFacing from) {
-			return container.extractEnergy(from, (int) energy, simulate);
+			return container.extractEnergy(from, EnergyUtils.clampToInt(energy), simulate);
 		}
 
 		@Override
@@ -166,7 +167,7 @@ public class CoFHSupport {
 
 		@Override
 		public long giveEnergy(IEnergyReceiver container, long energy, boolean simulate, EnumFacing from) {
-			return container.receiveEnergy(from, (int) energy, simulate);
+			return container.receiveEnergy(from, EnergyUtils.clampToInt(energy), simulate);
 		}
 
 		@Override
@@ -2,6 +2,7 @@ package cjminecraft.core.energy.support;
 
 import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.energy.EnergyUtils;
 import net.minecraft.item.ItemStack;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
@@ -108,7 +109,7 @@ public class ForgeEnergySupport {
 
 		@Override
 		public long takeEnergy(IEnergyStorage container, long energy, boolean simulate, EnumFacing from) {
-			return container.extractEnergy((int) energy, simulate);
+			return container.extractEnergy(EnergyUtils.clampToInt(energy), simulate);
 		}
 
 		@Override
@@ -168,7 +169,7 @@ public class ForgeEnergySupport {
 
 		@Override
 		public long giveEnergy(IEnergyStorage container, long energy, boolean simulate, EnumFacing from) {
-			return container.receiveEnergy((int) energy, simulate);
+			return container.receiveEnergy(EnergyUtils.clampToInt(energy), simulate);
 		}
 
 		@Override
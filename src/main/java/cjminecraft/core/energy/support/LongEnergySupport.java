@@ -0,0 +1,219 @@
+package cjminecraft.core.energy.support;
+
+import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.energy.compat.ILongEnergyStorage;
+import cjminecraft.core.energy.compat.TileEntityEnergy;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+
+/**
+ * Class which handles the {@link EnergyUtils#LONG_ENERGY} capability of
+ * CJCore's own storages (see {@link TileEntityEnergy}). Registered before
+ * every other support so energy moved between CJCore storages is never capped
+ * at {@link Integer#MAX_VALUE}
+ * 
+ * @author CJMinecraft
+ *
+ */
+public class LongEnergySupport {
+
+	/**
+	 * For any block with a CJCore storage which simply holds energy
+	 * 
+	 * @author CJMinecraft
+	 *
+	 */
+	public static class LongEnergyHolder implements IEnergySupport<ILongEnergyStorage> {
+
+		@Override
+		public long getEnergyStored(ILongEnergyStorage container, EnumFacing from) {
+			return container.getEnergyStored();
+		}
+
+		@Override
+		public long getCapacity(ILongEnergyStorage container, EnumFacing from) {
+			return container.getMaxEnergyStored();
+		}
+
+		@Override
+		public long giveEnergy(ILongEnergyStorage container, long energy, boolean simulate, EnumFacing from) {
+			return 0;
+		}
+
+		@Override
+		public long takeEnergy(ILongEnergyStorage container, long energy, boolean simulate, EnumFacing from) {
+			return 0;
+		}
+
+		@Override
+		public boolean canReceive(ILongEnergyStorage container, EnumFacing from) {
+			return false;
+		}
+
+		@Override
+		public boolean canExtract(ILongEnergyStorage container, EnumFacing from) {
+			return false;
+		}
+
+		@Override
+		public ILongEnergyStorage getContainer(TileEntity te, EnumFacing from) {
+			return te.getCapability(EnergyUtils.LONG_ENERGY, from);
+		}
+
+		@Override
+		public boolean hasSupport(TileEntity te, EnumFacing from) {
+			return te.hasCapability(EnergyUtils.LONG_ENERGY, from)
+					? !getContainer(te, from).canExtract() && !getContainer(te, from).canReceive() : false;
+		}
+
+		@Override
+		public EnergyUnit defaultEnergyUnit() {
+			return EnergyUnit.FORGE_ENERGY;
+		}
+
+		@Override
+		public ILongEnergyStorage getContainer(ItemStack stack, EnumFacing from) {
+			return stack.getCapability(EnergyUtils.LONG_ENERGY, from);
+		}
+
+		@Override
+		public boolean hasSupport(ItemStack stack, EnumFacing from) {
+			return stack.hasCapability(EnergyUtils.LONG_ENERGY, from)
+					? !getContainer(stack, from).canExtract() && !getContainer(stack, from).canReceive() : false;
+		}
+
+	}
+
+	/**
+	 * For any block with a CJCore storage which provides energy
+	 * 
+	 * @author CJMinecraft
+	 *
+	 */
+	public static class LongEnergyProducer implements IEnergySupport<ILongEnergyStorage> {
+
+		@Override
+		public long getEnergyStored(ILongEnergyStorage container, EnumFacing from) {
+			return container.getEnergyStored();
+		}
+
+		@Override
+		public long getCapacity(ILongEnergyStorage container, EnumFacing from) {
+			return container.getMaxEnergyStored();
+		}
+
+		@Override
+		public long giveEnergy(ILongEnergyStorage container, long energy, boolean simulate, EnumFacing from) {
+			return 0;
+		}
+
+		@Override
+		public long takeEnergy(ILongEnergyStorage container, long energy, boolean simulate, EnumFacing from) {
+			return container.extractEnergy(energy, simulate);
+		}
+
+		@Override
+		public boolean canReceive(ILongEnergyStorage container, EnumFacing from) {
+			return false;
+		}
+
+		@Override
+		public boolean canExtract(ILongEnergyStorage container, EnumFacing from) {
+			return true;
+		}
+
+		@Override
+		public ILongEnergyStorage getContainer(TileEntity te, EnumFacing from) {
+			return te.getCapability(EnergyUtils.LONG_ENERGY, from);
+		}
+
+		@Override
+		public boolean hasSupport(TileEntity te, EnumFacing from) {
+			return te.hasCapability(EnergyUtils.LONG_ENERGY, from) ? getContainer(te, from).canExtract() : false;
+		}
+
+		@Override
+		public EnergyUnit defaultEnergyUnit() {
+			return EnergyUnit.FORGE_ENERGY;
+		}
+
+		@Override
+		public ILongEnergyStorage getContainer(ItemStack stack, EnumFacing from) {
+			return stack.getCapability(EnergyUtils.LONG_ENERGY, from);
+		}
+
+		@Override
+		public boolean hasSupport(ItemStack stack, EnumFacing from) {
+			return stack.hasCapability(EnergyUtils.LONG_ENERGY, from) ? getContainer(stack, from).canExtract() : false;
+		}
+
+	}
+
+	/**
+	 * For any block with a CJCore storage which consumes energy
+	 * 
+	 * @author CJMinecraft
+	 *
+	 */
+	public static class LongEnergyConsumer implements IEnergySupport<ILongEnergyStorage> {
+
+		@Override
+		public long getEnergyStored(ILongEnergyStorage container, EnumFacing from) {
+			return container.getEnergyStored();
+		}
+
+		@Override
+		public long getCapacity(ILongEnergyStorage container, EnumFacing from) {
+			return container.getMaxEnergyStored();
+		}
+
+		@Override
+		public long giveEnergy(ILongEnergyStorage container, long energy, boolean simulate, EnumFacing from) {
+			return container.receiveEnergy(energy, simulate);
+		}
+
+		@Override
+		public long takeEnergy(ILongEnergyStorage container, long energy, boolean simulate, EnumFacing from) {
+			return 0;
+		}
+
+		@Override
+		public boolean canReceive(ILongEnergyStorage container, EnumFacing from) {
+			return true;
+		}
+
+		@Override
+		public boolean canExtract(ILongEnergyStorage container, EnumFacing from) {
+			return false;
+		}
+
+		@Override
+		public ILongEnergyStorage getContainer(TileEntity te, EnumFacing from) {
+			return te.getCapability(EnergyUtils.LONG_ENERGY, from);
+		}
+
+		@Override
+		public boolean hasSupport(TileEntity te, EnumFacing from) {
+			return te.hasCapability(EnergyUtils.LONG_ENERGY, from) ? getContainer(te, from).canReceive() : false;
+		}
+
+		@Override
+		public EnergyUnit defaultEnergyUnit() {
+			return EnergyUnit.FORGE_ENERGY;
+		}
+
+		@Override
+		public ILongEnergyStorage getContainer(ItemStack stack, EnumFacing from) {
+			return stack.getCapability(EnergyUtils.LONG_ENERGY, from);
+		}
+
+		@Override
+		public boolean hasSupport(ItemStack stack, EnumFacing from) {
+			return stack.hasCapability(EnergyUtils.LONG_ENERGY, from) ? getContainer(stack, from).canReceive() : false;
+		}
+
+	}
+
+}
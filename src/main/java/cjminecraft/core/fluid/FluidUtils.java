@@ -1,7 +1,6 @@
 package cjminecraft.core.fluid;
 
 import java.text.NumberFormat;
-import java.util.HashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -9,7 +8,14 @@ import javax.annotation.Nullable;
 import cjminecraft.core.CJCore;
 import cjminecraft.core.config.CJCoreConfig;
 import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
 import cjminecraft.core.network.fluid.*;
+import cjminecraft.core.network.sync.SubscriptionManager;
+import cjminecraft.core.network.sync.SyncCache;
+import cjminecraft.core.network.sync.SyncKey;
+import cjminecraft.core.network.sync.SyncType;
+import cjminecraft.core.util.NeighbourCache;
+import cjminecraft.core.util.TileEntityBase;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.item.ItemStack;
 import net.minecraft.tileentity.TileEntity;
@@ -27,7 +33,7 @@ import net.minecraftforge.fluids.capability.*;
  */
 public class FluidUtils {
 
-	private static HashMap<String, HashMap<String, FluidTankInfo>> cachedFluidData = new HashMap<String, HashMap<String, FluidTankInfo>>();
+	private static final SyncCache<FluidTankInfo> cachedFluidData = new SyncCache<FluidTankInfo>();
 
 	/**
 	 * States whether the {@link TileEntity} has fluid support
@@ -153,7 +159,7 @@ public class FluidUtils {
 		if (te == null)
 			return 0;
 		IFluidHandler handler = te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return 0;
 		return handler.getTankProperties()[tankIndex].getContents() != null
 				? handler.getTankProperties()[tankIndex].getContents().amount : 0;
@@ -176,7 +182,7 @@ public class FluidUtils {
 		if (stack == null || stack.isEmpty())
 			return 0;
 		IFluidHandler handler = stack.getCapability(CapabilityFluidHandler.FLUID_HANDLER_ITEM_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return 0;
 		return handler.getTankProperties()[tankIndex].getContents() != null
 				? handler.getTankProperties()[tankIndex].getContents().amount : 0;
@@ -200,7 +206,7 @@ public class FluidUtils {
 		if (te == null)
 			return null;
 		IFluidHandler handler = te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return null;
 		return handler.getTankProperties()[tankIndex].getContents();
 	}
@@ -223,7 +229,7 @@ public class FluidUtils {
 		if (stack == null || stack.isEmpty())
 			return null;
 		IFluidHandler handler = stack.getCapability(CapabilityFluidHandler.FLUID_HANDLER_ITEM_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return null;
 		return handler.getTankProperties()[tankIndex].getContents();
 	}
@@ -245,7 +251,7 @@ public class FluidUtils {
 		if (te == null)
 			return 0;
 		IFluidHandler handler = te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return 0;
 		return handler.getTankProperties()[tankIndex].getCapacity();
 	}
@@ -267,7 +273,7 @@ public class FluidUtils {
 		if (stack == null || stack.isEmpty())
 			return 0;
 		IFluidHandler handler = stack.getCapability(CapabilityFluidHandler.FLUID_HANDLER_ITEM_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return 0;
 		return handler.getTankProperties()[tankIndex].getCapacity();
 	}
@@ -290,7 +296,7 @@ public class FluidUtils {
 		if (te == null)
 			return FluidRegistry.WATER;
 		IFluidHandler handler = te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return FluidRegistry.WATER;
 		return handler.getTankProperties()[tankIndex].getContents().getFluid();
 	}
@@ -313,7 +319,7 @@ public class FluidUtils {
 		if (stack == null || stack.isEmpty())
 			return FluidRegistry.WATER;
 		IFluidHandler handler = stack.getCapability(CapabilityFluidHandler.FLUID_HANDLER_ITEM_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return FluidRegistry.WATER;
 		return handler.getTankProperties()[tankIndex].getContents().getFluid();
 	}
@@ -335,7 +341,7 @@ public class FluidUtils {
 		if (te == null)
 			return false;
 		IFluidHandler handler = te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return false;
 		return handler.getTankProperties()[tankIndex].canFill();
 	}
@@ -357,7 +363,7 @@ public class FluidUtils {
 		if (stack == null || stack.isEmpty())
 			return false;
 		IFluidHandler handler = stack.getCapability(CapabilityFluidHandler.FLUID_HANDLER_ITEM_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return false;
 		return handler.getTankProperties()[tankIndex].canFill();
 	}
@@ -379,7 +385,7 @@ public class FluidUtils {
 		if (te == null)
 			return false;
 		IFluidHandler handler = te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return false;
 		return handler.getTankProperties()[tankIndex].canDrain();
 	}
@@ -401,7 +407,7 @@ public class FluidUtils {
 		if (stack == null || stack.isEmpty())
 			return false;
 		IFluidHandler handler = stack.getCapability(CapabilityFluidHandler.FLUID_HANDLER_ITEM_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return false;
 		return handler.getTankProperties()[tankIndex].canDrain();
 	}
@@ -427,7 +433,7 @@ public class FluidUtils {
 		if (te == null)
 			return false;
 		IFluidHandler handler = te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return false;
 		return handler.getTankProperties()[tankIndex].canFillFluidType(fluidStack);
 	}
@@ -453,7 +459,7 @@ public class FluidUtils {
 		if (stack == null || stack.isEmpty())
 			return false;
 		IFluidHandler handler = stack.getCapability(CapabilityFluidHandler.FLUID_HANDLER_ITEM_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return false;
 		return handler.getTankProperties()[tankIndex].canFillFluidType(fluidStack);
 	}
@@ -478,7 +484,7 @@ public class FluidUtils {
 		if (te == null)
 			return false;
 		IFluidHandler handler = te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return false;
 		return handler.getTankProperties()[tankIndex].canDrainFluidType(fluidStack);
 	}
@@ -503,7 +509,7 @@ public class FluidUtils {
 		if (stack == null || stack.isEmpty())
 			return false;
 		IFluidHandler handler = stack.getCapability(CapabilityFluidHandler.FLUID_HANDLER_ITEM_CAPABILITY, from);
-		if (tankIndex >= handler.getTankProperties().length)
+		if (tankIndex < 0 || tankIndex >= handler.getTankProperties().length)
 			return false;
 		return handler.getTankProperties()[tankIndex].canDrainFluidType(fluidStack);
 	}
@@ -654,6 +660,147 @@ public class FluidUtils {
 				!simulate);
 	}
 
+	/**
+	 * Fill the tanks surrounding the given {@link TileEntity} with the given
+	 * {@link FluidStack}. If the {@link TileEntity} is a {@link TileEntityBase}
+	 * its {@link NeighbourCache} is used so no world lookups are needed
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param resource
+	 *            The {@link FluidStack} to fill the tanks with
+	 * @param simulate
+	 *            Whether it is a simulation (if so, no fluid will actually be
+	 *            given)
+	 * @return The amount of fluid which was (or would have been) filled
+	 */
+	public static int fillAllFaces(@Nonnull TileEntity te, @Nullable FluidStack resource, boolean simulate) {
+		if (resource == null || resource.amount <= 0)
+			return 0;
+		NeighbourCache neighbours = te instanceof TileEntityBase ? ((TileEntityBase) te).getNeighbourCache() : null;
+		FluidStack remainder = resource.copy();
+		int filled = 0;
+		for (EnumFacing side : EnumFacing.VALUES) {
+			IFluidHandler handler = neighbours != null ? neighbours.getFluidHandler(side)
+					: getNeighbourFluidHandler(te, side);
+			if (handler == null)
+				continue;
+			int amount = handler.fill(remainder, !simulate);
+			filled += amount;
+			remainder.amount -= amount;
+			if (remainder.amount <= 0)
+				break;
+		}
+		return filled;
+	}
+
+	/**
+	 * Drain the given {@link FluidStack} from the tanks surrounding the given
+	 * {@link TileEntity}. If the {@link TileEntity} is a {@link TileEntityBase}
+	 * its {@link NeighbourCache} is used so no world lookups are needed
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param resource
+	 *            The {@link FluidStack} to drain
+	 * @param simulate
+	 *            Whether this is a simulation (if so, no fluid will actually be
+	 *            drained)
+	 * @return The {@link FluidStack} which was (or would have been) drained
+	 */
+	@Nullable
+	public static FluidStack drainAllFaces(@Nonnull TileEntity te, @Nullable FluidStack resource, boolean simulate) {
+		if (resource == null || resource.amount <= 0)
+			return null;
+		NeighbourCache neighbours = te instanceof TileEntityBase ? ((TileEntityBase) te).getNeighbourCache() : null;
+		FluidStack remainder = resource.copy();
+		FluidStack drained = null;
+		for (EnumFacing side : EnumFacing.VALUES) {
+			IFluidHandler handler = neighbours != null ? neighbours.getFluidHandler(side)
+					: getNeighbourFluidHandler(te, side);
+			if (handler == null)
+				continue;
+			FluidStack stack = handler.drain(remainder, !simulate);
+			if (stack == null || stack.amount <= 0)
+				continue;
+			if (drained == null)
+				drained = stack.copy();
+			else
+				drained.amount += stack.amount;
+			remainder.amount -= stack.amount;
+			if (remainder.amount <= 0)
+				break;
+		}
+		return drained;
+	}
+
+	/**
+	 * Drain a certain amount of fluid from the tanks surrounding the given
+	 * {@link TileEntity}. Only fluid matching the first fluid drained will be
+	 * taken from the other faces. If the {@link TileEntity} is a
+	 * {@link TileEntityBase} its {@link NeighbourCache} is used so no world
+	 * lookups are needed
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param maxDrain
+	 *            The amount to drain
+	 * @param simulate
+	 *            Whether this is a simulation (if so, no fluid will actually be
+	 *            drained)
+	 * @return The {@link FluidStack} which was (or would have been) drained
+	 */
+	@Nullable
+	public static FluidStack drainAllFaces(@Nonnull TileEntity te, int maxDrain, boolean simulate) {
+		if (maxDrain <= 0)
+			return null;
+		NeighbourCache neighbours = te instanceof TileEntityBase ? ((TileEntityBase) te).getNeighbourCache() : null;
+		FluidStack drained = null;
+		for (EnumFacing side : EnumFacing.VALUES) {
+			IFluidHandler handler = neighbours != null ? neighbours.getFluidHandler(side)
+					: getNeighbourFluidHandler(te, side);
+			if (handler == null)
+				continue;
+			FluidStack stack;
+			if (drained == null)
+				stack = handler.drain(maxDrain, !simulate);
+			else {
+				FluidStack resource = drained.copy();
+				resource.amount = maxDrain - drained.amount;
+				stack = handler.drain(resource, !simulate);
+			}
+			if (stack == null || stack.amount <= 0)
+				continue;
+			if (drained == null)
+				drained = stack.copy();
+			else
+				drained.amount += stack.amount;
+			if (drained.amount >= maxDrain)
+				break;
+		}
+		return drained;
+	}
+
+	/**
+	 * Get the {@link IFluidHandler} next to the given face without using a
+	 * {@link NeighbourCache}
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param side
+	 *            The face of the {@link TileEntity} in the center
+	 * @return The {@link IFluidHandler} of the face touching the center. Can be
+	 *         <code>null</code>
+	 */
+	@Nullable
+	private static IFluidHandler getNeighbourFluidHandler(TileEntity te, EnumFacing side) {
+		TileEntity neighbour = te.getWorld().getTileEntity(te.getPos().offset(side));
+		if (neighbour == null
+				|| !neighbour.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, side.getOpposite()))
+			return null;
+		return neighbour.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, side.getOpposite());
+	}
+
 	/**
 	 * Saves data when syncing with the server
 	 * 
@@ -665,10 +812,7 @@ public class FluidUtils {
 	 *            The data to sync
 	 */
 	public static void addCachedFluidData(String modid, String className, FluidTankInfo data) {
-		if (!cachedFluidData.containsKey(modid))
-			cachedFluidData.put(modid, new HashMap<String, FluidTankInfo>());
-		if (!cachedFluidData.get(modid).containsKey(className))
-			cachedFluidData.get(modid).put(className, data);
+		cachedFluidData.put(modid, className, data);
 	}
 
 	/**
@@ -678,12 +822,26 @@ public class FluidUtils {
 	 *            The modid to get mod specific data
 	 * @return The latest data from the calling class
 	 */
+	@Deprecated
 	public static FluidTankInfo getCachedFluidData(String modid) {
-		return getCachedFluidData(modid, new Exception().getStackTrace()[1].getClassName());
+		return getCachedFluidData(SyncKey.forCaller(modid));
 	}
 
 	/**
-	 * Retrieves the latest data from the given class
+	 * Retrieves the latest data cached under the given key
+	 * 
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 * @return The latest data cached under the key
+	 */
+	public static FluidTankInfo getCachedFluidData(SyncKey key) {
+		return getCachedFluidData(key.getModid(), key.getClassName());
+	}
+
+	/**
+	 * Retrieves the latest data from the given class. The data stays cached
+	 * until newer data arrives, so use {@link #getFluidDataCache()} to check
+	 * how old it is
 	 * 
 	 * @param modid
 	 *            The modid to get mod specific data
@@ -692,13 +850,7 @@ public class FluidUtils {
 	 * @return The latest data from the given class
 	 */
 	public static FluidTankInfo getCachedFluidData(String modid, String className) {
-		if (!cachedFluidData.containsKey(modid))
-			return null;
-		if (!cachedFluidData.get(modid).containsKey(className))
-			return null;
-		FluidTankInfo data = cachedFluidData.get(modid).get(className);
-		cachedFluidData.get(modid).remove(className);
-		return data;
+		return cachedFluidData.get(modid, className);
 	}
 
 	/**
@@ -718,9 +870,30 @@ public class FluidUtils {
 	 * @param modid
 	 *            The modid for mod specific data
 	 */
+	@Deprecated
 	public static void syncFluidData(int tankIndex, BlockPos pos, @Nullable EnumFacing from, String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetFluidData(tankIndex, pos, from, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncFluidData(tankIndex, pos, from, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync fluid data with the server. To get the data, use
+	 * {@link #getCachedFluidData(SyncKey)}. This will store the data under the
+	 * given key
+	 * 
+	 * @param tankIndex
+	 *            The index of the tank to get the information from (for blocks
+	 *            which have more than one tank)
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param from
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncFluidData(int tankIndex, BlockPos pos, @Nullable EnumFacing from, SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetFluidData(tankIndex, pos, from, false, key.getModid(),
+				key.getClassName()));
 	}
 
 	/**
@@ -747,6 +920,68 @@ public class FluidUtils {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetFluidData(tankIndex, pos, from, false, modid, className));
 	}
 
+	/**
+	 * Sync fluid data into targets registered with the
+	 * {@link SyncTargetRegistry}. This will give the targets the capacity and
+	 * {@link FluidStack} (each respectively) of the tank
+	 * 
+	 * @param tankIndex
+	 *            The index of the tank to get the information from (for blocks
+	 *            which have more than one tank)
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param from
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param capacityTarget
+	 *            The id of the target which will be given the capacity
+	 * @param fluidStackTarget
+	 *            The id of the target which will be given the
+	 *            {@link FluidStack}
+	 */
+	public static void syncFluidData(int tankIndex, BlockPos pos, @Nullable EnumFacing from, int capacityTarget,
+			int fluidStackTarget) {
+		PacketHandler.INSTANCE
+				.sendToServer(new PacketGetFluidData(tankIndex, pos, from, capacityTarget, fluidStackTarget));
+	}
+
+	/**
+	 * Subscribe to a tank of the {@link TileEntity} at the given
+	 * {@link BlockPos}. The server will push its capacity and
+	 * {@link FluidStack} to the targets registered with the
+	 * {@link SyncTargetRegistry} whenever they change, until
+	 * {@link SubscriptionManager#unsubscribe(int)} is called with the capacity
+	 * target
+	 * 
+	 * @param tankIndex
+	 *            The index of the tank to get the information from (for blocks
+	 *            which have more than one tank)
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param from
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link Capability}
+	 * @param capacityTarget
+	 *            The id of the target which will be given the capacity
+	 * @param fluidStackTarget
+	 *            The id of the target which will be given the
+	 *            {@link FluidStack}
+	 */
+	public static void subscribeFluidData(int tankIndex, BlockPos pos, @Nullable EnumFacing from, int capacityTarget,
+			int fluidStackTarget) {
+		SubscriptionManager.subscribe(SyncType.FLUID, pos, from, tankIndex, capacityTarget, fluidStackTarget);
+	}
+
+	/**
+	 * Gets the cache of fluid data synced from the server, which can be used to
+	 * check how old the data is
+	 * 
+	 * @return The cache of fluid data
+	 */
+	public static SyncCache<FluidTankInfo> getFluidDataCache() {
+		return cachedFluidData;
+	}
+
 	/**
 	 * Clears all the cached fluid data
 	 */
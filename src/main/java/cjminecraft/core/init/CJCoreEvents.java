@@ -2,18 +2,39 @@ package cjminecraft.core.init;
 
 import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.energy.network.EnergyNetworkManager;
 import cjminecraft.core.fluid.FluidUtils;
 import cjminecraft.core.inventory.InventoryUtils;
+import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.inventory.InventoryDelta;
+import cjminecraft.core.network.sync.ITileContainer;
+import cjminecraft.core.network.sync.ResponseCache;
+import cjminecraft.core.network.sync.SnapshotManager;
+import cjminecraft.core.network.sync.SubscriptionManager;
+import cjminecraft.core.network.sync.TileInterestManager;
+import cjminecraft.core.util.NeighbourCache;
+import cjminecraft.core.util.TileEntityBase;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.config.ConfigManager;
 import net.minecraftforge.common.config.Config.Type;
+import net.minecraftforge.event.entity.player.PlayerContainerEvent;
+import net.minecraftforge.event.world.BlockEvent.NeighborNotifyEvent;
 import net.minecraftforge.event.world.BlockEvent.PlaceEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent;
+import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.network.FMLNetworkEvent.ClientDisconnectionFromServerEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent.ItemCraftedEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerChangedDimensionEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedInEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -26,4 +47,75 @@ public class CJCoreEvents {
 			ConfigManager.sync(CJCore.MODID, Type.INSTANCE);
 	}
 
+	@SubscribeEvent
+	public static void onNeighborNotify(NeighborNotifyEvent event) {
+		NeighbourCache.onBlockChanged(event.getWorld(), event.getPos());
+	}
+
+	@SubscribeEvent
+	public static void onWorldTick(TickEvent.WorldTickEvent event) {
+		if (event.world.isRemote)
+			return;
+		if (event.phase == TickEvent.Phase.START)
+			EnergyNetworkManager.startTick(event.world);
+		else
+			EnergyNetworkManager.tick(event.world);
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(TickEvent.ServerTickEvent event) {
+		if (event.phase == TickEvent.Phase.END) {
+			MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+			SubscriptionManager.tick(server);
+			TileInterestManager.tick(server);
+			SnapshotManager.tick(server);
+			PacketHandler.flush();
+			ResponseCache.clear();
+		}
+	}
+
+	@SubscribeEvent
+	public static void onPlayerLoggedOut(PlayerLoggedOutEvent event) {
+		SubscriptionManager.removePlayer(event.player);
+		InventoryDelta.removePlayer(event.player);
+		TileInterestManager.removePlayer(event.player);
+		PacketHandler.removePlayer(event.player);
+	}
+
+	@SubscribeEvent
+	public static void onPlayerChangedDimension(PlayerChangedDimensionEvent event) {
+		SubscriptionManager.removePlayer(event.player);
+		TileInterestManager.removePlayer(event.player);
+	}
+
+	@SubscribeEvent
+	public static void onContainerOpen(PlayerContainerEvent.Open event) {
+		if (!(event.getContainer() instanceof ITileContainer) || !(event.getEntityPlayer() instanceof EntityPlayerMP))
+			return;
+		TileEntityBase te = ((ITileContainer) event.getContainer()).getTileEntity();
+		if (te != null)
+			TileInterestManager.addViewer((EntityPlayerMP) event.getEntityPlayer(), te);
+	}
+
+	@SubscribeEvent
+	public static void onContainerClose(PlayerContainerEvent.Close event) {
+		if (!(event.getContainer() instanceof ITileContainer) || event.getEntityPlayer().world.isRemote)
+			return;
+		TileEntityBase te = ((ITileContainer) event.getContainer()).getTileEntity();
+		if (te != null)
+			TileInterestManager.removeViewer(event.getEntityPlayer(), te);
+	}
+
+	@SubscribeEvent
+	@SideOnly(Side.CLIENT)
+	public static void onClientDisconnect(ClientDisconnectionFromServerEvent event) {
+		Minecraft.getMinecraft().addScheduledTask(InventoryDelta::clearClient);
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(WorldEvent.Unload event) {
+		if (!event.getWorld().isRemote)
+			EnergyNetworkManager.unload(event.getWorld());
+	}
+
 }
@@ -0,0 +1,245 @@
+package cjminecraft.core.inventory;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.items.IItemHandler;
+
+/**
+ * Keeps the redstone current a comparator should show for an
+ * {@link IItemHandler} up to date as its slots change, so reading it does not
+ * look at every slot. The items in each side are added up for each slot limit,
+ * so the fullness is worked out exactly over a common denominator and matches
+ * {@link InventoryUtils#calculateRedstone}. Comparators are only updated when
+ * the current of a side changes. The owner must call
+ * {@link #onSlotChanged(int)} whenever a slot changes and {@link #rebuild()}
+ * when the inventory is loaded
+ *
+ * @author CJMinecraft
+ *
+ */
+public class ComparatorTracker {
+
+	private static final int NO_SIDE = 6;
+
+	private final TileEntity te;
+	private final IItemHandler handler;
+	private final int[][] groups;
+	private final int[] groupOfSide = new int[7];
+	private int[] groupsOfSlot;
+	private int[] slotCount;
+	private int[] slotLimit;
+	private final Int2LongMap[] groupCounts;
+	private final int[] groupFilled;
+	private final int[] outputs;
+
+	/**
+	 * Track an inventory which is the same from every side
+	 *
+	 * @param te
+	 *            The {@link TileEntity} owning the inventory
+	 * @param handler
+	 *            The inventory
+	 */
+	public ComparatorTracker(@Nonnull TileEntity te, @Nonnull IItemHandler handler) {
+		this(te, handler, null);
+	}
+
+	/**
+	 * Track an inventory where each side can see different slots
+	 *
+	 * @param te
+	 *            The {@link TileEntity} owning the inventory
+	 * @param handler
+	 *            The whole inventory, as seen with no side
+	 * @param slotsForFace
+	 *            The slots of the inventory each side sees, in the order of
+	 *            {@link EnumFacing#getIndex()}, or null if every side sees
+	 *            every slot
+	 */
+	public ComparatorTracker(@Nonnull TileEntity te, @Nonnull IItemHandler handler, @Nullable int[][] slotsForFace) {
+		this.te = te;
+		this.handler = handler;
+		if (slotsForFace == null) {
+			this.groups = new int[][] { null };
+		} else {
+			this.groups = Arrays.copyOf(slotsForFace, NO_SIDE + 1);
+			for (int side = 0; side < NO_SIDE; side++)
+				this.groupOfSide[side] = side;
+			this.groupOfSide[NO_SIDE] = NO_SIDE;
+		}
+		this.groupCounts = new Int2LongMap[this.groups.length];
+		for (int group = 0; group < this.groups.length; group++)
+			this.groupCounts[group] = new Int2LongOpenHashMap();
+		this.groupFilled = new int[this.groups.length];
+		this.outputs = new int[this.groups.length];
+		rebuild();
+	}
+
+	/**
+	 * Work out the fullness of every slot again. Call when the inventory is
+	 * loaded or changes size
+	 */
+	public void rebuild() {
+		int slots = this.handler.getSlots();
+		this.slotCount = new int[slots];
+		this.slotLimit = new int[slots];
+		this.groupsOfSlot = new int[slots];
+		for (int group = 0; group < this.groups.length; group++) {
+			if (this.groups[group] == null) {
+				for (int slot = 0; slot < slots; slot++)
+					this.groupsOfSlot[slot] |= 1 << group;
+			} else {
+				for (int slot : this.groups[group])
+					if (slot < slots)
+						this.groupsOfSlot[slot] |= 1 << group;
+			}
+		}
+		for (Int2LongMap counts : this.groupCounts)
+			counts.clear();
+		Arrays.fill(this.groupFilled, 0);
+		for (int slot = 0; slot < slots; slot++) {
+			readSlot(slot);
+			if (this.slotCount[slot] == 0)
+				continue;
+			for (int group = 0; group < this.groups.length; group++) {
+				if ((this.groupsOfSlot[slot] & 1 << group) != 0) {
+					addCount(group, this.slotLimit[slot], this.slotCount[slot]);
+					this.groupFilled[group]++;
+				}
+			}
+		}
+		for (int group = 0; group < this.groups.length; group++)
+			this.outputs[group] = calculateOutput(group);
+	}
+
+	/**
+	 * Update the fullness of the slot and tell comparators if their current
+	 * has changed
+	 *
+	 * @param slot
+	 *            The slot which changed
+	 */
+	public void onSlotChanged(int slot) {
+		if (slot < 0 || slot >= this.slotCount.length || this.slotCount.length != this.handler.getSlots()) {
+			rebuild();
+			updateComparators();
+			return;
+		}
+		int previousCount = this.slotCount[slot];
+		int previousLimit = this.slotLimit[slot];
+		readSlot(slot);
+		int count = this.slotCount[slot];
+		int limit = this.slotLimit[slot];
+		if (count == previousCount && (count == 0 || limit == previousLimit))
+			return;
+		boolean changed = false;
+		for (int group = 0; group < this.groups.length; group++) {
+			if ((this.groupsOfSlot[slot] & 1 << group) == 0)
+				continue;
+			if (previousCount > 0)
+				addCount(group, previousLimit, -previousCount);
+			if (count > 0)
+				addCount(group, limit, count);
+			if (previousCount == 0)
+				this.groupFilled[group]++;
+			else if (count == 0)
+				this.groupFilled[group]--;
+			int output = calculateOutput(group);
+			if (output != this.outputs[group]) {
+				this.outputs[group] = output;
+				changed = true;
+			}
+		}
+		if (changed)
+			updateComparators();
+	}
+
+	/**
+	 * Get the redstone current a comparator should show
+	 *
+	 * @param side
+	 *            The side of the inventory
+	 * @return The redstone current from 0 to 15
+	 */
+	public int getComparatorOutput(@Nullable EnumFacing side) {
+		return this.outputs[this.groupOfSide[side == null ? NO_SIDE : side.getIndex()]];
+	}
+
+	/**
+	 * Read how many items are in the slot and how many it can hold
+	 */
+	private void readSlot(int slot) {
+		ItemStack stack = this.handler.getStackInSlot(slot);
+		int limit = stack.isEmpty() ? 0 : Math.min(this.handler.getSlotLimit(slot), stack.getMaxStackSize());
+		this.slotCount[slot] = limit <= 0 ? 0 : stack.getCount();
+		this.slotLimit[slot] = limit;
+	}
+
+	private void addCount(int group, int limit, long count) {
+		Int2LongMap counts = this.groupCounts[group];
+		long total = counts.get(limit) + count;
+		if (total == 0)
+			counts.remove(limit);
+		else
+			counts.put(limit, total);
+	}
+
+	/**
+	 * Works out <code>floor(14 * fullness / size) + 1</code> where the
+	 * fullness is the sum of each slot's count over its limit, using the
+	 * lowest common multiple of the limits so nothing is rounded
+	 */
+	private int calculateOutput(int group) {
+		int size = this.groups[group] == null ? this.slotCount.length : this.groups[group].length;
+		if (size == 0 || this.groupFilled[group] == 0)
+			return 0;
+		Int2LongMap counts = this.groupCounts[group];
+		try {
+			long denominator = 1;
+			for (int limit : counts.keySet())
+				denominator = Math.multiplyExact(denominator / gcd(denominator, limit), limit);
+			long numerator = 0;
+			for (Int2LongMap.Entry entry : counts.int2LongEntrySet())
+				numerator = Math.addExact(numerator,
+						Math.multiplyExact(entry.getLongValue(), denominator / entry.getIntKey()));
+			return (int) Math.min(Math.multiplyExact(numerator, 14L) / Math.multiplyExact(denominator, (long) size)
+					+ 1, 15);
+		} catch (ArithmeticException e) {
+			BigInteger denominator = BigInteger.ONE;
+			for (int limit : counts.keySet()) {
+				BigInteger value = BigInteger.valueOf(limit);
+				denominator = denominator.divide(denominator.gcd(value)).multiply(value);
+			}
+			BigInteger numerator = BigInteger.ZERO;
+			for (Int2LongMap.Entry entry : counts.int2LongEntrySet())
+				numerator = numerator.add(BigInteger.valueOf(entry.getLongValue())
+						.multiply(denominator.divide(BigInteger.valueOf(entry.getIntKey()))));
+			return numerator.multiply(BigInteger.valueOf(14)).divide(denominator.multiply(BigInteger.valueOf(size)))
+					.min(BigInteger.valueOf(14)).intValue() + 1;
+		}
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	private void updateComparators() {
+		if (this.te.getWorld() != null && !this.te.getWorld().isRemote)
+			this.te.getWorld().updateComparatorOutputLevel(this.te.getPos(), this.te.getBlockType());
+	}
+
+}
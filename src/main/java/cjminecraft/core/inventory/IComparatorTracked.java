@@ -0,0 +1,20 @@
+package cjminecraft.core.inventory;
+
+import net.minecraft.tileentity.TileEntity;
+
+/**
+ * A {@link TileEntity} which keeps its comparator output up to date with a
+ * {@link ComparatorTracker}. {@link InventoryUtils#calculateRedstone} reads
+ * the tracker instead of looking at every slot
+ *
+ * @author CJMinecraft
+ *
+ */
+public interface IComparatorTracked {
+
+	/**
+	 * @return The tracker of the {@link TileEntity}'s inventory
+	 */
+	ComparatorTracker getComparatorTracker();
+
+}
@@ -0,0 +1,61 @@
+package cjminecraft.core.inventory;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+/**
+ * An {@link IItemHandler} which knows which slots hold each item and which
+ * slots are empty, so items can be put in or taken out without looking at
+ * every slot. Used by {@link InventoryUtils} whenever the handler says it is
+ * indexed
+ *
+ * @author CJMinecraft
+ *
+ */
+public interface IIndexedItemHandler extends IItemHandler {
+
+	/**
+	 * @return Whether the index is being kept. If not, the indexed methods
+	 *         should not be used
+	 */
+	boolean isIndexed();
+
+	/**
+	 * Put the {@link ItemStack} into the slots already holding the same item
+	 * and then into empty slots
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} to insert. Is not changed
+	 * @param fromSlot
+	 *            The first slot to try and put the item in
+	 * @param toSlot
+	 *            The last slot to try and put the item in
+	 * @param simulate
+	 *            Whether it is a simulation, if it is, no items will actually
+	 *            be inserted
+	 * @return The items which were not inserted or {@link ItemStack#EMPTY}
+	 */
+	@Nonnull
+	ItemStack insertItemIndexed(@Nonnull ItemStack stack, int fromSlot, int toSlot, boolean simulate);
+
+	/**
+	 * Take the {@link ItemStack} out of the slots holding the same item
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} to extract, the count being the most
+	 *            to take. Is not changed
+	 * @param fromSlot
+	 *            The slot to start looking to take from
+	 * @param toSlot
+	 *            The slot to stop looking to take from
+	 * @param simulate
+	 *            Whether it is a simulation, if it is, no items will actually
+	 *            be taken
+	 * @return The items which were extracted or {@link ItemStack#EMPTY}
+	 */
+	@Nonnull
+	ItemStack extractItemIndexed(@Nonnull ItemStack stack, int fromSlot, int toSlot, boolean simulate);
+
+}
@@ -3,6 +3,8 @@ package cjminecraft.core.inventory;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -11,8 +13,16 @@ import com.google.common.collect.ImmutableList;
 
 import cjminecraft.core.CJCore;
 import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
 import cjminecraft.core.network.inventory.PacketGetInventory;
-import net.minecraft.entity.item.EntityItem;
+import cjminecraft.core.network.sync.SubscriptionManager;
+import cjminecraft.core.network.sync.SyncCache;
+import cjminecraft.core.network.sync.SyncKey;
+import cjminecraft.core.network.sync.SyncType;
+import cjminecraft.core.util.NeighbourCache;
+import cjminecraft.core.util.TileEntityBase;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.inventory.ISidedInventory;
@@ -21,12 +31,14 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.wrapper.InvWrapper;
+import net.minecraftforge.items.wrapper.SidedInvWrapper;
 import net.minecraftforge.oredict.OreDictionary;
 
 /**
@@ -38,7 +50,7 @@ import net.minecraftforge.oredict.OreDictionary;
 public class InventoryUtils {
 
 	private static final Object T = null;
-	private static HashMap<String, HashMap<String, ImmutableList<ItemStack>>> cachedInventoryData = new HashMap<String, HashMap<String, ImmutableList<ItemStack>>>();
+	private static final SyncCache<ImmutableList<ItemStack>> cachedInventoryData = new SyncCache<ImmutableList<ItemStack>>();
 
 	/**
 	 * Returns how big the given {@link TileEntity}'s inventory is
@@ -378,7 +390,9 @@ public class InventoryUtils {
 
 	/**
 	 * Calculate the redstone current that a comparator should show based on how
-	 * full the given {@link TileEntity}'s inventory is
+	 * full the given {@link TileEntity}'s inventory is. If the
+	 * {@link TileEntity} is {@link IComparatorTracked} the tracked current is
+	 * used instead of looking at every slot
 	 * 
 	 * @param te
 	 *            The {@link TileEntity} to check
@@ -390,6 +404,8 @@ public class InventoryUtils {
 	public static int calculateRedstone(@Nullable TileEntity te, @Nullable EnumFacing side) {
 		if (te == null)
 			return 0;
+		if (te instanceof IComparatorTracked)
+			return ((IComparatorTracked) te).getComparatorTracker().getComparatorOutput(side);
 		int toSlot = 0;
 		if (te instanceof ISidedInventory) {
 			int[] slots = ((ISidedInventory) te).getSlotsForFace(side);
@@ -494,11 +510,14 @@ public class InventoryUtils {
 			IItemHandler inv = te.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side);
 			if (inv.getSlots() - 1 < toSlot || fromSlot > toSlot || inv.getSlots() - 1 < fromSlot)
 				return stack;
-			for (int slot = fromSlot; slot <= toSlot; slot++) {
-				if (remainder.isEmpty())
-					return ItemStack.EMPTY;
-				remainder = inv.insertItem(slot, remainder, simulate);
-			}
+			if (inv instanceof IIndexedItemHandler && ((IIndexedItemHandler) inv).isIndexed())
+				remainder = ((IIndexedItemHandler) inv).insertItemIndexed(remainder, fromSlot, toSlot, simulate);
+			else
+				for (int slot = fromSlot; slot <= toSlot; slot++) {
+					if (remainder.isEmpty())
+						return ItemStack.EMPTY;
+					remainder = inv.insertItem(slot, remainder, simulate);
+				}
 			return remainder.isEmpty() ? ItemStack.EMPTY : remainder;
 		}
 		return remainder.isEmpty() ? ItemStack.EMPTY : remainder;
@@ -692,6 +711,11 @@ public class InventoryUtils {
 			IItemHandler inv = te.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side);
 			if (inv.getSlots() - 1 < toSlot || fromSlot > toSlot || inv.getSlots() - 1 < fromSlot)
 				return ItemStack.EMPTY;
+			if (inv instanceof IIndexedItemHandler && ((IIndexedItemHandler) inv).isIndexed()) {
+				extracted = ((IIndexedItemHandler) inv).extractItemIndexed(stack, fromSlot, toSlot, simulate);
+				stack.shrink(extracted.getCount());
+				return extracted;
+			}
 			for (int slot = fromSlot; slot <= toSlot; slot++) {
 				ItemStack inSlot = inv.getStackInSlot(slot);
 				if (isStackEqual(stack, inSlot, false, false)) {
@@ -935,6 +959,323 @@ public class InventoryUtils {
 				getLastSlotIndex(inventory, side), simulate, side);
 	}
 
+	/**
+	 * Moves items from one inventory to another. The whole move is planned by
+	 * looking at each inventory once and asking the destination whether it
+	 * would accept each part, then carried out. Anything the destination does
+	 * not take when the move is carried out is given back to the source. If
+	 * the source will not take it back either it is given to the caller
+	 * through {@link TransferResult#getLeftovers()}, so no items are lost
+	 *
+	 * @param source
+	 *            The {@link TileEntity} to take the items from
+	 * @param sourceSide
+	 *            The side of the source inventory. For use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param dest
+	 *            The {@link TileEntity} to put the items into
+	 * @param destSide
+	 *            The side of the destination inventory. For use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param filter
+	 *            Which items may be moved or null for every item
+	 * @param maxItems
+	 *            The most items to move
+	 * @param maxStacks
+	 *            The most slots of the source to take items from
+	 * @return What was moved
+	 */
+	public static TransferResult transfer(@Nullable TileEntity source, @Nullable EnumFacing sourceSide,
+			@Nullable TileEntity dest, @Nullable EnumFacing destSide, @Nullable Predicate<ItemStack> filter,
+			int maxItems, int maxStacks) {
+		IItemHandler from = getItemHandler(source, sourceSide);
+		IItemHandler to = getItemHandler(dest, destSide);
+		if (from == null || to == null || from == to || maxItems <= 0 || maxStacks <= 0)
+			return TransferResult.NONE;
+
+		// Find the room in the destination
+		int[] room = new int[to.getSlots()];
+		Map<ItemKey, IntList> partial = new HashMap<ItemKey, IntList>();
+		IntList empty = new IntArrayList();
+		for (int slot = 0; slot < room.length; slot++) {
+			ItemStack stack = to.getStackInSlot(slot);
+			if (stack.isEmpty()) {
+				empty.add(slot);
+				continue;
+			}
+			room[slot] = Math.min(to.getSlotLimit(slot), stack.getMaxStackSize()) - stack.getCount();
+			if (room[slot] > 0)
+				getSlotList(partial, ItemKey.of(stack)).add(slot);
+		}
+
+		// Plan where each source stack goes as source slot, destination slot
+		// and count
+		IntList moves = new IntArrayList();
+		int items = 0;
+		int stacks = 0;
+		for (int slot = 0; slot < from.getSlots() && items < maxItems && stacks < maxStacks; slot++) {
+			ItemStack stack = from.getStackInSlot(slot);
+			if (stack.isEmpty() || (filter != null && !filter.test(stack)))
+				continue;
+			int available = from.extractItem(slot, Math.min(stack.getCount(), maxItems - items), true).getCount();
+			if (available <= 0)
+				continue;
+			ItemKey key = ItemKey.of(stack);
+			int planned = 0;
+			IntList slots = partial.get(key);
+			if (slots != null) {
+				for (int i = 0; i < slots.size() && planned < available; i++) {
+					int destSlot = slots.getInt(i);
+					int count = getAccepted(to, destSlot, stack,
+							Math.min(room[destSlot], available - planned));
+					if (count <= 0)
+						continue;
+					moves.add(slot);
+					moves.add(destSlot);
+					moves.add(count);
+					room[destSlot] -= count;
+					planned += count;
+				}
+			}
+			for (int i = 0; i < empty.size() && planned < available;) {
+				int destSlot = empty.getInt(i);
+				int space = Math.min(to.getSlotLimit(destSlot), stack.getMaxStackSize());
+				int count = getAccepted(to, destSlot, stack, Math.min(space, available - planned));
+				if (count <= 0) {
+					i++;
+					continue;
+				}
+				empty.removeInt(i);
+				moves.add(slot);
+				moves.add(destSlot);
+				moves.add(count);
+				room[destSlot] = space - count;
+				if (room[destSlot] > 0)
+					getSlotList(partial, key).add(destSlot);
+				planned += count;
+			}
+			if (planned > 0) {
+				items += planned;
+				stacks++;
+			}
+		}
+		if (moves.isEmpty())
+			return TransferResult.NONE;
+
+		// Carry out the plan, giving back anything the destination refuses
+		int moved = 0;
+		int returned = 0;
+		List<ItemStack> leftovers = new ArrayList<ItemStack>();
+		stacks = 0;
+		for (int index = 0; index < moves.size();) {
+			int sourceSlot = moves.getInt(index);
+			int end = index;
+			int total = 0;
+			while (end < moves.size() && moves.getInt(end) == sourceSlot) {
+				total += moves.getInt(end + 2);
+				end += 3;
+			}
+			ItemStack extracted = from.extractItem(sourceSlot, total, false);
+			if (!extracted.isEmpty()) {
+				stacks++;
+				int taken = extracted.getCount();
+				ItemStack leftover = ItemStack.EMPTY;
+				for (int i = index; i < end && !extracted.isEmpty(); i += 3) {
+					ItemStack remainder = to.insertItem(moves.getInt(i + 1),
+							extracted.splitStack(Math.min(moves.getInt(i + 2), extracted.getCount())), false);
+					leftover = mergeLeftover(leftover, remainder);
+				}
+				leftover = mergeLeftover(leftover, extracted);
+				if (!leftover.isEmpty())
+					leftover = ItemHandlerHelper.insertItemStacked(to, leftover, false);
+				moved += taken - leftover.getCount();
+				if (!leftover.isEmpty()) {
+					returned += leftover.getCount();
+					leftover = from.insertItem(sourceSlot, leftover, false);
+					if (!leftover.isEmpty())
+						leftover = ItemHandlerHelper.insertItemStacked(from, leftover, false);
+					if (!leftover.isEmpty())
+						leftovers.add(leftover);
+				}
+			}
+			index = end;
+		}
+		return new TransferResult(moved, stacks, returned, leftovers);
+	}
+
+	/**
+	 * Moves every item it can from one inventory to another. See
+	 * {@link #transfer(TileEntity, EnumFacing, TileEntity, EnumFacing, Predicate, int, int)}
+	 *
+	 * @param source
+	 *            The {@link TileEntity} to take the items from
+	 * @param sourceSide
+	 *            The side of the source inventory. For use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param dest
+	 *            The {@link TileEntity} to put the items into
+	 * @param destSide
+	 *            The side of the destination inventory. For use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param filter
+	 *            Which items may be moved or null for every item
+	 * @return What was moved
+	 */
+	public static TransferResult transfer(@Nullable TileEntity source, @Nullable EnumFacing sourceSide,
+			@Nullable TileEntity dest, @Nullable EnumFacing destSide, @Nullable Predicate<ItemStack> filter) {
+		return transfer(source, sourceSide, dest, destSide, filter, Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Asks the inventory how many of the items it would accept in the slot
+	 * 
+	 * @param inventory
+	 *            The inventory
+	 * @param slot
+	 *            The slot
+	 * @param stack
+	 *            The items to put in the slot
+	 * @param count
+	 *            How many of the items to put in the slot
+	 * @return How many of the items would be accepted
+	 */
+	private static int getAccepted(IItemHandler inventory, int slot, ItemStack stack, int count) {
+		if (count <= 0)
+			return 0;
+		return count
+				- inventory.insertItem(slot, ItemHandlerHelper.copyStackWithSize(stack, count), true).getCount();
+	}
+
+	private static IntList getSlotList(Map<ItemKey, IntList> slots, ItemKey key) {
+		IntList list = slots.get(key);
+		if (list == null) {
+			list = new IntArrayList();
+			slots.put(key, list);
+		}
+		return list;
+	}
+
+	private static ItemStack mergeLeftover(ItemStack leftover, ItemStack stack) {
+		if (stack.isEmpty())
+			return leftover;
+		if (leftover.isEmpty())
+			return stack;
+		leftover.grow(stack.getCount());
+		return leftover;
+	}
+
+	/**
+	 * Get the {@link IItemHandler} of the {@link TileEntity}, wrapping
+	 * {@link IInventory}s which do not have the {@link Capability}
+	 */
+	@Nullable
+	private static IItemHandler getItemHandler(@Nullable TileEntity te, @Nullable EnumFacing side) {
+		if (te == null)
+			return null;
+		if (te.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side))
+			return te.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side);
+		if (te instanceof ISidedInventory && side != null)
+			return new SidedInvWrapper((ISidedInventory) te, side);
+		if (te instanceof IInventory)
+			return new InvWrapper((IInventory) te);
+		return null;
+	}
+
+	/**
+	 * Inserts the given {@link ItemStack} into the inventories surrounding the
+	 * given {@link TileEntity}. If the {@link TileEntity} is a
+	 * {@link TileEntityBase} its {@link NeighbourCache} is used so no world
+	 * lookups are needed
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param stack
+	 *            The {@link ItemStack} to insert
+	 * @param simulate
+	 *            Whether it is a simulation, if it is, no items will actually
+	 *            be inserted.
+	 * @return The items which were not inserted. If all the items were inserted
+	 *         (or would have been if a simulation) it will return
+	 *         {@link ItemStack#EMPTY}
+	 */
+	public static ItemStack insertStackAllFaces(@Nonnull TileEntity te, ItemStack stack, boolean simulate) {
+		NeighbourCache neighbours = te instanceof TileEntityBase ? ((TileEntityBase) te).getNeighbourCache() : null;
+		ItemStack remainder = stack;
+		for (EnumFacing side : EnumFacing.VALUES) {
+			if (remainder.isEmpty())
+				break;
+			IItemHandler inv = neighbours != null ? neighbours.getItemHandler(side) : getNeighbourInventory(te, side);
+			if (inv == null)
+				continue;
+			for (int slot = 0; slot < inv.getSlots() && !remainder.isEmpty(); slot++)
+				remainder = inv.insertItem(slot, remainder, simulate);
+		}
+		return remainder.isEmpty() ? ItemStack.EMPTY : remainder;
+	}
+
+	/**
+	 * Extracts the given {@link ItemStack} from the inventories surrounding the
+	 * given {@link TileEntity}. If the {@link TileEntity} is a
+	 * {@link TileEntityBase} its {@link NeighbourCache} is used so no world
+	 * lookups are needed
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param stack
+	 *            The {@link ItemStack} to extract
+	 * @param simulate
+	 *            Whether it is a simulation, if it is, no items will actually
+	 *            be taken
+	 * @return The items which were extracted. If no items were extracted (or
+	 *         supposedly extracted if a simulation) it will return
+	 *         {@link ItemStack#EMPTY}
+	 */
+	public static ItemStack extractStackAllFaces(@Nonnull TileEntity te, ItemStack stack, boolean simulate) {
+		NeighbourCache neighbours = te instanceof TileEntityBase ? ((TileEntityBase) te).getNeighbourCache() : null;
+		ItemStack extracted = ItemStack.EMPTY;
+		int remaining = stack.getCount();
+		for (EnumFacing side : EnumFacing.VALUES) {
+			if (remaining <= 0)
+				break;
+			IItemHandler inv = neighbours != null ? neighbours.getItemHandler(side) : getNeighbourInventory(te, side);
+			if (inv == null)
+				continue;
+			for (int slot = 0; slot < inv.getSlots() && remaining > 0; slot++) {
+				if (!isStackEqual(stack, inv.getStackInSlot(slot), false, false))
+					continue;
+				ItemStack taken = inv.extractItem(slot, remaining, simulate);
+				if (taken.isEmpty())
+					continue;
+				if (extracted.isEmpty())
+					extracted = taken.copy();
+				else
+					extracted.grow(taken.getCount());
+				remaining -= taken.getCount();
+			}
+		}
+		return extracted;
+	}
+
+	/**
+	 * Get the {@link IItemHandler} next to the given face without using a
+	 * {@link NeighbourCache}
+	 * 
+	 * @param te
+	 *            The {@link TileEntity} in the center
+	 * @param side
+	 *            The face of the {@link TileEntity} in the center
+	 * @return The {@link IItemHandler} of the face touching the center. Can be
+	 *         <code>null</code>
+	 */
+	@Nullable
+	private static IItemHandler getNeighbourInventory(TileEntity te, EnumFacing side) {
+		TileEntity neighbour = te.getWorld().getTileEntity(te.getPos().offset(side));
+		if (neighbour == null
+				|| !neighbour.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite()))
+			return null;
+		return neighbour.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite());
+	}
+
 	/**
 	 * Returns true if the inventory is full
 	 * 
@@ -1159,6 +1500,60 @@ public class InventoryUtils {
 		return getInventory(te, getFirstSlotIndex(te, side), getLastSlotIndex(te, side), side);
 	}
 
+	/**
+	 * Gets every slot in the {@link TileEntity}'s inventory in an
+	 * {@link ImmutableList}. Unlike
+	 * {@link #getInventory(TileEntity, int, int, EnumFacing)} empty slots are
+	 * kept so each stack stays at the same index
+	 *
+	 * @param te
+	 *            The {@link TileEntity} which has an inventory
+	 * @param fromSlot
+	 *            The first slot to start getting items from
+	 * @param toSlot
+	 *            The last slot to get the items from
+	 * @param side
+	 *            The side of the {@link TileEntity} the inventory is. For use
+	 *            with {@link ISidedInventory} and {@link Capability}
+	 * @return Every slot in the {@link TileEntity}'s inventory
+	 */
+	public static ImmutableList<ItemStack> getInventorySlots(@Nullable TileEntity te, int fromSlot, int toSlot,
+			@Nullable EnumFacing side) {
+		if (te == null)
+			return ImmutableList.<ItemStack>of();
+		List<ItemStack> inventory = new ArrayList<ItemStack>();
+		if (te instanceof ISidedInventory) {
+			ISidedInventory inv = (ISidedInventory) te;
+			for (int slot : inv.getSlotsForFace(side))
+				if (slot <= toSlot && slot >= fromSlot)
+					inventory.add(inv.getStackInSlot(slot));
+		} else if (te instanceof IInventory) {
+			IInventory inv = (IInventory) te;
+			for (int slot = Math.max(0, fromSlot); slot <= toSlot && slot < inv.getSizeInventory(); slot++)
+				inventory.add(inv.getStackInSlot(slot));
+		} else if (te.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side)) {
+			IItemHandler inv = te.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side);
+			for (int slot = Math.max(0, fromSlot); slot <= toSlot && slot < inv.getSlots(); slot++)
+				inventory.add(inv.getStackInSlot(slot));
+		}
+		return ImmutableList.<ItemStack>copyOf(inventory);
+	}
+
+	/**
+	 * Gets every slot in the {@link TileEntity}'s inventory in an
+	 * {@link ImmutableList}, keeping empty slots
+	 *
+	 * @param te
+	 *            The {@link TileEntity} which has an inventory
+	 * @param side
+	 *            The side of the {@link TileEntity} the inventory is. For use
+	 *            with {@link ISidedInventory} and {@link Capability}
+	 * @return Every slot in the {@link TileEntity}'s inventory
+	 */
+	public static ImmutableList<ItemStack> getInventorySlots(@Nullable TileEntity te, @Nullable EnumFacing side) {
+		return getInventorySlots(te, getFirstSlotIndex(te, side), getLastSlotIndex(te, side), side);
+	}
+
 	/**
 	 * Gets all of the items in the {@link ItemStack}'s inventory in an
 	 * {@link ImmutableList}
@@ -1194,7 +1589,7 @@ public class InventoryUtils {
 			@Nullable EnumFacing side) {
 		if (te == null)
 			return ImmutableList.<ItemStack>of();
-		return ImmutableList.<ItemStack>copyOf(new ItemStackSet(getInventory(te, fromSlot, toSlot, side)).getStacks());
+		return new ItemMultiset(getInventory(te, fromSlot, toSlot, side)).getStacks();
 	}
 
 	/**
@@ -1233,8 +1628,7 @@ public class InventoryUtils {
 			@Nullable EnumFacing side) {
 		if (inventory == null || inventory.isEmpty())
 			return ImmutableList.<ItemStack>of();
-		return ImmutableList
-				.<ItemStack>copyOf(new ItemStackSet(getInventory(inventory, fromSlot, toSlot, side)).getStacks());
+		return new ItemMultiset(getInventory(inventory, fromSlot, toSlot, side)).getStacks();
 	}
 
 	/**
@@ -1610,14 +2004,13 @@ public class InventoryUtils {
 	 *            The inventory to sync
 	 */
 	public static void addCachedInventoryData(String modid, String className, ImmutableList<ItemStack> inventory) {
-		if (!cachedInventoryData.containsKey(modid))
-			cachedInventoryData.put(modid, new HashMap<String, ImmutableList<ItemStack>>());
-		if (!cachedInventoryData.get(modid).containsKey(className))
-			cachedInventoryData.get(modid).put(className, inventory);
+		cachedInventoryData.put(modid, className, inventory);
 	}
 
 	/**
-	 * Retrieves the latest data from the given class
+	 * Retrieves the latest data from the given class. The data stays cached
+	 * until newer data arrives, so use {@link #getInventoryDataCache()} to check
+	 * how old it is
 	 * 
 	 * @param modid
 	 *            The modid to get mod specific data
@@ -1627,13 +2020,7 @@ public class InventoryUtils {
 	 */
 	@Nullable
 	public static ImmutableList<ItemStack> getCachedInventoryData(String modid, String className) {
-		if (!cachedInventoryData.containsKey(modid))
-			return null;
-		if (!cachedInventoryData.get(modid).containsKey(className))
-			return null;
-		ImmutableList<ItemStack> inventory = cachedInventoryData.get(modid).get(className);
-		cachedInventoryData.get(modid).remove(className);
-		return inventory;
+		return cachedInventoryData.get(modid, className);
 	}
 
 	/**
@@ -1643,9 +2030,22 @@ public class InventoryUtils {
 	 *            The modid to get mod specific data
 	 * @return The latest data from the calling class
 	 */
+	@Deprecated
 	@Nullable
 	public static ImmutableList<ItemStack> getCachedInventoryData(String modid) {
-		return InventoryUtils.getCachedInventoryData(modid, new Exception().getStackTrace()[1].getClassName());
+		return getCachedInventoryData(SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Retrieves the latest data cached under the given key
+	 * 
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 * @return The latest data cached under the key
+	 */
+	@Nullable
+	public static ImmutableList<ItemStack> getCachedInventoryData(SyncKey key) {
+		return InventoryUtils.getCachedInventoryData(key.getModid(), key.getClassName());
 	}
 
 	/**
@@ -1742,6 +2142,45 @@ public class InventoryUtils {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, true, false, modid, className));
 	}
 
+	/**
+	 * Sync an inventory into a target registered with the
+	 * {@link SyncTargetRegistry}. The target will be given the inventory as an
+	 * {@link ImmutableList}
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity} with the inventory
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param stacked
+	 *            Whether the inventory should be "stacked" - see
+	 *            {@link #getInventoryStacked(TileEntity, EnumFacing)}
+	 * @param inventoryTarget
+	 *            The id of the target which will be given the inventory
+	 */
+	public static void syncInventory(BlockPos pos, @Nullable EnumFacing side, boolean stacked, int inventoryTarget) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, stacked, inventoryTarget));
+	}
+
+	/**
+	 * Subscribe to the inventory of the {@link TileEntity} at the given
+	 * {@link BlockPos}. The server will push the inventory to the target
+	 * registered with the {@link SyncTargetRegistry} whenever it changes,
+	 * until {@link SubscriptionManager#unsubscribe(int)} is called with the
+	 * target
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity} with the inventory
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param inventoryTarget
+	 *            The id of the target which will be given the inventory
+	 */
+	public static void subscribeInventory(BlockPos pos, @Nullable EnumFacing side, int inventoryTarget) {
+		SubscriptionManager.subscribe(SyncType.INVENTORY, pos, side, 0, inventoryTarget);
+	}
+
 	/**
 	 * Sync an inventory with the server. To get the inventory use
 	 * {@link #getCachedInventoryData(String)} or
@@ -1761,9 +2200,31 @@ public class InventoryUtils {
 	 * @param modid
 	 *            The modid for mod specific data
 	 */
+	@Deprecated
 	public static void syncInventory(BlockPos pos, @Nullable EnumFacing side, int fromSlot, int toSlot, String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, false, fromSlot, toSlot, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncInventory(pos, side, fromSlot, toSlot, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync an inventory with the server. To get the inventory use
+	 * {@link #getCachedInventoryData(SyncKey)}. This will store the data under
+	 * the given key
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity} with the inventory
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param fromSlot
+	 *            The first slot to get the inventory from
+	 * @param toSlot
+	 *            The last slot to get the inventory from
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncInventory(BlockPos pos, @Nullable EnumFacing side, int fromSlot, int toSlot, SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, false, fromSlot, toSlot, false,
+				key.getModid(), key.getClassName()));
 	}
 
 	/**
@@ -1786,10 +2247,34 @@ public class InventoryUtils {
 	 * @param modid
 	 *            The modid for mod specific data
 	 */
+	@Deprecated
 	public static void syncInventoryStacked(BlockPos pos, @Nullable EnumFacing side, int fromSlot, int toSlot,
 			String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, true, fromSlot, toSlot, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncInventoryStacked(pos, side, fromSlot, toSlot, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync an inventory with the server. To get the inventory use
+	 * {@link #getCachedInventoryData(SyncKey)}. The inventory will be "stacked"
+	 * - see {@link #getInventoryStacked(TileEntity, int, int, EnumFacing)}.
+	 * This will store the data under the given key
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity} with the inventory
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param fromSlot
+	 *            The first slot to get the inventory from
+	 * @param toSlot
+	 *            The last slot to get the inventory from
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncInventoryStacked(BlockPos pos, @Nullable EnumFacing side, int fromSlot, int toSlot,
+			SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, true, fromSlot, toSlot, false,
+				key.getModid(), key.getClassName()));
 	}
 
 	/**
@@ -1807,9 +2292,27 @@ public class InventoryUtils {
 	 * @param modid
 	 *            The modid for mod specific data
 	 */
+	@Deprecated
 	public static void syncInventory(BlockPos pos, @Nullable EnumFacing side, String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, false, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncInventory(pos, side, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync an inventory with the server. To get the inventory use
+	 * {@link #getCachedInventoryData(SyncKey)}. This will store the data under
+	 * the given key
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity} with the inventory
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncInventory(BlockPos pos, @Nullable EnumFacing side, SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, false, false, key.getModid(),
+				key.getClassName()));
 	}
 
 	/**
@@ -1828,9 +2331,28 @@ public class InventoryUtils {
 	 * @param modid
 	 *            The modid for mod specific data
 	 */
+	@Deprecated
 	public static void syncInventoryStacked(BlockPos pos, @Nullable EnumFacing side, String modid) {
-		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, true, false, modid,
-				new Exception().getStackTrace()[1].getClassName()));
+		syncInventoryStacked(pos, side, SyncKey.forCaller(modid));
+	}
+
+	/**
+	 * Sync an inventory with the server. To get the inventory use
+	 * {@link #getCachedInventoryData(SyncKey)}. The inventory will be "stacked"
+	 * - see {@link #getInventoryStacked(TileEntity, int, int, EnumFacing)}.
+	 * This will store the data under the given key
+	 * 
+	 * @param pos
+	 *            The position of the {@link TileEntity} with the inventory
+	 * @param side
+	 *            The side of the {@link TileEntity} for use with
+	 *            {@link ISidedInventory} and {@link Capability}
+	 * @param key
+	 *            The {@link SyncKey} the data is cached under
+	 */
+	public static void syncInventoryStacked(BlockPos pos, @Nullable EnumFacing side, SyncKey key) {
+		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, true, false, key.getModid(),
+				key.getClassName()));
 	}
 
 	/**
@@ -1951,10 +2473,11 @@ public class InventoryUtils {
 	 *            The name of the field which will be replaced and will hold the
 	 *            synced inventory
 	 */
+	@Deprecated
 	public static void syncInventoryField(BlockPos pos, @Nullable EnumFacing side, int fromSlot, int toSlot,
 			String inventoryFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, false, fromSlot, toSlot, true,
-				new Exception().getStackTrace()[1].getClassName(), inventoryFieldName));
+				SyncKey.getCallerClassName(), inventoryFieldName));
 	}
 
 	/**
@@ -1977,10 +2500,11 @@ public class InventoryUtils {
 	 *            The name of the field which will be replaced and will hold the
 	 *            synced inventory
 	 */
+	@Deprecated
 	public static void syncInventoryFieldStacked(BlockPos pos, @Nullable EnumFacing side, int fromSlot, int toSlot,
 			String inventoryFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, true, fromSlot, toSlot, true,
-				new Exception().getStackTrace()[1].getClassName(), inventoryFieldName));
+				SyncKey.getCallerClassName(), inventoryFieldName));
 	}
 
 	/**
@@ -1997,9 +2521,10 @@ public class InventoryUtils {
 	 *            The name of the field which will be replaced and will hold the
 	 *            synced inventory
 	 */
+	@Deprecated
 	public static void syncInventoryField(BlockPos pos, @Nullable EnumFacing side, String inventoryFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, false, true,
-				new Exception().getStackTrace()[1].getClassName(), inventoryFieldName));
+				SyncKey.getCallerClassName(), inventoryFieldName));
 	}
 
 	/**
@@ -2018,9 +2543,20 @@ public class InventoryUtils {
 	 *            The name of the field which will be replaced and will hold the
 	 *            synced inventory
 	 */
+	@Deprecated
 	public static void syncInventoryFieldStacked(BlockPos pos, @Nullable EnumFacing side, String inventoryFieldName) {
 		PacketHandler.INSTANCE.sendToServer(new PacketGetInventory(pos, side, true, true,
-				new Exception().getStackTrace()[1].getClassName(), inventoryFieldName));
+				SyncKey.getCallerClassName(), inventoryFieldName));
+	}
+
+	/**
+	 * Gets the cache of inventory data synced from the server, which can be used to
+	 * check how old the data is
+	 * 
+	 * @return The cache of inventory data
+	 */
+	public static SyncCache<ImmutableList<ItemStack>> getInventoryDataCache() {
+		return cachedInventoryData;
 	}
 
 	/**
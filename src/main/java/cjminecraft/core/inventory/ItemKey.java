@@ -0,0 +1,119 @@
+package cjminecraft.core.inventory;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+/**
+ * Describes an {@link ItemStack} without its count so that stacks of the same
+ * item, metadata and nbt are equal. The nbt is only compared in full when
+ * the item, metadata and nbt hash code are already the same
+ *
+ * @author CJMinecraft
+ *
+ */
+public final class ItemKey {
+
+	private final ItemStack stack;
+	private final Item item;
+	private final int metadata;
+	private final int tagHash;
+	private final int hash;
+
+	private ItemKey(ItemStack stack) {
+		this.stack = stack;
+		this.item = stack.getItem();
+		this.metadata = stack.getMetadata();
+		NBTTagCompound tag = stack.getTagCompound();
+		this.tagHash = tag == null ? 0 : tag.hashCode();
+		this.hash = 31 * (31 * this.item.hashCode() + this.metadata) + this.tagHash;
+	}
+
+	/**
+	 * Get the key describing the {@link ItemStack}. The key shares the stack
+	 * so it should only be used for looking up while the stack is not changed.
+	 * Use {@link #toImmutable()} to keep it
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} to describe
+	 * @return The key
+	 */
+	public static ItemKey of(@Nonnull ItemStack stack) {
+		return new ItemKey(stack);
+	}
+
+	/**
+	 * Get a key which can be kept, copying the {@link ItemStack} it describes
+	 *
+	 * @return A key which does not share its {@link ItemStack}
+	 */
+	public ItemKey toImmutable() {
+		ItemStack copy = this.stack.copy();
+		copy.setCount(1);
+		return new ItemKey(copy);
+	}
+
+	/**
+	 * @return The item
+	 */
+	public Item getItem() {
+		return this.item;
+	}
+
+	/**
+	 * @return The metadata of the item
+	 */
+	public int getMetadata() {
+		return this.metadata;
+	}
+
+	/**
+	 * Make an {@link ItemStack} of the described item
+	 *
+	 * @param count
+	 *            The size of the {@link ItemStack}
+	 * @return A new {@link ItemStack}
+	 */
+	public ItemStack toStack(int count) {
+		ItemStack stack = this.stack.copy();
+		stack.setCount(count);
+		return stack;
+	}
+
+	/**
+	 * Check whether the {@link ItemStack} is described by this key
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} to check
+	 * @return Whether the stack has the same item, metadata and nbt
+	 */
+	public boolean matches(@Nonnull ItemStack stack) {
+		return this.item == stack.getItem() && this.metadata == stack.getMetadata()
+				&& ItemStack.areItemStackTagsEqual(this.stack, stack);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ItemKey))
+			return false;
+		ItemKey other = (ItemKey) obj;
+		return this.item == other.item && this.metadata == other.metadata && this.tagHash == other.tagHash
+				&& ItemStack.areItemStackTagsEqual(this.stack, other.stack);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	@Override
+	public String toString() {
+		return this.item.getRegistryName() + "@" + this.metadata
+				+ (this.stack.hasTagCompound() ? this.stack.getTagCompound().toString() : "");
+	}
+
+}
@@ -0,0 +1,237 @@
+package cjminecraft.core.inventory;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.collect.ImmutableList;
+
+import it.unimi.dsi.fastutil.objects.Object2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.item.ItemStack;
+
+/**
+ * Counts {@link ItemStack}s by their {@link ItemKey} so all stacks with the
+ * same description are put together, ignoring the max stack size. Items are
+ * kept in the order they were first added
+ *
+ * @author CJMinecraft
+ *
+ */
+public class ItemMultiset implements Iterable<ItemKey> {
+
+	private final Object2LongLinkedOpenHashMap<ItemKey> counts;
+	private long total;
+
+	/**
+	 * Create an empty multiset
+	 */
+	public ItemMultiset() {
+		this.counts = new Object2LongLinkedOpenHashMap<ItemKey>();
+	}
+
+	/**
+	 * Create a multiset holding the given {@link ItemStack}s
+	 *
+	 * @param stacks
+	 *            The {@link ItemStack}s to add
+	 */
+	public ItemMultiset(Collection<? extends ItemStack> stacks) {
+		this.counts = new Object2LongLinkedOpenHashMap<ItemKey>(stacks.size());
+		addAll(stacks);
+	}
+
+	/**
+	 * Add the {@link ItemStack}. The stack is not kept so can be changed
+	 * afterwards
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} to add
+	 * @return Whether anything was added
+	 */
+	public boolean add(@Nonnull ItemStack stack) {
+		return add(stack, stack.getCount());
+	}
+
+	/**
+	 * Add a number of the item described by the {@link ItemStack}
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} describing the item. Its count is
+	 *            ignored
+	 * @param count
+	 *            How many to add
+	 * @return Whether anything was added
+	 */
+	public boolean add(@Nonnull ItemStack stack, long count) {
+		if (stack.isEmpty() || count <= 0)
+			return false;
+		ItemKey key = ItemKey.of(stack);
+		long current = this.counts.getLong(key);
+		if (current == 0)
+			this.counts.put(key.toImmutable(), count);
+		else
+			this.counts.put(key, current + count);
+		this.total += count;
+		return true;
+	}
+
+	/**
+	 * Add every {@link ItemStack}
+	 *
+	 * @param stacks
+	 *            The {@link ItemStack}s to add
+	 * @return Whether anything was added
+	 */
+	public boolean addAll(Collection<? extends ItemStack> stacks) {
+		boolean changed = false;
+		for (ItemStack stack : stacks)
+			changed |= add(stack);
+		return changed;
+	}
+
+	/**
+	 * Take away up to a number of the item described by the
+	 * {@link ItemStack}
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} describing the item. Its count is
+	 *            ignored
+	 * @param count
+	 *            The most to take away
+	 * @return How many were taken away
+	 */
+	public long remove(@Nonnull ItemStack stack, long count) {
+		if (stack.isEmpty() || count <= 0)
+			return 0;
+		ItemKey key = ItemKey.of(stack);
+		long current = this.counts.getLong(key);
+		if (current == 0)
+			return 0;
+		long removed = Math.min(current, count);
+		if (removed == current)
+			this.counts.removeLong(key);
+		else
+			this.counts.put(key, current - removed);
+		this.total -= removed;
+		return removed;
+	}
+
+	/**
+	 * Get how many of the item described by the {@link ItemStack} there are
+	 *
+	 * @param stack
+	 *            The {@link ItemStack} describing the item. Its count is
+	 *            ignored
+	 * @return The count
+	 */
+	public long count(@Nonnull ItemStack stack) {
+		return stack.isEmpty() ? 0 : this.counts.getLong(ItemKey.of(stack));
+	}
+
+	/**
+	 * Get how many of the item there are
+	 *
+	 * @param key
+	 *            The item
+	 * @return The count
+	 */
+	public long count(@Nonnull ItemKey key) {
+		return this.counts.getLong(key);
+	}
+
+	/**
+	 * @return Whether the item described by the {@link ItemStack} is held
+	 */
+	public boolean contains(@Nonnull ItemStack stack) {
+		return count(stack) > 0;
+	}
+
+	/**
+	 * @return How many different items are held
+	 */
+	public int size() {
+		return this.counts.size();
+	}
+
+	/**
+	 * @return How many items are held altogether
+	 */
+	public long getTotal() {
+		return this.total;
+	}
+
+	/**
+	 * @return Whether nothing is held
+	 */
+	public boolean isEmpty() {
+		return this.counts.isEmpty();
+	}
+
+	/**
+	 * Remove everything
+	 */
+	public void clear() {
+		this.counts.clear();
+		this.total = 0;
+	}
+
+	/**
+	 * Make an {@link ItemStack} for each item held with the count of all of
+	 * them. Counts too big for an {@link ItemStack} are capped at
+	 * {@link Integer#MAX_VALUE}
+	 *
+	 * @return The {@link ItemStack}s in the order they were first added
+	 */
+	public ImmutableList<ItemStack> getStacks() {
+		ImmutableList.Builder<ItemStack> stacks = ImmutableList.builder();
+		ObjectIterator<Object2LongMap.Entry<ItemKey>> iterator = this.counts.object2LongEntrySet().fastIterator();
+		while (iterator.hasNext()) {
+			Object2LongMap.Entry<ItemKey> entry = iterator.next();
+			stacks.add(entry.getKey().toStack((int) Math.min(entry.getLongValue(), Integer.MAX_VALUE)));
+		}
+		return stacks.build();
+	}
+
+	/**
+	 * Iterates the items held in the order they were first added. Use
+	 * {@link #count(ItemKey)} to get how many there are. Removing through the
+	 * iterator removes every one of the item
+	 */
+	@Override
+	public Iterator<ItemKey> iterator() {
+		return new Iterator<ItemKey>() {
+
+			private final ObjectIterator<Object2LongMap.Entry<ItemKey>> entries = ItemMultiset.this.counts
+					.object2LongEntrySet().fastIterator();
+			private Object2LongMap.Entry<ItemKey> last;
+
+			@Override
+			public boolean hasNext() {
+				return this.entries.hasNext();
+			}
+
+			@Override
+			public ItemKey next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				this.last = this.entries.next();
+				return this.last.getKey();
+			}
+
+			@Override
+			public void remove() {
+				if (this.last == null)
+					throw new IllegalStateException();
+				ItemMultiset.this.total -= this.last.getLongValue();
+				this.entries.remove();
+				this.last = null;
+			}
+
+		};
+	}
+
+}
@@ -21,8 +21,11 @@ import net.minecraft.nbt.NBTTagCompound;
  * together rather than separately, the count will most likely exceed 64
  * 
  * @author CJMinecraft
+ * @deprecated Serializes every {@link ItemStack} to nbt to compare it and is
+ *             not thread safe. Use {@link ItemMultiset} instead
  *
  */
+@Deprecated
 public class ItemStackSet implements Set<ItemStack>, Iterable<ItemStack> {
 
 	private static NBTTagCompound nbt = new NBTTagCompound();
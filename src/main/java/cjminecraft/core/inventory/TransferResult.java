@@ -0,0 +1,96 @@
+package cjminecraft.core.inventory;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import net.minecraft.item.ItemStack;
+
+/**
+ * What happened when items were moved between two inventories with
+ * {@link InventoryUtils#transfer}
+ *
+ * @author CJMinecraft
+ *
+ */
+public final class TransferResult {
+
+	/**
+	 * The result when nothing was moved
+	 */
+	public static final TransferResult NONE = new TransferResult(0, 0, 0, ImmutableList.<ItemStack>of());
+
+	private final int itemsMoved;
+	private final int stacksMoved;
+	private final int itemsReturned;
+	private final ImmutableList<ItemStack> leftovers;
+
+	/**
+	 * Create a result
+	 *
+	 * @param itemsMoved
+	 *            How many items ended up in the destination
+	 * @param stacksMoved
+	 *            How many slots of the source items were taken from
+	 * @param itemsReturned
+	 *            How many items were taken but could not be put into the
+	 *            destination so were given back to the source
+	 * @param leftovers
+	 *            The items which neither the destination nor the source
+	 *            would take
+	 */
+	public TransferResult(int itemsMoved, int stacksMoved, int itemsReturned, List<ItemStack> leftovers) {
+		this.itemsMoved = itemsMoved;
+		this.stacksMoved = stacksMoved;
+		this.itemsReturned = itemsReturned;
+		this.leftovers = ImmutableList.copyOf(leftovers);
+	}
+
+	/**
+	 * @return How many items ended up in the destination
+	 */
+	public int getItemsMoved() {
+		return this.itemsMoved;
+	}
+
+	/**
+	 * @return How many slots of the source items were taken from
+	 */
+	public int getStacksMoved() {
+		return this.stacksMoved;
+	}
+
+	/**
+	 * @return How many items were taken but had to be given back to the
+	 *         source, because the destination did not accept what it said it
+	 *         would
+	 */
+	public int getItemsReturned() {
+		return this.itemsReturned;
+	}
+
+	/**
+	 * @return The items which were taken from the source but neither the
+	 *         destination nor the source would take. They are no longer in
+	 *         either inventory, so whoever called
+	 *         {@link InventoryUtils#transfer} must put them somewhere or drop
+	 *         them
+	 */
+	public ImmutableList<ItemStack> getLeftovers() {
+		return this.leftovers;
+	}
+
+	/**
+	 * @return Whether nothing was moved
+	 */
+	public boolean isEmpty() {
+		return this.itemsMoved == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "TransferResult[items=" + this.itemsMoved + ", stacks=" + this.stacksMoved + ", returned="
+				+ this.itemsReturned + ", leftovers=" + this.leftovers.size() + "]";
+	}
+
+}
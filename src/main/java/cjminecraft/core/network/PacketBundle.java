@@ -0,0 +1,240 @@
+package cjminecraft.core.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Many messages to the client sent together in one packet. Each message is
+ * written with the id it was registered with in the bundle and its length.
+ * When the messages are large enough the whole bundle is compressed
+ *
+ * @author CJMinecraft
+ *
+ */
+public class PacketBundle implements IMessage {
+
+	/**
+	 * The size in bytes above which the messages in a bundle are compressed
+	 */
+	public static final int COMPRESSION_THRESHOLD = 512;
+
+	/**
+	 * The most bytes of messages a single bundle can hold. A message which
+	 * would not fit is put in a new bundle and the full one is sent early. A
+	 * message larger than this on its own is sent outside of a bundle
+	 */
+	public static final int MAX_SIZE = 0x80000;
+
+	private static final List<Class<? extends IMessage>> messages = new ArrayList<Class<? extends IMessage>>();
+	private static final List<IMessageHandler<IMessage, ? extends IMessage>> handlers = new ArrayList<IMessageHandler<IMessage, ? extends IMessage>>();
+	private static final Map<Class<? extends IMessage>, Integer> ids = new HashMap<Class<? extends IMessage>, Integer>();
+
+	private boolean messageValid;
+
+	private int count;
+	private ByteBuf payload;
+
+	public PacketBundle() {
+		this.messageValid = false;
+	}
+
+	/**
+	 * Create an empty bundle to add messages to
+	 *
+	 * @param payload
+	 *            The buffer to write the messages into
+	 */
+	PacketBundle(ByteBuf payload) {
+		this.payload = payload;
+		this.messageValid = true;
+	}
+
+	/**
+	 * Let a message to the client be sent in a bundle. Must be called in the
+	 * same order on both sides. For use by {@link PacketHandler} only
+	 *
+	 * @param handler
+	 *            The handler of the message
+	 * @param message
+	 *            The message
+	 */
+	@SuppressWarnings("unchecked")
+	static <REQ extends IMessage, REPLY extends IMessage> void register(
+			Class<? extends IMessageHandler<REQ, REPLY>> handler, Class<REQ> message) {
+		try {
+			ids.put(message, messages.size());
+			messages.add(message);
+			handlers.add((IMessageHandler<IMessage, ? extends IMessage>) (IMessageHandler<?, ?>) handler.newInstance());
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Check whether the message can be sent in a bundle
+	 *
+	 * @param message
+	 *            The message
+	 * @return Whether the message was registered with the bundle
+	 */
+	static boolean canBundle(IMessage message) {
+		return ids.containsKey(message.getClass());
+	}
+
+	/**
+	 * Write the message as it would be stored in a bundle
+	 *
+	 * @param message
+	 *            The message, which must be able to be bundled
+	 * @return The id, length and bytes of the message
+	 */
+	static ByteBuf write(IMessage message) {
+		ByteBuf buf = Unpooled.buffer();
+		message.toBytes(buf);
+		ByteBuf entry = Unpooled.buffer(buf.readableBytes() + 10);
+		NetworkUtils.writeVarInt(entry, ids.get(message.getClass()));
+		NetworkUtils.writeVarInt(entry, buf.readableBytes());
+		entry.writeBytes(buf);
+		return entry;
+	}
+
+	/**
+	 * Check whether a message fits in the bundle without going over
+	 * {@link #MAX_SIZE}
+	 *
+	 * @param entry
+	 *            The message written by {@link #write(IMessage)}
+	 * @return Whether the message fits
+	 */
+	boolean canFit(ByteBuf entry) {
+		return getSize() + entry.readableBytes() <= MAX_SIZE;
+	}
+
+	/**
+	 * Add the message to the bundle
+	 *
+	 * @param entry
+	 *            The message written by {@link #write(IMessage)}
+	 */
+	void add(ByteBuf entry) {
+		this.payload.writeBytes(entry);
+		this.count++;
+	}
+
+	/**
+	 * @return Whether the bundle has no messages
+	 */
+	boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	/**
+	 * @return How many bytes of messages are in the bundle
+	 */
+	int getSize() {
+		return this.payload.readableBytes();
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			boolean compressed = buf.readBoolean();
+			this.count = NetworkUtils.readVarInt(buf);
+			int size = NetworkUtils.readVarInt(buf);
+			if (size < 0 || size > MAX_SIZE)
+				return;
+			if (compressed) {
+				byte[] input = new byte[NetworkUtils.readVarInt(buf)];
+				buf.readBytes(input);
+				Inflater inflater = new Inflater();
+				inflater.setInput(input);
+				byte[] output = new byte[size];
+				int read = inflater.inflate(output);
+				inflater.end();
+				if (read != size)
+					return;
+				this.payload = Unpooled.wrappedBuffer(output);
+			} else
+				this.payload = buf.readBytes(size);
+		} catch (IndexOutOfBoundsException | NegativeArraySizeException ioe) {
+			CJCore.logger.catching(ioe);
+			return;
+		} catch (DataFormatException dfe) {
+			CJCore.logger.catching(dfe);
+			return;
+		}
+		this.messageValid = true;
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		if (!this.messageValid)
+			return;
+		NetworkUtils.writeWireVersion(buf);
+		int size = this.payload.readableBytes();
+		byte[] input = new byte[size];
+		this.payload.getBytes(this.payload.readerIndex(), input);
+		boolean compressed = size > COMPRESSION_THRESHOLD;
+		buf.writeBoolean(compressed);
+		NetworkUtils.writeVarInt(buf, this.count);
+		NetworkUtils.writeVarInt(buf, size);
+		if (compressed) {
+			Deflater deflater = new Deflater();
+			deflater.setInput(input);
+			deflater.finish();
+			byte[] output = new byte[size + 64];
+			int length = 0;
+			while (!deflater.finished()) {
+				if (length == output.length)
+					output = Arrays.copyOf(output, output.length * 2);
+				length += deflater.deflate(output, length, output.length - length);
+			}
+			deflater.end();
+			NetworkUtils.writeVarInt(buf, length);
+			buf.writeBytes(output, 0, length);
+		} else
+			buf.writeBytes(input);
+	}
+
+	public static class Handler implements IMessageHandler<PacketBundle, IMessage> {
+
+		@Override
+		public IMessage onMessage(PacketBundle message, MessageContext ctx) {
+			if (!message.messageValid || ctx.side != Side.CLIENT)
+				return null;
+			try {
+				for (int i = 0; i < message.count; i++) {
+					int id = NetworkUtils.readVarInt(message.payload);
+					int length = NetworkUtils.readVarInt(message.payload);
+					if (id < 0 || id >= messages.size())
+						return null;
+					IMessage inner = messages.get(id).newInstance();
+					inner.fromBytes(message.payload.readSlice(length));
+					handlers.get(id).onMessage(inner, ctx);
+				}
+			} catch (IndexOutOfBoundsException | InstantiationException | IllegalAccessException e) {
+				CJCore.logger.catching(e);
+			}
+			return null;
+		}
+
+	}
+
+}
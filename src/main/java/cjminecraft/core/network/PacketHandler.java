@@ -1,11 +1,22 @@
 package cjminecraft.core.network;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import cjminecraft.core.CJCore;
 import cjminecraft.core.network.energy.*;
 import cjminecraft.core.network.fluid.*;
 import cjminecraft.core.network.inventory.*;
+import cjminecraft.core.network.sync.*;
 import cjminecraft.core.proxy.CommonProxy;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
 import net.minecraftforge.fml.relauncher.Side;
 
@@ -23,6 +34,8 @@ public class PacketHandler {
 	public static SimpleNetworkWrapper INSTANCE;
 	private static int ID = 0;
 
+	private static final Map<EntityPlayerMP, PacketBundle> pending = new LinkedHashMap<EntityPlayerMP, PacketBundle>();
+
 	/**
 	 * Get the next id
 	 * 
@@ -47,16 +60,97 @@ public class PacketHandler {
 		INSTANCE.registerMessage(PacketGetEnergyData.Handler.class, PacketGetEnergyData.class, nextID(), Side.SERVER);
 		INSTANCE.registerMessage(PacketGetInventory.Handler.class, PacketGetInventory.class, nextID(), Side.SERVER);
 		INSTANCE.registerMessage(PacketGetFluidData.Handler.class, PacketGetFluidData.class, nextID(), Side.SERVER);
+		INSTANCE.registerMessage(PacketSubscribe.Handler.class, PacketSubscribe.class, nextID(), Side.SERVER);
+		INSTANCE.registerMessage(PacketUnsubscribe.Handler.class, PacketUnsubscribe.class, nextID(), Side.SERVER);
+		INSTANCE.registerMessage(PacketBatchQuery.Handler.class, PacketBatchQuery.class, nextID(), Side.SERVER);
+		INSTANCE.registerMessage(PacketResyncInventory.Handler.class, PacketResyncInventory.class, nextID(),
+				Side.SERVER);
 
 		// Client Messages
-		INSTANCE.registerMessage(PacketReturnEnergy.Handler.class, PacketReturnEnergy.class, nextID(), Side.CLIENT);
-		INSTANCE.registerMessage(PacketReturnCapacity.Handler.class, PacketReturnCapacity.class, nextID(), Side.CLIENT);
-		INSTANCE.registerMessage(PacketReturnEnergyData.Handler.class, PacketReturnEnergyData.class, nextID(),
-				Side.CLIENT);
-		INSTANCE.registerMessage(PacketReturnInventory.Handler.class, PacketReturnInventory.class, nextID(),
-				Side.CLIENT);
-		INSTANCE.registerMessage(PacketReturnFluidData.Handler.class, PacketReturnFluidData.class, nextID(),
-				Side.CLIENT);
+		INSTANCE.registerMessage(PacketBundle.Handler.class, PacketBundle.class, nextID(), Side.CLIENT);
+		registerClientMessage(PacketReturnEnergy.Handler.class, PacketReturnEnergy.class);
+		registerClientMessage(PacketReturnCapacity.Handler.class, PacketReturnCapacity.class);
+		registerClientMessage(PacketReturnEnergyData.Handler.class, PacketReturnEnergyData.class);
+		registerClientMessage(PacketReturnInventory.Handler.class, PacketReturnInventory.class);
+		registerClientMessage(PacketReturnFluidData.Handler.class, PacketReturnFluidData.class);
+		registerClientMessage(PacketBatchResponse.Handler.class, PacketBatchResponse.class);
+		registerClientMessage(PacketInventoryDelta.Handler.class, PacketInventoryDelta.class);
+		registerClientMessage(PacketTileData.Handler.class, PacketTileData.class);
+	}
+
+	/**
+	 * Register a message sent to the client which can be sent in a
+	 * {@link PacketBundle}
+	 * 
+	 * @param handler
+	 *            The handler of the message
+	 * @param message
+	 *            The message
+	 */
+	private static <REQ extends IMessage, REPLY extends IMessage> void registerClientMessage(
+			Class<? extends IMessageHandler<REQ, REPLY>> handler, Class<REQ> message) {
+		INSTANCE.registerMessage(handler, message, nextID(), Side.CLIENT);
+		PacketBundle.register(handler, message);
+	}
+
+	/**
+	 * Send a message to the player at the end of the tick along with every
+	 * other message sent to them this tick, so they are all written in one
+	 * {@link PacketBundle}. Messages which cannot be bundled or are too large
+	 * for a bundle are sent straight away, after anything sent to the player
+	 * before them. Must be called on the server thread
+	 * 
+	 * @param message
+	 *            The message to send
+	 * @param player
+	 *            The player to send it to
+	 */
+	public static void sendTo(IMessage message, EntityPlayerMP player) {
+		if (!PacketBundle.canBundle(message)) {
+			INSTANCE.sendTo(message, player);
+			return;
+		}
+		ByteBuf entry = PacketBundle.write(message);
+		PacketBundle bundle = pending.get(player);
+		if (bundle != null && !bundle.canFit(entry)) {
+			pending.remove(player);
+			INSTANCE.sendTo(bundle, player);
+			bundle = null;
+		}
+		if (entry.readableBytes() > PacketBundle.MAX_SIZE) {
+			INSTANCE.sendTo(message, player);
+			return;
+		}
+		if (bundle == null) {
+			bundle = new PacketBundle(Unpooled.buffer());
+			pending.put(player, bundle);
+		}
+		bundle.add(entry);
+	}
+
+	/**
+	 * Send every bundle of messages waiting to be sent. Called at the end of
+	 * each server tick
+	 */
+	public static void flush() {
+		Iterator<Map.Entry<EntityPlayerMP, PacketBundle>> bundles = pending.entrySet().iterator();
+		while (bundles.hasNext()) {
+			Map.Entry<EntityPlayerMP, PacketBundle> entry = bundles.next();
+			bundles.remove();
+			if (!entry.getValue().isEmpty() && entry.getKey().connection != null && !entry.getKey().hasDisconnected())
+				INSTANCE.sendTo(entry.getValue(), entry.getKey());
+		}
+	}
+
+	/**
+	 * Drop any messages waiting to be sent to the player. Called when the
+	 * player logs out
+	 * 
+	 * @param player
+	 *            The player
+	 */
+	public static void removePlayer(EntityPlayer player) {
+		pending.remove(player);
 	}
 
 }
@@ -0,0 +1,257 @@
+package cjminecraft.core.network;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import javax.annotation.Nonnull;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.network.inventory.InventoryDelta;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Keeps track of everything on the client which values from the server can be
+ * synced into. Each target is registered once and given a small id which is
+ * sent to the server and back again, so packets never carry class or field
+ * names and no reflection is done when a packet arrives.
+ *
+ * A target can either be a static field, which is set through a cached
+ * {@link MethodHandle}, or a consumer which is given the value directly. The
+ * ids of unregistered consumers are reused so the list does not keep growing
+ *
+ * @author CJMinecraft
+ *
+ */
+public class SyncTargetRegistry {
+
+	private static final List<Target> targets = new ArrayList<Target>();
+	private static final Map<String, Integer> fieldTargets = new HashMap<String, Integer>();
+	private static final IntArrayList freeIds = new IntArrayList();
+
+	/**
+	 * Register a static field as a sync target. Registering the same field
+	 * again returns the same id
+	 *
+	 * @param className
+	 *            The name of the class which holds the field
+	 * @param fieldName
+	 *            The name of the static field
+	 * @return The id of the target or -1 if the field could not be found
+	 */
+	public static int register(@Nonnull String className, @Nonnull String fieldName) {
+		String key = className + '#' + fieldName;
+		Integer id = fieldTargets.get(key);
+		if (id != null)
+			return id;
+		try {
+			Field field = Class.forName(className).getDeclaredField(fieldName);
+			if (!Modifier.isStatic(field.getModifiers()))
+				throw new IllegalArgumentException(
+						String.format("Field %s in %s must be static to be synced", fieldName, className));
+			field.setAccessible(true);
+			id = add(new FieldTarget(MethodHandles.lookup().unreflectSetter(field), field.getType()));
+		} catch (Exception e) {
+			CJCore.logger.catching(e);
+			id = -1;
+		}
+		fieldTargets.put(key, id);
+		return id;
+	}
+
+	/**
+	 * Register a consumer of a long value, such as energy or capacity
+	 *
+	 * @param consumer
+	 *            The consumer which is given the value
+	 * @return The id of the target
+	 */
+	public static int register(@Nonnull LongConsumer consumer) {
+		return add(new Target() {
+			@Override
+			void setLong(long value) {
+				consumer.accept(value);
+			}
+		});
+	}
+
+	/**
+	 * Register a consumer of an int value, such as the capacity of a tank
+	 *
+	 * @param consumer
+	 *            The consumer which is given the value
+	 * @return The id of the target
+	 */
+	public static int register(@Nonnull IntConsumer consumer) {
+		return add(new Target() {
+			@Override
+			void setInt(int value) {
+				consumer.accept(value);
+			}
+		});
+	}
+
+	/**
+	 * Register a consumer of any other value, such as an inventory or a fluid
+	 *
+	 * @param type
+	 *            The type of value the consumer accepts
+	 * @param consumer
+	 *            The consumer which is given the value
+	 * @return The id of the target
+	 */
+	public static <T> int register(@Nonnull Class<T> type, @Nonnull Consumer<? super T> consumer) {
+		return add(new Target() {
+			@Override
+			void setObject(Object value) {
+				consumer.accept(type.cast(value));
+			}
+		});
+	}
+
+	/**
+	 * Stop a consumer from being given any more values and forget any
+	 * inventory held for it. Its id is given to the next target registered.
+	 * Field targets live for as long as the game
+	 *
+	 * @param id
+	 *            The id of the target
+	 */
+	public static void unregister(int id) {
+		if (id >= 0 && id < targets.size() && targets.get(id) != null && !(targets.get(id) instanceof FieldTarget)) {
+			targets.set(id, null);
+			freeIds.push(id);
+			InventoryDelta.forget(InventoryDelta.getKey(id));
+		}
+	}
+
+	/**
+	 * Give a long value to the target
+	 *
+	 * @param id
+	 *            The id of the target
+	 * @param value
+	 *            The value
+	 */
+	public static void setLong(int id, long value) {
+		Target target = get(id);
+		if (target != null)
+			target.setLong(value);
+	}
+
+	/**
+	 * Give an int value to the target
+	 *
+	 * @param id
+	 *            The id of the target
+	 * @param value
+	 *            The value
+	 */
+	public static void setInt(int id, int value) {
+		Target target = get(id);
+		if (target != null)
+			target.setInt(value);
+	}
+
+	/**
+	 * Give a value to the target
+	 *
+	 * @param id
+	 *            The id of the target
+	 * @param value
+	 *            The value
+	 */
+	public static void setObject(int id, Object value) {
+		Target target = get(id);
+		if (target != null)
+			target.setObject(value);
+	}
+
+	private static int add(Target target) {
+		if (!freeIds.isEmpty()) {
+			int id = freeIds.popInt();
+			targets.set(id, target);
+			return id;
+		}
+		targets.add(target);
+		return targets.size() - 1;
+	}
+
+	private static Target get(int id) {
+		return id >= 0 && id < targets.size() ? targets.get(id) : null;
+	}
+
+	/**
+	 * Something a value can be synced into. Only the methods for the types
+	 * the target accepts need to be overridden
+	 */
+	private static abstract class Target {
+
+		void setLong(long value) {
+			setObject(value);
+		}
+
+		void setInt(int value) {
+			setObject(value);
+		}
+
+		void setObject(Object value) {
+			CJCore.logger.warn(String.format("Sync target %s can not accept %s", this, value));
+		}
+
+	}
+
+	private static class FieldTarget extends Target {
+
+		private final MethodHandle setter;
+		private final Class<?> type;
+
+		private FieldTarget(MethodHandle setter, Class<?> type) {
+			this.setter = setter;
+			this.type = type;
+		}
+
+		@Override
+		void setLong(long value) {
+			try {
+				if (this.type == long.class)
+					this.setter.invokeExact(value);
+				else
+					this.setter.invoke(value);
+			} catch (Throwable t) {
+				CJCore.logger.catching(t);
+			}
+		}
+
+		@Override
+		void setInt(int value) {
+			try {
+				if (this.type == int.class)
+					this.setter.invokeExact(value);
+				else
+					this.setter.invoke(value);
+			} catch (Throwable t) {
+				CJCore.logger.catching(t);
+			}
+		}
+
+		@Override
+		void setObject(Object value) {
+			try {
+				this.setter.invoke(value);
+			} catch (Throwable t) {
+				CJCore.logger.catching(t);
+			}
+		}
+
+	}
+
+}
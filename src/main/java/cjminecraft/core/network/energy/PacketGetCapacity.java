@@ -4,6 +4,10 @@ import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyUnit;
 import cjminecraft.core.energy.EnergyUtils;
 import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.network.sync.ResponseCache;
+import cjminecraft.core.network.sync.SnapshotManager;
+import cjminecraft.core.network.sync.SnapshotManager.TileSnapshot;
 import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.tileentity.TileEntity;
@@ -26,7 +30,7 @@ public class PacketGetCapacity implements IMessage {
 
 	private boolean updateField = false;
 	private String className;
-	private String capacityFieldName;
+	private int capacityTarget;
 	private String modid;
 
 	public PacketGetCapacity() {
@@ -39,8 +43,7 @@ public class PacketGetCapacity implements IMessage {
 		this.side = side;
 		if (updateField) {
 			this.updateField = true;
-			this.className = args[0];
-			this.capacityFieldName = args[1];
+			this.capacityTarget = SyncTargetRegistry.register(args[0], args[1]);
 		} else {
 			this.modid = args[0];
 			this.className = args[1];
@@ -48,19 +51,30 @@ public class PacketGetCapacity implements IMessage {
 		this.messageValid = true;
 	}
 
+	public PacketGetCapacity(EnergyUnit unit, BlockPos pos, EnumFacing side, int capacityTarget) {
+		this.unit = unit;
+		this.pos = pos;
+		this.side = side;
+		this.updateField = true;
+		this.capacityTarget = capacityTarget;
+		this.messageValid = true;
+	}
+
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
 			this.unit = NetworkUtils.readEnergyUnit(buf);
 			this.pos = NetworkUtils.readBlockPos(buf);
 			this.side = NetworkUtils.readEnumFacing(buf);
 			this.updateField = buf.readBoolean();
-			this.className = ByteBufUtils.readUTF8String(buf);
 			if (this.updateField)
-				this.capacityFieldName = ByteBufUtils.readUTF8String(buf);
-			else
+				this.capacityTarget = NetworkUtils.readVarInt(buf);
+			else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
-
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -72,24 +86,31 @@ public class PacketGetCapacity implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if (!this.messageValid)
 			return;
+		NetworkUtils.writeWireVersion(buf);
 		NetworkUtils.writeEnergyUnit(buf, this.unit);
 		NetworkUtils.writeBlockPos(buf, this.pos);
 		NetworkUtils.writeEnumFacing(buf, this.side);
 		buf.writeBoolean(this.updateField);
-		ByteBufUtils.writeUTF8String(buf, this.className);
 		if (this.updateField)
-			ByteBufUtils.writeUTF8String(buf, this.capacityFieldName);
-		else
+			NetworkUtils.writeVarInt(buf, this.capacityTarget);
+		else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
-
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
 
 	public static class Handler implements IMessageHandler<PacketGetCapacity, IMessage> {
 
 		@Override
 		public IMessage onMessage(PacketGetCapacity message, MessageContext ctx) {
-			if (!message.messageValid && ctx.side != Side.SERVER)
+			if (!message.messageValid || ctx.side != Side.SERVER)
 				return null;
+			TileSnapshot snapshot = SnapshotManager.getSnapshot(ctx.getServerHandler().player, message.pos);
+			if (snapshot != null) {
+				Long capacity = snapshot.getCapacity(message.side, message.unit);
+				if (capacity != null)
+					return getReply(message, capacity);
+			}
 			FMLCommonHandler.instance().getWorldThread(ctx.netHandler)
 					.addScheduledTask(() -> processMessage(message, ctx));
 			return null;
@@ -103,15 +124,15 @@ public class PacketGetCapacity implements IMessage {
 				return;
 			if (!EnergyUtils.hasSupport(te, message.side))
 				return;
-			long capacity = EnergyUtils.getCapacity(te, message.side, message.unit);
+			long capacity = ResponseCache.getCapacity(te, message.side, message.unit);
+			PacketHandler.sendTo(getReply(message, capacity), ctx.getServerHandler().player);
+			SnapshotManager.trackCapacity(te, message.side, message.unit);
+		}
+
+		private IMessage getReply(PacketGetCapacity message, long capacity) {
 			if (message.updateField)
-				PacketHandler.INSTANCE.sendTo(
-						new PacketReturnCapacity(capacity, true, message.className, message.capacityFieldName),
-						ctx.getServerHandler().player);
-			else
-				PacketHandler.INSTANCE.sendTo(
-						new PacketReturnCapacity(capacity, false, message.modid, message.className),
-						ctx.getServerHandler().player);
+				return new PacketReturnCapacity(capacity, message.capacityTarget);
+			return new PacketReturnCapacity(capacity, message.modid, message.className);
 		}
 
 	}
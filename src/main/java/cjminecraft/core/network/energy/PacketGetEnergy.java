@@ -4,6 +4,10 @@ import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyUnit;
 import cjminecraft.core.energy.EnergyUtils;
 import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.network.sync.ResponseCache;
+import cjminecraft.core.network.sync.SnapshotManager;
+import cjminecraft.core.network.sync.SnapshotManager.TileSnapshot;
 import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.tileentity.TileEntity;
@@ -19,28 +23,27 @@ import net.minecraftforge.fml.relauncher.Side;
 public class PacketGetEnergy implements IMessage {
 
 	private boolean messageValid;
-	
+
 	private EnergyUnit unit;
 	private BlockPos pos;
 	private EnumFacing side;
-	
+
 	private boolean updateFields = false;
 	private String className;
 	private String modid;
-	private String energyFieldName;
-	
+	private int energyTarget;
+
 	public PacketGetEnergy() {
 		this.messageValid = false;
 	}
-	
+
 	public PacketGetEnergy(EnergyUnit unit, BlockPos pos, EnumFacing side, boolean updateFields, String... args) {
 		this.unit = unit;
 		this.pos = pos;
 		this.side = side;
 		if(updateFields) {
 			this.updateFields = true;
-			this.className = args[0];
-			this.energyFieldName = args[1];
+			this.energyTarget = SyncTargetRegistry.register(args[0], args[1]);
 		} else {
 			this.modid = args[0];
 			this.className = args[1];
@@ -48,19 +51,30 @@ public class PacketGetEnergy implements IMessage {
 		this.messageValid = true;
 	}
 
+	public PacketGetEnergy(EnergyUnit unit, BlockPos pos, EnumFacing side, int energyTarget) {
+		this.unit = unit;
+		this.pos = pos;
+		this.side = side;
+		this.updateFields = true;
+		this.energyTarget = energyTarget;
+		this.messageValid = true;
+	}
+
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
 			this.unit = NetworkUtils.readEnergyUnit(buf);
 			this.pos = NetworkUtils.readBlockPos(buf);
 			this.side = NetworkUtils.readEnumFacing(buf);
-			this.className = ByteBufUtils.readUTF8String(buf);
 			this.updateFields = buf.readBoolean();
-			if(this.updateFields) 
-				this.energyFieldName = ByteBufUtils.readUTF8String(buf);
-			else
+			if(this.updateFields)
+				this.energyTarget = NetworkUtils.readVarInt(buf);
+			else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
-			
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -72,28 +86,35 @@ public class PacketGetEnergy implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if(!this.messageValid)
 			return;
+		NetworkUtils.writeWireVersion(buf);
 		NetworkUtils.writeEnergyUnit(buf, this.unit);
 		NetworkUtils.writeBlockPos(buf, this.pos);
 		NetworkUtils.writeEnumFacing(buf, this.side);
-		ByteBufUtils.writeUTF8String(buf, this.className);
 		buf.writeBoolean(this.updateFields);
 		if(this.updateFields)
-			ByteBufUtils.writeUTF8String(buf, this.energyFieldName);
-		else
+			NetworkUtils.writeVarInt(buf, this.energyTarget);
+		else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
-		
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
-	
+
 	public static class Handler implements IMessageHandler<PacketGetEnergy, IMessage> {
 
 		@Override
 		public IMessage onMessage(PacketGetEnergy message, MessageContext ctx) {
-			if(!message.messageValid && ctx.side != Side.SERVER)
+			if(!message.messageValid || ctx.side != Side.SERVER)
 				return null;
+			TileSnapshot snapshot = SnapshotManager.getSnapshot(ctx.getServerHandler().player, message.pos);
+			if (snapshot != null) {
+				Long energy = snapshot.getEnergyStored(message.side, message.unit);
+				if (energy != null)
+					return getReply(message, energy);
+			}
 			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(() -> processMessage(message, ctx));
 			return null;
 		}
-		
+
 		void processMessage(PacketGetEnergy message, MessageContext ctx) {
 			if(!ctx.getServerHandler().player.getServerWorld().isBlockLoaded(message.pos))
 				return;
@@ -102,13 +123,17 @@ public class PacketGetEnergy implements IMessage {
 				return;
 			if (!EnergyUtils.hasSupport(te, message.side))
 				return;
-			long energy = EnergyUtils.getEnergyStored(te, message.side, message.unit);
+			long energy = ResponseCache.getEnergyStored(te, message.side, message.unit);
+			PacketHandler.sendTo(getReply(message, energy), ctx.getServerHandler().player);
+			SnapshotManager.trackEnergyStored(te, message.side, message.unit);
+		}
+
+		private IMessage getReply(PacketGetEnergy message, long energy) {
 			if(message.updateFields)
-				PacketHandler.INSTANCE.sendTo(new PacketReturnEnergy(energy, true, message.className, message.energyFieldName), ctx.getServerHandler().player);
-			else
-				PacketHandler.INSTANCE.sendTo(new PacketReturnEnergy(energy, false, message.modid, message.className), ctx.getServerHandler().player);
+				return new PacketReturnEnergy(energy, message.energyTarget);
+			return new PacketReturnEnergy(energy, message.modid, message.className);
 		}
-		
+
 	}
 
 }
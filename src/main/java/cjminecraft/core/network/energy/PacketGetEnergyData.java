@@ -2,9 +2,12 @@ package cjminecraft.core.network.energy;
 
 import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyUnit;
-import cjminecraft.core.energy.compat.forge.CustomForgeEnergyStorage;
 import cjminecraft.core.energy.EnergyUtils;
 import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.network.sync.ResponseCache;
+import cjminecraft.core.network.sync.SnapshotManager;
+import cjminecraft.core.network.sync.SnapshotManager.TileSnapshot;
 import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.tileentity.TileEntity;
@@ -20,30 +23,29 @@ import net.minecraftforge.fml.relauncher.Side;
 public class PacketGetEnergyData implements IMessage {
 
 	private boolean messageValid;
-	
+
 	private EnergyUnit unit;
 	private BlockPos pos;
 	private EnumFacing side;
-	
+
 	private boolean updateFields = false;
 	private String className;
 	private String modid;
-	private String energyFieldName;
-	private String capacityFieldName;
-	
+	private int energyTarget;
+	private int capacityTarget;
+
 	public PacketGetEnergyData() {
 		this.messageValid = false;
 	}
-	
+
 	public PacketGetEnergyData(EnergyUnit unit, BlockPos pos, EnumFacing side, boolean updateFields, String... args) {
 		this.unit = unit;
 		this.pos = pos;
 		this.side = side;
 		if(updateFields) {
 			this.updateFields = true;
-			this.className = args[0];
-			this.energyFieldName = args[1];
-			this.capacityFieldName = args[2];
+			this.energyTarget = SyncTargetRegistry.register(args[0], args[1]);
+			this.capacityTarget = SyncTargetRegistry.register(args[0], args[2]);
 		} else {
 			this.modid = args[0];
 			this.className = args[1];
@@ -51,19 +53,32 @@ public class PacketGetEnergyData implements IMessage {
 		this.messageValid = true;
 	}
 
+	public PacketGetEnergyData(EnergyUnit unit, BlockPos pos, EnumFacing side, int energyTarget, int capacityTarget) {
+		this.unit = unit;
+		this.pos = pos;
+		this.side = side;
+		this.updateFields = true;
+		this.energyTarget = energyTarget;
+		this.capacityTarget = capacityTarget;
+		this.messageValid = true;
+	}
+
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
 			this.unit = NetworkUtils.readEnergyUnit(buf);
 			this.pos = NetworkUtils.readBlockPos(buf);
 			this.side = NetworkUtils.readEnumFacing(buf);
-			this.className = ByteBufUtils.readUTF8String(buf);
 			this.updateFields = buf.readBoolean();
 			if(this.updateFields) {
-				this.energyFieldName = ByteBufUtils.readUTF8String(buf);
-				this.capacityFieldName = ByteBufUtils.readUTF8String(buf);
-			} else
+				this.energyTarget = NetworkUtils.readVarInt(buf);
+				this.capacityTarget = NetworkUtils.readVarInt(buf);
+			} else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -75,28 +90,37 @@ public class PacketGetEnergyData implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if(!this.messageValid)
 			return;
+		NetworkUtils.writeWireVersion(buf);
 		NetworkUtils.writeEnergyUnit(buf, this.unit);
 		NetworkUtils.writeBlockPos(buf, this.pos);
 		NetworkUtils.writeEnumFacing(buf, this.side);
-		ByteBufUtils.writeUTF8String(buf, this.className);
 		buf.writeBoolean(this.updateFields);
 		if(this.updateFields) {
-			ByteBufUtils.writeUTF8String(buf, this.energyFieldName);
-			ByteBufUtils.writeUTF8String(buf, this.capacityFieldName);
-		} else
+			NetworkUtils.writeVarInt(buf, this.energyTarget);
+			NetworkUtils.writeVarInt(buf, this.capacityTarget);
+		} else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
-	
+
 	public static class Handler implements IMessageHandler<PacketGetEnergyData, IMessage> {
 
 		@Override
 		public IMessage onMessage(PacketGetEnergyData message, MessageContext ctx) {
-			if(!message.messageValid && ctx.side != Side.SERVER)
+			if(!message.messageValid || ctx.side != Side.SERVER)
 				return null;
+			TileSnapshot snapshot = SnapshotManager.getSnapshot(ctx.getServerHandler().player, message.pos);
+			if (snapshot != null) {
+				Long energy = snapshot.getEnergyStored(message.side, message.unit);
+				Long capacity = snapshot.getCapacity(message.side, message.unit);
+				if (energy != null && capacity != null)
+					return getReply(message, energy, capacity);
+			}
 			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(() -> processMessage(message, ctx));
 			return null;
 		}
-		
+
 		void processMessage(PacketGetEnergyData message, MessageContext ctx) {
 			if(!ctx.getServerHandler().player.getServerWorld().isBlockLoaded(message.pos))
 				return;
@@ -105,14 +129,19 @@ public class PacketGetEnergyData implements IMessage {
 				return;
 			if (!EnergyUtils.hasSupport(te, message.side))
 				return;
-			long energy = EnergyUtils.getEnergyStored(te, message.side, message.unit);
-			long capacity = EnergyUtils.getCapacity(te, message.side, message.unit);
+			long energy = ResponseCache.getEnergyStored(te, message.side, message.unit);
+			long capacity = ResponseCache.getCapacity(te, message.side, message.unit);
+			PacketHandler.sendTo(getReply(message, energy, capacity), ctx.getServerHandler().player);
+			SnapshotManager.trackEnergyStored(te, message.side, message.unit);
+			SnapshotManager.trackCapacity(te, message.side, message.unit);
+		}
+
+		private IMessage getReply(PacketGetEnergyData message, long energy, long capacity) {
 			if(message.updateFields)
-				PacketHandler.INSTANCE.sendTo(new PacketReturnEnergyData(energy, capacity, true, message.className, message.energyFieldName, message.capacityFieldName), ctx.getServerHandler().player);
-			else
-				PacketHandler.INSTANCE.sendTo(new PacketReturnEnergyData(energy, capacity, false, message.modid, message.className), ctx.getServerHandler().player);
+				return new PacketReturnEnergyData(energy, capacity, message.energyTarget, message.capacityTarget);
+			return new PacketReturnEnergyData(energy, capacity, message.modid, message.className);
 		}
-		
+
 	}
 
 }
@@ -1,9 +1,8 @@
 package cjminecraft.core.network.energy;
 
-import java.lang.reflect.Field;
-
 import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyData;
+import cjminecraft.core.network.SyncTargetRegistry;
 import cjminecraft.core.util.NetworkUtils;
 import cjminecraft.core.energy.EnergyUtils;
 import io.netty.buffer.ByteBuf;
@@ -22,37 +21,62 @@ public class PacketReturnCapacity implements IMessage {
 
 	private boolean updateFields = false;
 	private String className;
-	private String capacityFieldName;
+	private int capacityTarget;
 	private String modid;
 
 	public PacketReturnCapacity() {
 		this.messageValid = false;
 	}
 
+	/**
+	 * Send the capacity to be cached on the client
+	 */
+	public PacketReturnCapacity(long capacity, String modid, String className) {
+		this.capacity = capacity;
+		this.modid = modid;
+		this.className = className;
+		this.messageValid = true;
+	}
+
+	/**
+	 * @deprecated Registering the fields here gives an id from the registry of
+	 *             whichever side builds the message, which the client will not
+	 *             have. Use {@link #PacketReturnCapacity(long, int)} with a
+	 *             target registered on the client, or
+	 *             {@link #PacketReturnCapacity(long, String, String)} to cache
+	 *             the value
+	 */
+	@Deprecated
 	public PacketReturnCapacity(long capacity, boolean updateFields, String... args) {
 		this.capacity = capacity;
-		if (updateFields) {
-			this.updateFields = true;
-			this.className = args[0];
-			this.capacityFieldName = args[1];
-		} else {
-			this.modid = args[0];
-			this.className = args[1];
-		}
+		if (updateFields)
+			throw new IllegalArgumentException(
+					"Field names can no longer be sent, register a sync target on the client and send its id");
+		this.modid = args[0];
+		this.className = args[1];
+		this.messageValid = true;
+	}
+
+	public PacketReturnCapacity(long capacity, int capacityTarget) {
+		this.capacity = capacity;
+		this.updateFields = true;
+		this.capacityTarget = capacityTarget;
 		this.messageValid = true;
 	}
 
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
-			this.capacity = buf.readLong();
-			this.className = ByteBufUtils.readUTF8String(buf);
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.capacity = NetworkUtils.readVarLong(buf);
 			this.updateFields = buf.readBoolean();
 			if (this.updateFields)
-				this.capacityFieldName = ByteBufUtils.readUTF8String(buf);
-			else
+				this.capacityTarget = NetworkUtils.readVarInt(buf);
+			else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
-
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -64,13 +88,15 @@ public class PacketReturnCapacity implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if (!this.messageValid)
 			return;
-		buf.writeLong(this.capacity);
-		ByteBufUtils.writeUTF8String(buf, this.className);
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarLong(buf, this.capacity);
 		buf.writeBoolean(this.updateFields);
 		if (this.updateFields)
-			ByteBufUtils.writeUTF8String(buf, this.capacityFieldName);
-		else
+			NetworkUtils.writeVarInt(buf, this.capacityTarget);
+		else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
 
 	public static class Handler implements IMessageHandler<PacketReturnCapacity, IMessage> {
@@ -84,16 +110,9 @@ public class PacketReturnCapacity implements IMessage {
 		}
 
 		void processMessage(PacketReturnCapacity message) {
-			if (message.updateFields) {
-				try {
-					Class clazz = Class.forName(message.className);
-					Field capacityField = clazz.getDeclaredField(message.capacityFieldName);
-					capacityField.setLong(clazz, message.capacity);
-				} catch (Exception e) {
-					CJCore.logger.catching(e);
-					return;
-				}
-			} else {
+			if (message.updateFields)
+				SyncTargetRegistry.setLong(message.capacityTarget, message.capacity);
+			else {
 				EnergyData data = new EnergyData().setCapacity(message.capacity);
 				EnergyUtils.addCachedEnergyData(message.modid, message.className, data);
 			}
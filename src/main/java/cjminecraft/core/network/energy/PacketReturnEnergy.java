@@ -1,10 +1,10 @@
 package cjminecraft.core.network.energy;
 
-import java.lang.reflect.Field;
-
 import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyData;
 import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
@@ -22,34 +22,61 @@ public class PacketReturnEnergy implements IMessage {
 	private boolean updateFields = false;
 	private String className;
 	private String modid;
-	private String energyFieldName;
+	private int energyTarget;
 
 	public PacketReturnEnergy() {
 		this.messageValid = false;
 	}
 
+	/**
+	 * Send the energy to be cached on the client
+	 */
+	public PacketReturnEnergy(long energy, String modid, String className) {
+		this.energy = energy;
+		this.modid = modid;
+		this.className = className;
+		this.messageValid = true;
+	}
+
+	/**
+	 * @deprecated Registering the fields here gives an id from the registry of
+	 *             whichever side builds the message, which the client will not
+	 *             have. Use {@link #PacketReturnEnergy(long, int)} with a
+	 *             target registered on the client, or
+	 *             {@link #PacketReturnEnergy(long, String, String)} to cache
+	 *             the value
+	 */
+	@Deprecated
 	public PacketReturnEnergy(long energy, boolean updateFields, String... args) {
 		this.energy = energy;
-		if (updateFields) {
-			this.className = args[0];
-			this.energyFieldName = args[1];
-		} else {
-			this.modid = args[0];
-			this.className = args[1];
-		}
+		if (updateFields)
+			throw new IllegalArgumentException(
+					"Field names can no longer be sent, register a sync target on the client and send its id");
+		this.modid = args[0];
+		this.className = args[1];
+		this.messageValid = true;
+	}
+
+	public PacketReturnEnergy(long energy, int energyTarget) {
+		this.energy = energy;
+		this.updateFields = true;
+		this.energyTarget = energyTarget;
 		this.messageValid = true;
 	}
 
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
-			this.energy = buf.readLong();
-			this.className = ByteBufUtils.readUTF8String(buf);
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.energy = NetworkUtils.readVarLong(buf);
 			this.updateFields = buf.readBoolean();
 			if (this.updateFields)
-				this.energyFieldName = ByteBufUtils.readUTF8String(buf);
-			else
+				this.energyTarget = NetworkUtils.readVarInt(buf);
+			else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -61,13 +88,15 @@ public class PacketReturnEnergy implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if (!this.messageValid)
 			return;
-		buf.writeLong(this.energy);
-		ByteBufUtils.writeUTF8String(buf, this.className);
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarLong(buf, this.energy);
 		buf.writeBoolean(this.updateFields);
 		if (this.updateFields)
-			ByteBufUtils.writeUTF8String(buf, this.energyFieldName);
-		else
+			NetworkUtils.writeVarInt(buf, this.energyTarget);
+		else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
 
 	public static class Handler implements IMessageHandler<PacketReturnEnergy, IMessage> {
@@ -81,16 +110,9 @@ public class PacketReturnEnergy implements IMessage {
 		}
 
 		void processMessage(PacketReturnEnergy message) {
-			if (message.updateFields) {
-				try {
-					Class clazz = Class.forName(message.className);
-					Field capacityField = clazz.getDeclaredField(message.energyFieldName);
-					capacityField.setLong(clazz, message.energy);
-				} catch (Exception e) {
-					CJCore.logger.catching(e);
-					return;
-				}
-			} else {
+			if (message.updateFields)
+				SyncTargetRegistry.setLong(message.energyTarget, message.energy);
+			else {
 				EnergyData data = new EnergyData().setEnergy(message.energy);
 				EnergyUtils.addCachedEnergyData(message.modid, message.className, data);
 			}
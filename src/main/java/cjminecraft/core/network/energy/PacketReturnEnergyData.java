@@ -1,10 +1,10 @@
 package cjminecraft.core.network.energy;
 
-import java.lang.reflect.Field;
-
 import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyData;
 import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
@@ -23,40 +23,69 @@ public class PacketReturnEnergyData implements IMessage {
 	private boolean updateFields = false;
 	private String className;
 	private String modid;
-	private String energyFieldName;
-	private String capacityFieldName;
+	private int energyTarget;
+	private int capacityTarget;
 
 	public PacketReturnEnergyData() {
 		this.messageValid = false;
 	}
 
+	/**
+	 * Send the energy and capacity to be cached on the client
+	 */
+	public PacketReturnEnergyData(long energy, long capacity, String modid, String className) {
+		this.energy = energy;
+		this.capacity = capacity;
+		this.modid = modid;
+		this.className = className;
+		this.messageValid = true;
+	}
+
+	/**
+	 * @deprecated Registering the fields here gives an id from the registry of
+	 *             whichever side builds the message, which the client will not
+	 *             have. Use
+	 *             {@link #PacketReturnEnergyData(long, long, int, int)} with a
+	 *             target registered on the client, or
+	 *             {@link #PacketReturnEnergyData(long, long, String, String)}
+	 *             to cache the value
+	 */
+	@Deprecated
 	public PacketReturnEnergyData(long energy, long capacity, boolean updateFields, String... args) {
 		this.energy = energy;
 		this.capacity = capacity;
-		if (updateFields) {
-			this.updateFields = true;
-			this.className = args[0];
-			this.energyFieldName = args[1];
-			this.capacityFieldName = args[2];
-		} else {
-			this.modid = args[0];
-			this.className = args[1];
-		}
+		if (updateFields)
+			throw new IllegalArgumentException(
+					"Field names can no longer be sent, register a sync target on the client and send its id");
+		this.modid = args[0];
+		this.className = args[1];
+		this.messageValid = true;
+	}
+
+	public PacketReturnEnergyData(long energy, long capacity, int energyTarget, int capacityTarget) {
+		this.energy = energy;
+		this.capacity = capacity;
+		this.updateFields = true;
+		this.energyTarget = energyTarget;
+		this.capacityTarget = capacityTarget;
 		this.messageValid = true;
 	}
 
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
-			this.energy = buf.readLong();
-			this.capacity = buf.readLong();
-			this.className = ByteBufUtils.readUTF8String(buf);
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.energy = NetworkUtils.readVarLong(buf);
+			this.capacity = NetworkUtils.readVarLong(buf);
 			this.updateFields = buf.readBoolean();
 			if (this.updateFields) {
-				this.energyFieldName = ByteBufUtils.readUTF8String(buf);
-				this.capacityFieldName = ByteBufUtils.readUTF8String(buf);
-			} else
+				this.energyTarget = NetworkUtils.readVarInt(buf);
+				this.capacityTarget = NetworkUtils.readVarInt(buf);
+			} else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -68,15 +97,17 @@ public class PacketReturnEnergyData implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if (!this.messageValid)
 			return;
-		buf.writeLong(this.energy);
-		buf.writeLong(this.capacity);
-		ByteBufUtils.writeUTF8String(buf, this.className);
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarLong(buf, this.energy);
+		NetworkUtils.writeVarLong(buf, this.capacity);
 		buf.writeBoolean(this.updateFields);
 		if (this.updateFields) {
-			ByteBufUtils.writeUTF8String(buf, this.energyFieldName);
-			ByteBufUtils.writeUTF8String(buf, this.capacityFieldName);
-		} else
+			NetworkUtils.writeVarInt(buf, this.energyTarget);
+			NetworkUtils.writeVarInt(buf, this.capacityTarget);
+		} else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
 
 	public static class Handler implements IMessageHandler<PacketReturnEnergyData, IMessage> {
@@ -91,16 +122,8 @@ public class PacketReturnEnergyData implements IMessage {
 
 		void processMessage(PacketReturnEnergyData message) {
 			if (message.updateFields) {
-				try {
-					Class clazz = Class.forName(message.className);
-					Field energyField = clazz.getDeclaredField(message.energyFieldName);
-					Field capacityField = clazz.getDeclaredField(message.capacityFieldName);
-					energyField.setLong(clazz, message.energy);
-					capacityField.setLong(clazz, message.capacity);
-				} catch (Exception e) {
-					CJCore.logger.catching(e);
-					return;
-				}
+				SyncTargetRegistry.setLong(message.energyTarget, message.energy);
+				SyncTargetRegistry.setLong(message.capacityTarget, message.capacity);
 			} else {
 				EnergyData data = new EnergyData().setEnergy(message.energy).setCapacity(message.capacity);
 				EnergyUtils.addCachedEnergyData(message.modid, message.className, data);
@@ -4,7 +4,11 @@ import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyUtils;
 import cjminecraft.core.fluid.FluidUtils;
 import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
 import cjminecraft.core.network.energy.PacketReturnEnergyData;
+import cjminecraft.core.network.sync.ResponseCache;
+import cjminecraft.core.network.sync.SnapshotManager;
+import cjminecraft.core.network.sync.SnapshotManager.TileSnapshot;
 import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.tileentity.TileEntity;
@@ -30,8 +34,8 @@ public class PacketGetFluidData implements IMessage {
 	private boolean updateFields = false;
 	private String className;
 	private String modid;
-	private String capacityFieldName;
-	private String fluidStackFieldName;
+	private int capacityTarget;
+	private int fluidStackTarget;
 	
 	public PacketGetFluidData() {
 		this.messageValid = false;
@@ -43,9 +47,8 @@ public class PacketGetFluidData implements IMessage {
 		this.side = side;
 		if(updateFields) {
 			this.updateFields = true;
-			this.className = args[0];
-			this.capacityFieldName = args[1];
-			this.fluidStackFieldName = args[2];
+			this.capacityTarget = SyncTargetRegistry.register(args[0], args[1]);
+			this.fluidStackTarget = SyncTargetRegistry.register(args[0], args[2]);
 		} else {
 			this.modid = args[0];
 			this.className = args[1];
@@ -53,19 +56,34 @@ public class PacketGetFluidData implements IMessage {
 		this.messageValid = true;
 	}
 	
+	public PacketGetFluidData(int tankIndex, BlockPos pos, EnumFacing side, int capacityTarget, int fluidStackTarget) {
+		this.tankIndex = tankIndex;
+		this.pos = pos;
+		this.side = side;
+		this.updateFields = true;
+		this.capacityTarget = capacityTarget;
+		this.fluidStackTarget = fluidStackTarget;
+		this.messageValid = true;
+	}
+	
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
-			this.tankIndex = buf.readInt();
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.tankIndex = NetworkUtils.readVarInt(buf);
+			if (this.tankIndex < 0)
+				return;
 			this.pos = NetworkUtils.readBlockPos(buf);
 			this.side = NetworkUtils.readEnumFacing(buf);
-			this.className = ByteBufUtils.readUTF8String(buf);
 			this.updateFields = buf.readBoolean();
 			if(this.updateFields) {
-				this.capacityFieldName = ByteBufUtils.readUTF8String(buf);
-				this.fluidStackFieldName = ByteBufUtils.readUTF8String(buf);
-			} else
+				this.capacityTarget = NetworkUtils.readVarInt(buf);
+				this.fluidStackTarget = NetworkUtils.readVarInt(buf);
+			} else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -77,24 +95,30 @@ public class PacketGetFluidData implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if(!this.messageValid)
 			return;
-		buf.writeInt(this.tankIndex);
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarInt(buf, this.tankIndex);
 		NetworkUtils.writeBlockPos(buf, this.pos);
 		NetworkUtils.writeEnumFacing(buf, this.side);
-		ByteBufUtils.writeUTF8String(buf, this.className);
 		buf.writeBoolean(this.updateFields);
 		if(this.updateFields) {
-			ByteBufUtils.writeUTF8String(buf, this.capacityFieldName);
-			ByteBufUtils.writeUTF8String(buf, this.fluidStackFieldName);
-		} else
+			NetworkUtils.writeVarInt(buf, this.capacityTarget);
+			NetworkUtils.writeVarInt(buf, this.fluidStackTarget);
+		} else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
 	
 	public static class Handler implements IMessageHandler<PacketGetFluidData, IMessage> {
 		
 		@Override
 		public IMessage onMessage(PacketGetFluidData message, MessageContext ctx) {
-			if(!message.messageValid && ctx.side != Side.SERVER)
+			if(!message.messageValid || ctx.side != Side.SERVER)
 				return null;
+			TileSnapshot snapshot = SnapshotManager.getSnapshot(ctx.getServerHandler().player, message.pos);
+			if (snapshot != null && snapshot.hasFluid(message.side, message.tankIndex))
+				return getReply(message, snapshot.getFluidCapacity(message.side, message.tankIndex),
+						snapshot.getFluidStack(message.side, message.tankIndex));
 			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(() -> processMessage(message, ctx));
 			return null;
 		}
@@ -107,12 +131,16 @@ public class PacketGetFluidData implements IMessage {
 				return;
 			if (!FluidUtils.hasSupport(te, message.side))
 				return;
-			int capacity = FluidUtils.getCapacity(te, message.side, message.tankIndex);
-			FluidStack fluidStack = FluidUtils.getFluidStack(te, message.side, message.tankIndex);
+			int capacity = ResponseCache.getFluidCapacity(te, message.side, message.tankIndex);
+			FluidStack fluidStack = ResponseCache.getFluidStack(te, message.side, message.tankIndex);
+			PacketHandler.sendTo(getReply(message, capacity, fluidStack), ctx.getServerHandler().player);
+			SnapshotManager.trackFluid(te, message.side, message.tankIndex);
+		}
+		
+		private IMessage getReply(PacketGetFluidData message, int capacity, FluidStack fluidStack) {
 			if(message.updateFields)
-				PacketHandler.INSTANCE.sendTo(new PacketReturnFluidData(capacity, fluidStack, true, message.className, message.capacityFieldName, message.fluidStackFieldName), ctx.getServerHandler().player);
-			else
-				PacketHandler.INSTANCE.sendTo(new PacketReturnFluidData(capacity, fluidStack, false, message.modid, message.className), ctx.getServerHandler().player);
+				return new PacketReturnFluidData(capacity, fluidStack, message.capacityTarget, message.fluidStackTarget);
+			return new PacketReturnFluidData(capacity, fluidStack, message.modid, message.className);
 		}
 		
 	}
@@ -1,15 +1,14 @@
 package cjminecraft.core.network.fluid;
 
-import java.lang.reflect.Field;
-
 import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyData;
 import cjminecraft.core.energy.EnergyUtils;
 import cjminecraft.core.fluid.FluidUtils;
+import cjminecraft.core.network.SyncTargetRegistry;
 import cjminecraft.core.network.energy.PacketReturnEnergyData;
+import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.FluidTankInfo;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
@@ -28,42 +27,69 @@ public class PacketReturnFluidData implements IMessage {
 	private boolean updateFields = false;
 	private String className;
 	private String modid;
-	private String capacityFieldName;
-	private String fluidStackFieldName;
+	private int capacityTarget;
+	private int fluidStackTarget;
 	
 	public PacketReturnFluidData() {
 		this.messageValid = false;
 	}
 	
+	/**
+	 * Send the capacity and fluid to be cached on the client
+	 */
+	public PacketReturnFluidData(int capacity, FluidStack fluidStack, String modid, String className) {
+		this.capacity = capacity;
+		this.fluidStack = fluidStack;
+		this.modid = modid;
+		this.className = className;
+		this.messageValid = true;
+	}
+
+	/**
+	 * @deprecated Registering the fields here gives an id from the registry of
+	 *             whichever side builds the message, which the client will not
+	 *             have. Use
+	 *             {@link #PacketReturnFluidData(int, FluidStack, int, int)}
+	 *             with a target registered on the client, or
+	 *             {@link #PacketReturnFluidData(int, FluidStack, String, String)}
+	 *             to cache the value
+	 */
+	@Deprecated
 	public PacketReturnFluidData(int capacity, FluidStack fluidStack, boolean updateFields, String... args) {
 		this.capacity = capacity;
 		this.fluidStack = fluidStack;
-		this.updateFields = updateFields;
-		if (updateFields) {
-			this.updateFields = true;
-			this.className = args[0];
-			this.capacityFieldName = args[1];
-			this.fluidStackFieldName = args[2];
-		} else {
-			this.modid = args[0];
-			this.className = args[1];
-		}
+		if (updateFields)
+			throw new IllegalArgumentException(
+					"Field names can no longer be sent, register a sync target on the client and send its id");
+		this.modid = args[0];
+		this.className = args[1];
+		this.messageValid = true;
+	}
+	
+	public PacketReturnFluidData(int capacity, FluidStack fluidStack, int capacityTarget, int fluidStackTarget) {
+		this.capacity = capacity;
+		this.fluidStack = fluidStack;
+		this.updateFields = true;
+		this.capacityTarget = capacityTarget;
+		this.fluidStackTarget = fluidStackTarget;
 		this.messageValid = true;
 	}
 
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
-			this.capacity = buf.readInt();
-			if(buf.readBoolean())
-				this.fluidStack = FluidStack.loadFluidStackFromNBT(ByteBufUtils.readTag(buf));
-			this.className = ByteBufUtils.readUTF8String(buf);
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.capacity = NetworkUtils.readVarInt(buf);
+			this.fluidStack = NetworkUtils.readFluidStack(buf);
 			this.updateFields = buf.readBoolean();
 			if(this.updateFields) {
-				this.capacityFieldName = ByteBufUtils.readUTF8String(buf);
-				this.fluidStackFieldName = ByteBufUtils.readUTF8String(buf);
-			} else
+				this.capacityTarget = NetworkUtils.readVarInt(buf);
+				this.fluidStackTarget = NetworkUtils.readVarInt(buf);
+			} else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -75,17 +101,17 @@ public class PacketReturnFluidData implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if(!this.messageValid)
 			return;
-		buf.writeInt(this.capacity);
-		buf.writeBoolean(this.fluidStack != null);
-		if(this.fluidStack != null)
-			ByteBufUtils.writeTag(buf, this.fluidStack.writeToNBT(new NBTTagCompound()));
-		ByteBufUtils.writeUTF8String(buf, this.className);
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarInt(buf, this.capacity);
+		NetworkUtils.writeFluidStack(buf, this.fluidStack);
 		buf.writeBoolean(this.updateFields);
 		if(this.updateFields) {
-			ByteBufUtils.writeUTF8String(buf, this.capacityFieldName);
-			ByteBufUtils.writeUTF8String(buf, this.fluidStackFieldName);
-		} else
+			NetworkUtils.writeVarInt(buf, this.capacityTarget);
+			NetworkUtils.writeVarInt(buf, this.fluidStackTarget);
+		} else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
 	
 	public static class Handler implements IMessageHandler<PacketReturnFluidData, IMessage> {
@@ -100,16 +126,8 @@ public class PacketReturnFluidData implements IMessage {
 
 		void processMessage(PacketReturnFluidData message) {
 			if (message.updateFields) {
-				try {
-					Class clazz = Class.forName(message.className);
-					Field capacityField = clazz.getDeclaredField(message.capacityFieldName);
-					Field fluidStackField = clazz.getDeclaredField(message.fluidStackFieldName);
-					capacityField.setInt(clazz, message.capacity);
-					fluidStackField.set(clazz, message.fluidStack);
-				} catch (Exception e) {
-					CJCore.logger.catching(e);
-					return;
-				}
+				SyncTargetRegistry.setInt(message.capacityTarget, message.capacity);
+				SyncTargetRegistry.setObject(message.fluidStackTarget, message.fluidStack);
 			} else {
 				FluidUtils.addCachedFluidData(message.modid, message.className, new FluidTankInfo(message.fluidStack, message.capacity));
 			}
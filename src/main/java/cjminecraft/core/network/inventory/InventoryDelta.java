@@ -0,0 +1,360 @@
+package cjminecraft.core.network.inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+
+/**
+ * The slots of an inventory which have changed since the client was last
+ * sent it. The server remembers a hash of every slot it last sent to each
+ * watcher and the client remembers every slot it was sent, so only the slots
+ * which changed need to be sent again. Each delta has a version, and when the
+ * client does not hold the version a delta was made against the whole
+ * inventory is sent again
+ *
+ * @author CJMinecraft
+ *
+ */
+public class InventoryDelta {
+
+	/**
+	 * The version a client has when it holds nothing. A delta made against
+	 * this version holds the whole inventory
+	 */
+	public static final int NO_VERSION = 0;
+
+	/**
+	 * The most inventories tracked for a single player, and held by the
+	 * client. When full the least recently used inventory is forgotten and
+	 * will be sent whole next time
+	 */
+	public static final int MAX_TRACKED = 64;
+
+	private static final Map<UUID, Map<String, Watcher>> watchers = new HashMap<UUID, Map<String, Watcher>>();
+	private static final Map<String, Holder> holders = new LinkedHashMap<String, Holder>(16, 0.75F, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Holder> eldest) {
+			return size() > MAX_TRACKED;
+		}
+	};
+
+	private int baseVersion;
+	private int version;
+	private int size;
+	private int[] slots;
+	private ItemStack[] stacks;
+
+	private InventoryDelta(int baseVersion, int version, int size, int[] slots, ItemStack[] stacks) {
+		this.baseVersion = baseVersion;
+		this.version = version;
+		this.size = size;
+		this.slots = slots;
+		this.stacks = stacks;
+	}
+
+	/**
+	 * Get the key an inventory synced into a {@link SyncTargetRegistry} target
+	 * is held under
+	 *
+	 * @param target
+	 *            The id of the target
+	 * @return The key
+	 */
+	public static String getKey(int target) {
+		return "#" + target;
+	}
+
+	/**
+	 * Get the key an inventory synced into the inventory cache is held under
+	 *
+	 * @param modid
+	 *            The modid the inventory is cached under
+	 * @param className
+	 *            The class name the inventory is cached under
+	 * @return The key
+	 */
+	public static String getKey(String modid, String className) {
+		return modid + ":" + className;
+	}
+
+	/**
+	 * Work out which slots have changed since the player was last sent the
+	 * inventory
+	 *
+	 * @param player
+	 *            The player being sent the inventory
+	 * @param key
+	 *            The key the client holds the inventory under
+	 * @param pos
+	 *            The position of the inventory
+	 * @param side
+	 *            The side of the inventory
+	 * @param inventory
+	 *            Every slot of the inventory, including empty slots
+	 * @param knownVersion
+	 *            The version the client says it holds or -1 to trust the
+	 *            version last sent
+	 * @return The delta, which is empty if nothing has changed
+	 */
+	public static InventoryDelta compute(EntityPlayer player, String key, BlockPos pos, @Nullable EnumFacing side,
+			List<ItemStack> inventory, int knownVersion) {
+		Map<String, Watcher> tracked = watchers.get(player.getUniqueID());
+		if (tracked == null) {
+			tracked = new LinkedHashMap<String, Watcher>(16, 0.75F, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Watcher> eldest) {
+					return size() > MAX_TRACKED;
+				}
+			};
+			watchers.put(player.getUniqueID(), tracked);
+		}
+		Watcher watcher = tracked.get(key);
+		boolean full = watcher == null || !watcher.pos.equals(pos) || watcher.side != side
+				|| (knownVersion != -1 && knownVersion != watcher.version) || watcher.hashes.length != inventory.size();
+		if (full) {
+			watcher = new Watcher(pos, side, inventory.size());
+			tracked.put(key, watcher);
+		}
+		List<Integer> changed = new ArrayList<Integer>();
+		for (int slot = 0; slot < inventory.size(); slot++) {
+			int hash = hash(inventory.get(slot));
+			if (full ? !inventory.get(slot).isEmpty() : hash != watcher.hashes[slot])
+				changed.add(slot);
+			watcher.hashes[slot] = hash;
+		}
+		if (!full && changed.isEmpty())
+			return new InventoryDelta(watcher.version, watcher.version, inventory.size(), new int[0],
+					new ItemStack[0]);
+		int baseVersion = full ? NO_VERSION : watcher.version;
+		watcher.version = nextVersion(watcher.version);
+		int[] slots = new int[changed.size()];
+		ItemStack[] stacks = new ItemStack[changed.size()];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = changed.get(i);
+			stacks[i] = inventory.get(slots[i]).copy();
+		}
+		return new InventoryDelta(baseVersion, watcher.version, inventory.size(), slots, stacks);
+	}
+
+	/**
+	 * @return Whether no slots have changed, in which case there is no need to
+	 *         send the delta unless the client needs to be told again
+	 */
+	public boolean isEmpty() {
+		return this.baseVersion != NO_VERSION && this.slots.length == 0;
+	}
+
+	/**
+	 * Forget the inventory last sent to the player under the given key, so the
+	 * next delta holds the whole inventory
+	 *
+	 * @param player
+	 *            The player
+	 * @param key
+	 *            The key the client holds the inventory under
+	 */
+	public static void reset(EntityPlayer player, String key) {
+		Map<String, Watcher> tracked = watchers.get(player.getUniqueID());
+		if (tracked != null)
+			tracked.remove(key);
+	}
+
+	/**
+	 * Forget every inventory sent to the player. Called when the player logs
+	 * out
+	 *
+	 * @param player
+	 *            The player
+	 */
+	public static void removePlayer(EntityPlayer player) {
+		watchers.remove(player.getUniqueID());
+	}
+
+	/**
+	 * Get the version of the inventory the client holds under the given key
+	 *
+	 * @param key
+	 *            The key the inventory is held under
+	 * @return The version or {@link #NO_VERSION} if nothing is held
+	 */
+	public static int getKnownVersion(String key) {
+		Holder holder = holders.get(key);
+		return holder == null ? NO_VERSION : holder.version;
+	}
+
+	/**
+	 * Apply the delta to the inventory the client holds under the given key
+	 *
+	 * @param key
+	 *            The key the inventory is held under
+	 * @return Every non empty stack in the updated inventory, or null if the
+	 *         delta was made against a version the client does not hold. In
+	 *         that case the held inventory is dropped so the next request asks
+	 *         for the whole inventory. A subscribed inventory must ask for it
+	 *         with {@link PacketResyncInventory}
+	 */
+	@Nullable
+	public ImmutableList<ItemStack> apply(String key) {
+		Holder holder = holders.get(key);
+		if (this.baseVersion == NO_VERSION) {
+			holder = new Holder(this.size);
+			holders.put(key, holder);
+		} else if (holder == null || holder.version != this.baseVersion || holder.stacks.length != this.size) {
+			CJCore.logger.debug(String.format("Dropping inventory delta for %s made against version %s", key,
+					this.baseVersion));
+			holders.remove(key);
+			return null;
+		}
+		for (int i = 0; i < this.slots.length; i++)
+			holder.stacks[this.slots[i]] = this.stacks[i];
+		holder.version = this.version;
+		ImmutableList.Builder<ItemStack> inventory = ImmutableList.builder();
+		for (ItemStack stack : holder.stacks)
+			if (!stack.isEmpty())
+				inventory.add(stack);
+		return inventory.build();
+	}
+
+	/**
+	 * Forget the inventory the client holds under the given key
+	 *
+	 * @param key
+	 *            The key the inventory is held under
+	 */
+	public static void forget(String key) {
+		holders.remove(key);
+	}
+
+	/**
+	 * Forget every inventory the client holds. Called when the client
+	 * disconnects from the server
+	 */
+	public static void clearClient() {
+		holders.clear();
+	}
+
+	/**
+	 * Write the delta to the {@link ByteBuf}
+	 *
+	 * @param buf
+	 *            The {@link ByteBuf} to write to
+	 */
+	public void write(ByteBuf buf) {
+		NetworkUtils.writeVarInt(buf, this.baseVersion);
+		NetworkUtils.writeVarInt(buf, this.version);
+		NetworkUtils.writeVarInt(buf, this.size);
+		NetworkUtils.writeVarInt(buf, this.slots.length);
+		for (int i = 0; i < this.slots.length; i++) {
+			NetworkUtils.writeVarInt(buf, this.slots[i]);
+			ItemStack stack = this.stacks[i];
+			buf.writeBoolean(!stack.isEmpty());
+			if (!stack.isEmpty()) {
+				NBTTagCompound nbt = stack.serializeNBT();
+				nbt.removeTag("Count");
+				ByteBufUtils.writeTag(buf, nbt);
+				NetworkUtils.writeVarInt(buf, stack.getCount());
+			}
+		}
+	}
+
+	/**
+	 * Read a delta written by {@link #write(ByteBuf)}
+	 *
+	 * @param buf
+	 *            The {@link ByteBuf} to read from
+	 * @return The delta
+	 */
+	public static InventoryDelta read(ByteBuf buf) {
+		int baseVersion = NetworkUtils.readVarInt(buf);
+		int version = NetworkUtils.readVarInt(buf);
+		int size = NetworkUtils.readVarInt(buf);
+		int count = NetworkUtils.readVarInt(buf);
+		if (size < 0 || count < 0 || count > size)
+			throw new IndexOutOfBoundsException(String.format("Bad inventory delta of %s slots in %s", count, size));
+		int[] slots = new int[count];
+		ItemStack[] stacks = new ItemStack[count];
+		for (int i = 0; i < count; i++) {
+			slots[i] = NetworkUtils.readVarInt(buf);
+			if (slots[i] < 0 || slots[i] >= size)
+				throw new IndexOutOfBoundsException(String.format("Slot %s is outside of %s slots", slots[i], size));
+			if (buf.readBoolean()) {
+				stacks[i] = new ItemStack(ByteBufUtils.readTag(buf));
+				stacks[i].setCount(NetworkUtils.readVarInt(buf));
+			} else
+				stacks[i] = ItemStack.EMPTY;
+		}
+		return new InventoryDelta(baseVersion, version, size, slots, stacks);
+	}
+
+	private static int nextVersion(int version) {
+		return version == Integer.MAX_VALUE ? 1 : version + 1;
+	}
+
+	/**
+	 * A hash of everything about the stack which is sent to the client
+	 */
+	private static int hash(ItemStack stack) {
+		if (stack.isEmpty())
+			return 0;
+		int hash = Item.getIdFromItem(stack.getItem());
+		hash = 31 * hash + stack.getMetadata();
+		hash = 31 * hash + stack.getCount();
+		hash = 31 * hash + Objects.hashCode(stack.getTagCompound());
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * What the server last sent a player for a single inventory
+	 */
+	private static class Watcher {
+
+		private final BlockPos pos;
+		private final EnumFacing side;
+		private final int[] hashes;
+		private int version = NO_VERSION;
+
+		private Watcher(BlockPos pos, @Nullable EnumFacing side, int size) {
+			this.pos = pos;
+			this.side = side;
+			this.hashes = new int[size];
+		}
+
+	}
+
+	/**
+	 * What the client holds for a single inventory
+	 */
+	private static class Holder {
+
+		private final ItemStack[] stacks;
+		private int version = NO_VERSION;
+
+		private Holder(int size) {
+			this.stacks = new ItemStack[size];
+			for (int i = 0; i < size; i++)
+				this.stacks[i] = ItemStack.EMPTY;
+		}
+
+	}
+
+}
@@ -5,8 +5,13 @@ import com.google.common.collect.ImmutableList;
 import cjminecraft.core.CJCore;
 import cjminecraft.core.inventory.InventoryUtils;
 import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.network.sync.ResponseCache;
+import cjminecraft.core.network.sync.SnapshotManager;
+import cjminecraft.core.network.sync.SnapshotManager.TileSnapshot;
 import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
@@ -32,9 +37,11 @@ public class PacketGetInventory implements IMessage {
 
 	private boolean updateField = false;
 	private String className;
-	private String inventoryFieldName;
+	private int inventoryTarget;
 	private String modid;
 
+	private int knownVersion;
+
 	public PacketGetInventory() {
 		this.messageValid = false;
 	}
@@ -46,12 +53,12 @@ public class PacketGetInventory implements IMessage {
 
 		if (updateField) {
 			this.updateField = true;
-			this.className = args[0];
-			this.inventoryFieldName = args[1];
+			this.inventoryTarget = SyncTargetRegistry.register(args[0], args[1]);
 		} else {
 			this.modid = args[0];
 			this.className = args[1];
 		}
+		this.knownVersion = InventoryDelta.getKnownVersion(getKey());
 		this.messageValid = true;
 	}
 
@@ -67,35 +74,65 @@ public class PacketGetInventory implements IMessage {
 
 		if (updateField) {
 			this.updateField = true;
-			this.className = args[0];
-			this.inventoryFieldName = args[1];
+			this.inventoryTarget = SyncTargetRegistry.register(args[0], args[1]);
 		} else {
 			this.modid = args[0];
 			this.className = args[1];
 		}
 		
+		this.knownVersion = InventoryDelta.getKnownVersion(getKey());
+		this.messageValid = true;
+	}
+
+	public PacketGetInventory(BlockPos pos, EnumFacing side, boolean stacked, int inventoryTarget) {
+		this.pos = pos;
+		this.side = side;
+		this.stacked = stacked;
+		this.updateField = true;
+		this.inventoryTarget = inventoryTarget;
+		this.knownVersion = InventoryDelta.getKnownVersion(getKey());
+		this.messageValid = true;
+	}
+
+	public PacketGetInventory(BlockPos pos, EnumFacing side, boolean stacked, int fromSlot, int toSlot,
+			int inventoryTarget) {
+		this.pos = pos;
+		this.side = side;
+		this.stacked = stacked;
+
+		this.useSlots = true;
+		this.fromSlot = fromSlot;
+		this.toSlot = toSlot;
+
+		this.updateField = true;
+		this.inventoryTarget = inventoryTarget;
+		this.knownVersion = InventoryDelta.getKnownVersion(getKey());
 		this.messageValid = true;
 	}
 
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
 			this.pos = NetworkUtils.readBlockPos(buf);
 			this.side = NetworkUtils.readEnumFacing(buf);
 			this.stacked = buf.readBoolean();
 
 			this.useSlots = buf.readBoolean();
 			if (this.useSlots) {
-				this.fromSlot = buf.readInt();
-				this.toSlot = buf.readInt();
+				this.fromSlot = NetworkUtils.readVarInt(buf);
+				this.toSlot = NetworkUtils.readVarInt(buf);
 			}
 
 			this.updateField = buf.readBoolean();
-			this.className = ByteBufUtils.readUTF8String(buf);
 			if (this.updateField)
-				this.inventoryFieldName = ByteBufUtils.readUTF8String(buf);
-			else
+				this.inventoryTarget = NetworkUtils.readVarInt(buf);
+			else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
+			this.knownVersion = NetworkUtils.readVarInt(buf);
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -107,29 +144,45 @@ public class PacketGetInventory implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if (!this.messageValid)
 			return;
+		NetworkUtils.writeWireVersion(buf);
 		NetworkUtils.writeBlockPos(buf, this.pos);
 		NetworkUtils.writeEnumFacing(buf, this.side);
 		buf.writeBoolean(this.stacked);
 
 		buf.writeBoolean(this.useSlots);
 		if (this.useSlots) {
-			buf.writeInt(this.fromSlot);
-			buf.writeInt(this.toSlot);
+			NetworkUtils.writeVarInt(buf, this.fromSlot);
+			NetworkUtils.writeVarInt(buf, this.toSlot);
 		}
 		buf.writeBoolean(this.updateField);
-		ByteBufUtils.writeUTF8String(buf, this.className);
 		if (this.updateField)
-			ByteBufUtils.writeUTF8String(buf, this.inventoryFieldName);
-		else
+			NetworkUtils.writeVarInt(buf, this.inventoryTarget);
+		else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
+		NetworkUtils.writeVarInt(buf, this.knownVersion);
+	}
+
+	private String getKey() {
+		return this.updateField ? InventoryDelta.getKey(this.inventoryTarget)
+				: InventoryDelta.getKey(this.modid, this.className);
 	}
 
 	public static class Handler implements IMessageHandler<PacketGetInventory, IMessage> {
 
 		@Override
 		public IMessage onMessage(PacketGetInventory message, MessageContext ctx) {
-			if (!message.messageValid && ctx.side != Side.SERVER)
+			if (!message.messageValid || ctx.side != Side.SERVER)
 				return null;
+			if (message.stacked) {
+				TileSnapshot snapshot = SnapshotManager.getSnapshot(ctx.getServerHandler().player, message.pos);
+				ImmutableList<ItemStack> inventory = snapshot == null ? null
+						: snapshot.getInventoryStacked(message.side, message.useSlots ? message.fromSlot : -1,
+								message.toSlot);
+				if (inventory != null)
+					return getReply(message, inventory);
+			}
 			FMLCommonHandler.instance().getWorldThread(ctx.netHandler)
 					.addScheduledTask(() -> processMessage(message, ctx));
 			return null;
@@ -143,24 +196,36 @@ public class PacketGetInventory implements IMessage {
 				return;
 			if (!InventoryUtils.hasSupport(te, message.side))
 				return;
-			ImmutableList<ItemStack> inventory;
-			if (message.stacked)
-				if (message.useSlots)
-					inventory = InventoryUtils.getInventoryStacked(te, message.fromSlot, message.toSlot, message.side);
+			EntityPlayerMP player = ctx.getServerHandler().player;
+			if (!message.stacked) {
+				ImmutableList<ItemStack> slots = message.useSlots
+						? ResponseCache.getInventorySlots(te, message.fromSlot, message.toSlot, message.side)
+						: ResponseCache.getInventorySlots(te, message.side);
+				InventoryDelta delta = InventoryDelta.compute(player, message.getKey(), message.pos, message.side,
+						slots, message.knownVersion);
+				if (message.updateField && delta.isEmpty())
+					return;
+				if (message.updateField)
+					PacketHandler.sendTo(new PacketInventoryDelta(delta, message.inventoryTarget), player);
 				else
-					inventory = InventoryUtils.getInventoryStacked(te, message.side);
-			else if (message.useSlots)
-				inventory = InventoryUtils.getInventory(te, message.fromSlot, message.toSlot, message.side);
+					PacketHandler.sendTo(new PacketInventoryDelta(delta, message.modid, message.className),
+							player);
+				return;
+			}
+			ImmutableList<ItemStack> inventory;
+			if (message.useSlots)
+				inventory = ResponseCache.getInventoryStacked(te, message.fromSlot, message.toSlot, message.side);
 			else
-				inventory = InventoryUtils.getInventory(te, message.side);
+				inventory = ResponseCache.getInventoryStacked(te, message.side);
+			PacketHandler.sendTo(getReply(message, inventory), player);
+			SnapshotManager.trackInventoryStacked(te, message.side, message.useSlots ? message.fromSlot : -1,
+					message.toSlot);
+		}
+
+		private IMessage getReply(PacketGetInventory message, ImmutableList<ItemStack> inventory) {
 			if (message.updateField)
-				PacketHandler.INSTANCE.sendTo(
-						new PacketReturnInventory(inventory, true, message.className, message.inventoryFieldName),
-						ctx.getServerHandler().player);
-			else
-				PacketHandler.INSTANCE.sendTo(
-						new PacketReturnInventory(inventory, false, message.modid, message.className),
-						ctx.getServerHandler().player);
+				return new PacketReturnInventory(inventory, message.inventoryTarget);
+			return new PacketReturnInventory(inventory, message.modid, message.className);
 		}
 	}
 
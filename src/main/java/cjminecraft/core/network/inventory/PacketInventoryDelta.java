@@ -0,0 +1,110 @@
+package cjminecraft.core.network.inventory;
+
+import com.google.common.collect.ImmutableList;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.inventory.InventoryUtils;
+import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+public class PacketInventoryDelta implements IMessage {
+
+	private boolean messageValid;
+
+	private InventoryDelta delta;
+
+	private boolean updateField = false;
+	private int inventoryTarget;
+	private String className;
+	private String modid;
+
+	public PacketInventoryDelta() {
+		this.messageValid = false;
+	}
+
+	public PacketInventoryDelta(InventoryDelta delta, int inventoryTarget) {
+		this.delta = delta;
+		this.updateField = true;
+		this.inventoryTarget = inventoryTarget;
+		this.messageValid = true;
+	}
+
+	public PacketInventoryDelta(InventoryDelta delta, String modid, String className) {
+		this.delta = delta;
+		this.modid = modid;
+		this.className = className;
+		this.messageValid = true;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.delta = InventoryDelta.read(buf);
+			this.updateField = buf.readBoolean();
+			if (this.updateField)
+				this.inventoryTarget = NetworkUtils.readVarInt(buf);
+			else {
+				this.modid = ByteBufUtils.readUTF8String(buf);
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
+		} catch (IndexOutOfBoundsException ioe) {
+			CJCore.logger.catching(ioe);
+			return;
+		}
+		this.messageValid = true;
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		if (!this.messageValid)
+			return;
+		NetworkUtils.writeWireVersion(buf);
+		this.delta.write(buf);
+		buf.writeBoolean(this.updateField);
+		if (this.updateField)
+			NetworkUtils.writeVarInt(buf, this.inventoryTarget);
+		else {
+			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
+	}
+
+	public static class Handler implements IMessageHandler<PacketInventoryDelta, IMessage> {
+
+		@Override
+		public IMessage onMessage(PacketInventoryDelta message, MessageContext ctx) {
+			if (!message.messageValid || ctx.side != Side.CLIENT)
+				return null;
+			Minecraft.getMinecraft().addScheduledTask(() -> processMessage(message));
+			return null;
+		}
+
+		void processMessage(PacketInventoryDelta message) {
+			if (message.updateField) {
+				ImmutableList<ItemStack> inventory = message.delta.apply(InventoryDelta.getKey(message.inventoryTarget));
+				if (inventory != null)
+					SyncTargetRegistry.setObject(message.inventoryTarget, inventory);
+				else
+					PacketHandler.INSTANCE.sendToServer(new PacketResyncInventory(message.inventoryTarget));
+			} else {
+				ImmutableList<ItemStack> inventory = message.delta
+						.apply(InventoryDelta.getKey(message.modid, message.className));
+				if (inventory != null)
+					InventoryUtils.addCachedInventoryData(message.modid, message.className, inventory);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,72 @@
+package cjminecraft.core.network.inventory;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Sent by the client when it has dropped an {@link InventoryDelta} for a
+ * subscribed inventory, so the server sends the whole inventory again
+ *
+ * @author CJMinecraft
+ *
+ */
+public class PacketResyncInventory implements IMessage {
+
+	private boolean messageValid;
+
+	private int inventoryTarget;
+
+	public PacketResyncInventory() {
+		this.messageValid = false;
+	}
+
+	public PacketResyncInventory(int inventoryTarget) {
+		this.inventoryTarget = inventoryTarget;
+		this.messageValid = true;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.inventoryTarget = NetworkUtils.readVarInt(buf);
+		} catch (IndexOutOfBoundsException ioe) {
+			CJCore.logger.catching(ioe);
+			return;
+		}
+		this.messageValid = true;
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		if (!this.messageValid)
+			return;
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarInt(buf, this.inventoryTarget);
+	}
+
+	public static class Handler implements IMessageHandler<PacketResyncInventory, IMessage> {
+
+		@Override
+		public IMessage onMessage(PacketResyncInventory message, MessageContext ctx) {
+			if (!message.messageValid || ctx.side != Side.SERVER)
+				return null;
+			FMLCommonHandler.instance().getWorldThread(ctx.netHandler)
+					.addScheduledTask(() -> processMessage(message, ctx));
+			return null;
+		}
+
+		void processMessage(PacketResyncInventory message, MessageContext ctx) {
+			InventoryDelta.reset(ctx.getServerHandler().player, InventoryDelta.getKey(message.inventoryTarget));
+		}
+
+	}
+
+}
@@ -1,17 +1,14 @@
 package cjminecraft.core.network.inventory;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.List;
-
 import com.google.common.collect.ImmutableList;
 
 import cjminecraft.core.CJCore;
 import cjminecraft.core.inventory.InventoryUtils;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.util.NetworkUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
@@ -26,43 +23,62 @@ public class PacketReturnInventory implements IMessage {
 
 	private boolean updateField = false;
 	private String className;
-	private String inventoryFieldName;
+	private int inventoryTarget;
 	private String modid;
 
 	public PacketReturnInventory() {
 		this.messageValid = false;
 	}
 
+	/**
+	 * Send the inventory to be cached on the client
+	 */
+	public PacketReturnInventory(ImmutableList<ItemStack> inventory, String modid, String className) {
+		this.inventory = inventory;
+		this.modid = modid;
+		this.className = className;
+		this.messageValid = true;
+	}
+
+	/**
+	 * @deprecated Registering the fields here gives an id from the registry of
+	 *             whichever side builds the message, which the client will not
+	 *             have. Use {@link #PacketReturnInventory(ImmutableList, int)}
+	 *             with a target registered on the client, or
+	 *             {@link #PacketReturnInventory(ImmutableList, String, String)}
+	 *             to cache the value
+	 */
+	@Deprecated
 	public PacketReturnInventory(ImmutableList<ItemStack> inventory, boolean updateFields, String... args) {
 		this.inventory = inventory;
-		if (updateFields) {
-			this.updateField = true;
-			this.className = args[0];
-			this.inventoryFieldName = args[1];
-		} else {
-			this.modid = args[0];
-			this.className = args[1];
-		}
+		if (updateFields)
+			throw new IllegalArgumentException(
+					"Field names can no longer be sent, register a sync target on the client and send its id");
+		this.modid = args[0];
+		this.className = args[1];
+		this.messageValid = true;
+	}
+
+	public PacketReturnInventory(ImmutableList<ItemStack> inventory, int inventoryTarget) {
+		this.inventory = inventory;
+		this.updateField = true;
+		this.inventoryTarget = inventoryTarget;
 		this.messageValid = true;
 	}
 
 	@Override
 	public void fromBytes(ByteBuf buf) {
 		try {
-			List<ItemStack> inv = new ArrayList<ItemStack>();
-			int size = buf.readInt();
-			for (int i = 0; i < size; i++) {
-				ItemStack stack = new ItemStack(ByteBufUtils.readTag(buf));
-				stack.setCount(buf.readInt());
-				inv.add(stack);
-			}
-			this.inventory = ImmutableList.<ItemStack>copyOf(inv);
-			this.className = ByteBufUtils.readUTF8String(buf);
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.inventory = NetworkUtils.readItemStacks(buf);
 			this.updateField = buf.readBoolean();
 			if (this.updateField)
-				this.inventoryFieldName = ByteBufUtils.readUTF8String(buf);
-			else
+				this.inventoryTarget = NetworkUtils.readVarInt(buf);
+			else {
 				this.modid = ByteBufUtils.readUTF8String(buf);
+				this.className = ByteBufUtils.readUTF8String(buf);
+			}
 		} catch (IndexOutOfBoundsException ioe) {
 			CJCore.logger.catching(ioe);
 			return;
@@ -74,19 +90,15 @@ public class PacketReturnInventory implements IMessage {
 	public void toBytes(ByteBuf buf) {
 		if (!this.messageValid)
 			return;
-		buf.writeInt(this.inventory.size());
-		for (ItemStack stack : this.inventory) {
-			NBTTagCompound nbt = stack.serializeNBT();
-			nbt.removeTag("count");
-			ByteBufUtils.writeTag(buf, nbt);
-			buf.writeInt(stack.getCount());
-		}
-		ByteBufUtils.writeUTF8String(buf, this.className);
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeItemStacks(buf, this.inventory);
 		buf.writeBoolean(this.updateField);
 		if (this.updateField)
-			ByteBufUtils.writeUTF8String(buf, this.inventoryFieldName);
-		else
+			NetworkUtils.writeVarInt(buf, this.inventoryTarget);
+		else {
 			ByteBufUtils.writeUTF8String(buf, this.modid);
+			ByteBufUtils.writeUTF8String(buf, this.className);
+		}
 	}
 
 	public static class Handler implements IMessageHandler<PacketReturnInventory, IMessage> {
@@ -100,18 +112,10 @@ public class PacketReturnInventory implements IMessage {
 		}
 
 		void processMessage(PacketReturnInventory message) {
-			if (message.updateField) {
-				try {
-					Class clazz = Class.forName(message.className);
-					Field inventoryField = clazz.getDeclaredField(message.inventoryFieldName);
-					inventoryField.set(clazz, message.inventory);
-				} catch (Exception e) {
-					CJCore.logger.catching(e);
-					return;
-				}
-			} else {
+			if (message.updateField)
+				SyncTargetRegistry.setObject(message.inventoryTarget, message.inventory);
+			else
 				InventoryUtils.addCachedInventoryData(message.modid, message.className, message.inventory);
-			}
 		}
 
 	}
@@ -0,0 +1,24 @@
+package cjminecraft.core.network.sync;
+
+import javax.annotation.Nullable;
+
+import cjminecraft.core.util.TileEntityBase;
+import net.minecraft.inventory.Container;
+
+/**
+ * A {@link Container} which shows a {@link TileEntityBase}. Players with it
+ * open are added as viewers to the {@link TileInterestManager} so they are
+ * sent the tile entity's viewer data, and removed when it is closed
+ *
+ * @author CJMinecraft
+ *
+ */
+public interface ITileContainer {
+
+	/**
+	 * @return The tile entity shown by the {@link Container}
+	 */
+	@Nullable
+	TileEntityBase getTileEntity();
+
+}
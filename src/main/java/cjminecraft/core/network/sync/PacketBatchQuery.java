@@ -0,0 +1,108 @@
+package cjminecraft.core.network.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+public class PacketBatchQuery implements IMessage {
+
+	/**
+	 * The most queries which can be sent in a single packet
+	 */
+	public static final int MAX_QUERIES = 256;
+
+	private boolean messageValid;
+
+	private List<SyncQuery> queries;
+
+	public PacketBatchQuery() {
+		this.messageValid = false;
+	}
+
+	public PacketBatchQuery(List<SyncQuery> queries) {
+		if (queries.size() > MAX_QUERIES)
+			throw new IllegalArgumentException(
+					String.format("A batch can hold at most %d queries but got %d", MAX_QUERIES, queries.size()));
+		this.queries = queries;
+		this.messageValid = true;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			int size = NetworkUtils.readVarInt(buf);
+			if (size < 0 || size > MAX_QUERIES)
+				return;
+			this.queries = new ArrayList<SyncQuery>(size);
+			for (int i = 0; i < size; i++) {
+				SyncQuery query = SyncQuery.read(buf);
+				if (query == null)
+					return;
+				this.queries.add(query);
+			}
+		} catch (IndexOutOfBoundsException ioe) {
+			CJCore.logger.catching(ioe);
+			return;
+		}
+		this.messageValid = true;
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		if (!this.messageValid)
+			return;
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarInt(buf, this.queries.size());
+		for (SyncQuery query : this.queries)
+			query.write(buf);
+	}
+
+	public static class Handler implements IMessageHandler<PacketBatchQuery, IMessage> {
+
+		@Override
+		public IMessage onMessage(PacketBatchQuery message, MessageContext ctx) {
+			if (!message.messageValid || ctx.side != Side.SERVER)
+				return null;
+			List<PacketBatchResponse.Result> results = new ArrayList<PacketBatchResponse.Result>(
+					message.queries.size());
+			for (SyncQuery query : message.queries) {
+				PacketBatchResponse.Result result = query.resolve(ctx.getServerHandler().player);
+				if (result == null)
+					break;
+				results.add(result);
+			}
+			if (results.size() == message.queries.size())
+				return results.isEmpty() ? null : new PacketBatchResponse(results);
+			FMLCommonHandler.instance().getWorldThread(ctx.netHandler)
+					.addScheduledTask(() -> processMessage(message, ctx));
+			return null;
+		}
+
+		void processMessage(PacketBatchQuery message, MessageContext ctx) {
+			EntityPlayerMP player = ctx.getServerHandler().player;
+			List<PacketBatchResponse.Result> results = new ArrayList<PacketBatchResponse.Result>(
+					message.queries.size());
+			for (SyncQuery query : message.queries) {
+				PacketBatchResponse.Result result = query.resolve(player.getServerWorld());
+				if (result != null)
+					results.add(result);
+			}
+			if (!results.isEmpty())
+				PacketHandler.sendTo(new PacketBatchResponse(results), player);
+		}
+
+	}
+
+}
@@ -0,0 +1,205 @@
+package cjminecraft.core.network.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+public class PacketBatchResponse implements IMessage {
+
+	private boolean messageValid;
+
+	private List<Result> results;
+
+	public PacketBatchResponse() {
+		this.messageValid = false;
+	}
+
+	public PacketBatchResponse(List<Result> results) {
+		this.results = results;
+		this.messageValid = true;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			int size = NetworkUtils.readVarInt(buf);
+			if (size < 0 || size > PacketBatchQuery.MAX_QUERIES)
+				return;
+			this.results = new ArrayList<Result>(size);
+			for (int i = 0; i < size; i++) {
+				Result result = Result.read(buf);
+				if (result == null)
+					return;
+				this.results.add(result);
+			}
+		} catch (IndexOutOfBoundsException ioe) {
+			CJCore.logger.catching(ioe);
+			return;
+		}
+		this.messageValid = true;
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		if (!this.messageValid)
+			return;
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarInt(buf, this.results.size());
+		for (Result result : this.results)
+			result.write(buf);
+	}
+
+	public static class Handler implements IMessageHandler<PacketBatchResponse, IMessage> {
+
+		@Override
+		public IMessage onMessage(PacketBatchResponse message, MessageContext ctx) {
+			if (!message.messageValid || ctx.side != Side.CLIENT)
+				return null;
+			Minecraft.getMinecraft().addScheduledTask(() -> processMessage(message));
+			return null;
+		}
+
+		void processMessage(PacketBatchResponse message) {
+			for (Result result : message.results)
+				result.apply();
+		}
+
+	}
+
+	/**
+	 * The answer to a single {@link SyncQuery}
+	 */
+	static class Result {
+
+		private final SyncQuery.Type type;
+		private final int[] targets;
+
+		private long energy;
+		private long capacity;
+		private FluidStack fluidStack;
+		private ImmutableList<ItemStack> inventory;
+
+		Result(SyncQuery.Type type, int[] targets) {
+			this.type = type;
+			this.targets = targets;
+		}
+
+		Result setEnergy(long energy) {
+			this.energy = energy;
+			return this;
+		}
+
+		Result setCapacity(long capacity) {
+			this.capacity = capacity;
+			return this;
+		}
+
+		Result setFluidStack(FluidStack fluidStack) {
+			this.fluidStack = fluidStack;
+			return this;
+		}
+
+		Result setInventory(ImmutableList<ItemStack> inventory) {
+			this.inventory = inventory;
+			return this;
+		}
+
+		/**
+		 * Give the values to the targets in the {@link SyncTargetRegistry}
+		 */
+		void apply() {
+			switch (this.type) {
+			case ENERGY:
+				SyncTargetRegistry.setLong(this.targets[0], this.energy);
+				break;
+			case CAPACITY:
+				SyncTargetRegistry.setLong(this.targets[0], this.capacity);
+				break;
+			case ENERGY_DATA:
+				SyncTargetRegistry.setLong(this.targets[0], this.energy);
+				SyncTargetRegistry.setLong(this.targets[1], this.capacity);
+				break;
+			case FLUID:
+				SyncTargetRegistry.setInt(this.targets[0], (int) this.capacity);
+				SyncTargetRegistry.setObject(this.targets[1], this.fluidStack);
+				break;
+			case INVENTORY:
+				SyncTargetRegistry.setObject(this.targets[0], this.inventory);
+				break;
+			}
+		}
+
+		void write(ByteBuf buf) {
+			buf.writeByte(this.type.ordinal());
+			for (int target : this.targets)
+				NetworkUtils.writeVarInt(buf, target);
+			switch (this.type) {
+			case ENERGY:
+				NetworkUtils.writeVarLong(buf, this.energy);
+				break;
+			case CAPACITY:
+				NetworkUtils.writeVarLong(buf, this.capacity);
+				break;
+			case ENERGY_DATA:
+				NetworkUtils.writeVarLong(buf, this.energy);
+				NetworkUtils.writeVarLong(buf, this.capacity);
+				break;
+			case FLUID:
+				NetworkUtils.writeVarLong(buf, this.capacity);
+				NetworkUtils.writeFluidStack(buf, this.fluidStack);
+				break;
+			case INVENTORY:
+				NetworkUtils.writeItemStacks(buf, this.inventory);
+				break;
+			}
+		}
+
+		static Result read(ByteBuf buf) {
+			int ordinal = buf.readUnsignedByte();
+			if (ordinal >= SyncQuery.Type.values().length)
+				return null;
+			SyncQuery.Type type = SyncQuery.Type.values()[ordinal];
+			int[] targets = new int[type.getTargetCount()];
+			for (int i = 0; i < targets.length; i++)
+				targets[i] = NetworkUtils.readVarInt(buf);
+			Result result = new Result(type, targets);
+			switch (type) {
+			case ENERGY:
+				result.energy = NetworkUtils.readVarLong(buf);
+				break;
+			case CAPACITY:
+				result.capacity = NetworkUtils.readVarLong(buf);
+				break;
+			case ENERGY_DATA:
+				result.energy = NetworkUtils.readVarLong(buf);
+				result.capacity = NetworkUtils.readVarLong(buf);
+				break;
+			case FLUID:
+				result.capacity = NetworkUtils.readVarLong(buf);
+				result.fluidStack = NetworkUtils.readFluidStack(buf);
+				break;
+			case INVENTORY:
+				result.inventory = NetworkUtils.readItemStacks(buf);
+				break;
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+package cjminecraft.core.network.sync;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+public class PacketSubscribe implements IMessage {
+
+	private boolean messageValid;
+
+	private SyncType type;
+	private EnergyUnit unit;
+	private BlockPos pos;
+	private EnumFacing side;
+	private int tankIndex;
+	private int[] targets;
+
+	public PacketSubscribe() {
+		this.messageValid = false;
+	}
+
+	public PacketSubscribe(SyncType type, EnergyUnit unit, BlockPos pos, EnumFacing side, int tankIndex,
+			int... targets) {
+		this.type = type;
+		this.unit = unit;
+		this.pos = pos;
+		this.side = side;
+		this.tankIndex = tankIndex;
+		this.targets = targets;
+		this.messageValid = true;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.type = SyncType.fromOrdinal(buf.readUnsignedByte());
+			if (this.type == null)
+				return;
+			this.unit = this.type == SyncType.ENERGY ? NetworkUtils.readEnergyUnit(buf) : EnergyUnit.FORGE_ENERGY;
+			this.pos = NetworkUtils.readBlockPos(buf);
+			this.side = NetworkUtils.readEnumFacing(buf);
+			this.tankIndex = NetworkUtils.readVarInt(buf);
+			if (this.tankIndex < 0)
+				return;
+			this.targets = new int[this.type.getTargetCount()];
+			for (int i = 0; i < this.targets.length; i++)
+				this.targets[i] = NetworkUtils.readVarInt(buf);
+		} catch (IndexOutOfBoundsException ioe) {
+			CJCore.logger.catching(ioe);
+			return;
+		}
+		this.messageValid = true;
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		if (!this.messageValid)
+			return;
+		NetworkUtils.writeWireVersion(buf);
+		buf.writeByte(this.type.ordinal());
+		if (this.type == SyncType.ENERGY)
+			NetworkUtils.writeEnergyUnit(buf, this.unit);
+		NetworkUtils.writeBlockPos(buf, this.pos);
+		NetworkUtils.writeEnumFacing(buf, this.side);
+		NetworkUtils.writeVarInt(buf, this.tankIndex);
+		for (int target : this.targets)
+			NetworkUtils.writeVarInt(buf, target);
+	}
+
+	public static class Handler implements IMessageHandler<PacketSubscribe, IMessage> {
+
+		@Override
+		public IMessage onMessage(PacketSubscribe message, MessageContext ctx) {
+			if (!message.messageValid || ctx.side != Side.SERVER)
+				return null;
+			FMLCommonHandler.instance().getWorldThread(ctx.netHandler)
+					.addScheduledTask(() -> processMessage(message, ctx));
+			return null;
+		}
+
+		void processMessage(PacketSubscribe message, MessageContext ctx) {
+			SubscriptionManager.addSubscription(ctx.getServerHandler().player, new SubscriptionManager.Subscription(
+					message.type, message.unit, message.pos, message.side, message.tankIndex, message.targets));
+		}
+
+	}
+
+}
@@ -0,0 +1,77 @@
+package cjminecraft.core.network.sync;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.util.NetworkUtils;
+import cjminecraft.core.util.TileEntityBase;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+public class PacketTileData implements IMessage {
+
+	private boolean messageValid;
+
+	private BlockPos pos;
+	private NBTTagCompound nbt;
+
+	public PacketTileData() {
+		this.messageValid = false;
+	}
+
+	public PacketTileData(BlockPos pos, NBTTagCompound nbt) {
+		this.pos = pos;
+		this.nbt = nbt;
+		this.messageValid = true;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.pos = NetworkUtils.readBlockPos(buf);
+			this.nbt = ByteBufUtils.readTag(buf);
+		} catch (IndexOutOfBoundsException ioe) {
+			CJCore.logger.catching(ioe);
+			return;
+		}
+		this.messageValid = this.nbt != null;
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		if (!this.messageValid)
+			return;
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeBlockPos(buf, this.pos);
+		ByteBufUtils.writeTag(buf, this.nbt);
+	}
+
+	public static class Handler implements IMessageHandler<PacketTileData, IMessage> {
+
+		@Override
+		public IMessage onMessage(PacketTileData message, MessageContext ctx) {
+			if (!message.messageValid || ctx.side != Side.CLIENT)
+				return null;
+			Minecraft.getMinecraft().addScheduledTask(() -> processMessage(message));
+			return null;
+		}
+
+		void processMessage(PacketTileData message) {
+			if (Minecraft.getMinecraft().world == null || !Minecraft.getMinecraft().world.isBlockLoaded(message.pos))
+				return;
+			TileEntity te = Minecraft.getMinecraft().world.getTileEntity(message.pos);
+			if (te instanceof TileEntityBase)
+				((TileEntityBase) te).readViewerDataFromNBT(message.nbt);
+		}
+
+	}
+
+}
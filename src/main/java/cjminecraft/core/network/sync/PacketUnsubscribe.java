@@ -0,0 +1,65 @@
+package cjminecraft.core.network.sync;
+
+import cjminecraft.core.CJCore;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+public class PacketUnsubscribe implements IMessage {
+
+	private boolean messageValid;
+
+	private int target;
+
+	public PacketUnsubscribe() {
+		this.messageValid = false;
+	}
+
+	public PacketUnsubscribe(int target) {
+		this.target = target;
+		this.messageValid = true;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		try {
+			if (!NetworkUtils.readWireVersion(buf))
+				return;
+			this.target = NetworkUtils.readVarInt(buf);
+		} catch (IndexOutOfBoundsException ioe) {
+			CJCore.logger.catching(ioe);
+			return;
+		}
+		this.messageValid = true;
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		if (!this.messageValid)
+			return;
+		NetworkUtils.writeWireVersion(buf);
+		NetworkUtils.writeVarInt(buf, this.target);
+	}
+
+	public static class Handler implements IMessageHandler<PacketUnsubscribe, IMessage> {
+
+		@Override
+		public IMessage onMessage(PacketUnsubscribe message, MessageContext ctx) {
+			if (!message.messageValid || ctx.side != Side.SERVER)
+				return null;
+			FMLCommonHandler.instance().getWorldThread(ctx.netHandler)
+					.addScheduledTask(() -> processMessage(message, ctx));
+			return null;
+		}
+
+		void processMessage(PacketUnsubscribe message, MessageContext ctx) {
+			SubscriptionManager.removeSubscription(ctx.getServerHandler().player, message.target);
+		}
+
+	}
+
+}
@@ -0,0 +1,220 @@
+package cjminecraft.core.network.sync;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.fluid.FluidUtils;
+import cjminecraft.core.inventory.InventoryUtils;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fluids.FluidStack;
+
+/**
+ * Remembers the answers the server gives to sync requests for the rest of the
+ * tick. When several players have the same machine open each of their
+ * requests for the same data is only worked out once. Cleared at the end of
+ * every server tick so no answer is ever more than a tick old
+ *
+ * @author CJMinecraft
+ *
+ */
+public class ResponseCache {
+
+	private static final Map<Key, Object> responses = new HashMap<Key, Object>();
+
+	/**
+	 * Get the answer to a query, working it out if it has not already been
+	 * asked this tick
+	 *
+	 * @param te
+	 *            The {@link TileEntity} being asked
+	 * @param side
+	 *            The side of the {@link TileEntity} being asked
+	 * @param query
+	 *            What is being asked, including anything such as the unit or
+	 *            slots which changes the answer
+	 * @param response
+	 *            Works out the answer
+	 * @return The answer
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T get(@Nonnull TileEntity te, @Nullable EnumFacing side, @Nonnull String query,
+			@Nonnull Supplier<T> response) {
+		Key key = new Key(te.getWorld().provider.getDimension(), te.getPos(), side, query);
+		if (responses.containsKey(key))
+			return (T) responses.get(key);
+		T value = response.get();
+		responses.put(key, value);
+		return value;
+	}
+
+	/**
+	 * Get the energy stored, only working it out once per tick
+	 *
+	 * @see EnergyUtils#getEnergyStored(TileEntity, EnumFacing, EnergyUnit)
+	 */
+	public static long getEnergyStored(@Nonnull TileEntity te, @Nullable EnumFacing side, @Nonnull EnergyUnit unit) {
+		return get(te, side, energyQuery(unit),
+				() -> EnergyUtils.getEnergyStored(te, side, unit));
+	}
+
+	/**
+	 * Get the energy capacity, only working it out once per tick
+	 *
+	 * @see EnergyUtils#getCapacity(TileEntity, EnumFacing, EnergyUnit)
+	 */
+	public static long getCapacity(@Nonnull TileEntity te, @Nullable EnumFacing side, @Nonnull EnergyUnit unit) {
+		return get(te, side, capacityQuery(unit), () -> EnergyUtils.getCapacity(te, side, unit));
+	}
+
+	/**
+	 * Get the capacity of a tank, only working it out once per tick
+	 *
+	 * @see FluidUtils#getCapacity(TileEntity, EnumFacing, int)
+	 */
+	public static int getFluidCapacity(@Nonnull TileEntity te, @Nullable EnumFacing side, int tankIndex) {
+		return get(te, side, fluidCapacityQuery(tankIndex), () -> FluidUtils.getCapacity(te, side, tankIndex));
+	}
+
+	/**
+	 * Get the fluid in a tank, only working it out once per tick. The
+	 * {@link FluidStack} is shared so must not be changed
+	 *
+	 * @see FluidUtils#getFluidStack(TileEntity, EnumFacing, int)
+	 */
+	@Nullable
+	public static FluidStack getFluidStack(@Nonnull TileEntity te, @Nullable EnumFacing side, int tankIndex) {
+		return get(te, side, fluidQuery(tankIndex), () -> FluidUtils.getFluidStack(te, side, tankIndex));
+	}
+
+	/**
+	 * Get the inventory, only working it out once per tick
+	 *
+	 * @see InventoryUtils#getInventory(TileEntity, int, int, EnumFacing)
+	 */
+	public static ImmutableList<ItemStack> getInventory(@Nonnull TileEntity te, int fromSlot, int toSlot,
+			@Nullable EnumFacing side) {
+		return get(te, side, "inventory:" + fromSlot + ":" + toSlot,
+				() -> InventoryUtils.getInventory(te, fromSlot, toSlot, side));
+	}
+
+	/**
+	 * Get the inventory, only working it out once per tick
+	 *
+	 * @see InventoryUtils#getInventory(TileEntity, EnumFacing)
+	 */
+	public static ImmutableList<ItemStack> getInventory(@Nonnull TileEntity te, @Nullable EnumFacing side) {
+		return get(te, side, "inventory", () -> InventoryUtils.getInventory(te, side));
+	}
+
+	/**
+	 * Get every slot of the inventory, only working it out once per tick
+	 *
+	 * @see InventoryUtils#getInventorySlots(TileEntity, int, int, EnumFacing)
+	 */
+	public static ImmutableList<ItemStack> getInventorySlots(@Nonnull TileEntity te, int fromSlot, int toSlot,
+			@Nullable EnumFacing side) {
+		return get(te, side, "slots:" + fromSlot + ":" + toSlot,
+				() -> InventoryUtils.getInventorySlots(te, fromSlot, toSlot, side));
+	}
+
+	/**
+	 * Get every slot of the inventory, only working it out once per tick
+	 *
+	 * @see InventoryUtils#getInventorySlots(TileEntity, EnumFacing)
+	 */
+	public static ImmutableList<ItemStack> getInventorySlots(@Nonnull TileEntity te, @Nullable EnumFacing side) {
+		return get(te, side, "slots", () -> InventoryUtils.getInventorySlots(te, side));
+	}
+
+	/**
+	 * Get the stacked inventory, only working it out once per tick
+	 *
+	 * @see InventoryUtils#getInventoryStacked(TileEntity, int, int, EnumFacing)
+	 */
+	public static ImmutableList<ItemStack> getInventoryStacked(@Nonnull TileEntity te, int fromSlot, int toSlot,
+			@Nullable EnumFacing side) {
+		return get(te, side, stackedQuery(fromSlot, toSlot),
+				() -> InventoryUtils.getInventoryStacked(te, fromSlot, toSlot, side));
+	}
+
+	/**
+	 * Get the stacked inventory, only working it out once per tick
+	 *
+	 * @see InventoryUtils#getInventoryStacked(TileEntity, EnumFacing)
+	 */
+	public static ImmutableList<ItemStack> getInventoryStacked(@Nonnull TileEntity te, @Nullable EnumFacing side) {
+		return get(te, side, stackedQuery(-1, -1), () -> InventoryUtils.getInventoryStacked(te, side));
+	}
+
+	/**
+	 * Forget every answer. Called at the end of each server tick
+	 */
+	public static void clear() {
+		responses.clear();
+	}
+
+	static String energyQuery(EnergyUnit unit) {
+		return "energy:" + unit.getUnlocalizedName();
+	}
+
+	static String capacityQuery(EnergyUnit unit) {
+		return "capacity:" + unit.getUnlocalizedName();
+	}
+
+	static String fluidCapacityQuery(int tankIndex) {
+		return "fluidCapacity:" + tankIndex;
+	}
+
+	static String fluidQuery(int tankIndex) {
+		return "fluid:" + tankIndex;
+	}
+
+	static String stackedQuery(int fromSlot, int toSlot) {
+		return fromSlot < 0 ? "stacked" : "stacked:" + fromSlot + ":" + toSlot;
+	}
+
+	private static class Key {
+
+		private final int dimension;
+		private final BlockPos pos;
+		private final EnumFacing side;
+		private final String query;
+
+		private Key(int dimension, BlockPos pos, @Nullable EnumFacing side, String query) {
+			this.dimension = dimension;
+			this.pos = pos;
+			this.side = side;
+			this.query = query;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return this.dimension == other.dimension && this.side == other.side && this.pos.equals(other.pos)
+					&& this.query.equals(other.query);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.dimension, this.pos, this.side, this.query);
+		}
+
+	}
+
+}
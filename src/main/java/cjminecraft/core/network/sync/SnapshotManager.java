@@ -0,0 +1,391 @@
+package cjminecraft.core.network.sync;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.util.TileEntityBase;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fluids.FluidStack;
+
+/**
+ * Publishes a snapshot of the data the clients keep asking each
+ * {@link TileEntityBase} for at the end of the server tick. The snapshot
+ * never changes once published so the network thread can answer read only
+ * sync requests straight from it instead of waiting for the world thread.
+ * A new snapshot is only published at the end of a tick in which the
+ * {@link TileEntity} was asked about, so nothing is worked out for a
+ * {@link TileEntity} nobody is asking about
+ *
+ * @author CJMinecraft
+ *
+ */
+public class SnapshotManager {
+
+	/**
+	 * The oldest in ticks a snapshot can be and still be used to answer a
+	 * request
+	 */
+	public static final int MAX_AGE = 1;
+
+	/**
+	 * How many ticks after the last request a {@link TileEntity} is forgotten,
+	 * and after it was last answered on the world thread a single query is
+	 * forgotten
+	 */
+	public static final int EXPIRY = 100;
+
+	/**
+	 * The most queries published for a single {@link TileEntity}. When full
+	 * the query asked longest ago is dropped
+	 */
+	public static final int MAX_QUERIES = 32;
+
+	private static final Map<Key, Publisher> publishers = new ConcurrentHashMap<Key, Publisher>();
+	private static volatile int ticks = 0;
+
+	/**
+	 * Start publishing the energy stored in the {@link TileEntity}. Must be
+	 * called on the world thread, normally after answering a request for it
+	 *
+	 * @param te
+	 *            The {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} being asked
+	 * @param unit
+	 *            The unit the energy is asked for in
+	 */
+	public static void trackEnergyStored(@Nonnull TileEntity te, @Nullable EnumFacing side,
+			@Nonnull EnergyUnit unit) {
+		track(te, side, ResponseCache.energyQuery(unit), () -> ResponseCache.getEnergyStored(te, side, unit));
+	}
+
+	/**
+	 * Start publishing the energy capacity of the {@link TileEntity}. Must be
+	 * called on the world thread, normally after answering a request for it
+	 *
+	 * @param te
+	 *            The {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} being asked
+	 * @param unit
+	 *            The unit the capacity is asked for in
+	 */
+	public static void trackCapacity(@Nonnull TileEntity te, @Nullable EnumFacing side, @Nonnull EnergyUnit unit) {
+		track(te, side, ResponseCache.capacityQuery(unit), () -> ResponseCache.getCapacity(te, side, unit));
+	}
+
+	/**
+	 * Start publishing the capacity and contents of a tank in the
+	 * {@link TileEntity}. Must be called on the world thread, normally after
+	 * answering a request for it
+	 *
+	 * @param te
+	 *            The {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} being asked
+	 * @param tankIndex
+	 *            The index of the tank
+	 */
+	public static void trackFluid(@Nonnull TileEntity te, @Nullable EnumFacing side, int tankIndex) {
+		track(te, side, ResponseCache.fluidCapacityQuery(tankIndex),
+				() -> ResponseCache.getFluidCapacity(te, side, tankIndex));
+		track(te, side, ResponseCache.fluidQuery(tankIndex), () -> {
+			FluidStack fluidStack = ResponseCache.getFluidStack(te, side, tankIndex);
+			return fluidStack == null ? null : fluidStack.copy();
+		});
+	}
+
+	/**
+	 * Start publishing the stacked inventory of the {@link TileEntity}. Must
+	 * be called on the world thread, normally after answering a request for
+	 * it
+	 *
+	 * @param te
+	 *            The {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity} being asked
+	 * @param fromSlot
+	 *            The first slot or -1 for the whole inventory
+	 * @param toSlot
+	 *            The last slot
+	 */
+	public static void trackInventoryStacked(@Nonnull TileEntity te, @Nullable EnumFacing side, int fromSlot,
+			int toSlot) {
+		track(te, side, ResponseCache.stackedQuery(fromSlot, toSlot), () -> {
+			ImmutableList<ItemStack> inventory = fromSlot < 0 ? ResponseCache.getInventoryStacked(te, side)
+					: ResponseCache.getInventoryStacked(te, fromSlot, toSlot, side);
+			ImmutableList.Builder<ItemStack> copy = ImmutableList.builder();
+			for (ItemStack stack : inventory)
+				copy.add(stack.copy());
+			return copy.build();
+		});
+	}
+
+	private static void track(TileEntity te, @Nullable EnumFacing side, String query, Supplier<?> answer) {
+		if (!(te instanceof TileEntityBase) || te.getWorld() == null || te.getWorld().isRemote)
+			return;
+		Key key = new Key(te.getWorld().provider.getDimension(), te.getPos());
+		Publisher publisher = publishers.get(key);
+		if (publisher == null || publisher.te != te) {
+			publisher = new Publisher(te);
+			publishers.put(key, publisher);
+		}
+		String key = TileSnapshot.getKey(side, query);
+		publisher.queries.remove(key);
+		if (publisher.queries.size() >= MAX_QUERIES) {
+			Iterator<String> oldest = publisher.queries.keySet().iterator();
+			oldest.next();
+			oldest.remove();
+		}
+		publisher.queries.put(key, new Query(answer, ticks));
+		publisher.lastAsked = ticks;
+		publisher.due = true;
+	}
+
+	/**
+	 * Get the latest snapshot of the {@link TileEntity} the player is asking
+	 * about. A new snapshot will be published at the end of the tick for the
+	 * next request. Safe to call from the network thread
+	 *
+	 * @param player
+	 *            The player asking
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @return The snapshot or null if there is none or it is too old
+	 */
+	@Nullable
+	public static TileSnapshot getSnapshot(@Nonnull EntityPlayerMP player, @Nonnull BlockPos pos) {
+		Publisher publisher = publishers.get(new Key(player.dimension, pos));
+		if (publisher == null)
+			return null;
+		publisher.due = true;
+		TileSnapshot snapshot = publisher.snapshot;
+		if (snapshot == null || ticks - snapshot.tick > MAX_AGE)
+			return null;
+		publisher.lastAsked = ticks;
+		return snapshot;
+	}
+
+	/**
+	 * Stop publishing snapshots of the {@link TileEntity}. Called by
+	 * {@link TileEntityBase} when it is unloaded or removed
+	 *
+	 * @param te
+	 *            The {@link TileEntity}
+	 */
+	public static void untrack(@Nonnull TileEntityBase te) {
+		if (te.getWorld() == null)
+			return;
+		Key key = new Key(te.getWorld().provider.getDimension(), te.getPos());
+		Publisher publisher = publishers.get(key);
+		if (publisher != null && publisher.te == te)
+			publishers.remove(key);
+	}
+
+	/**
+	 * Publish a new snapshot of every {@link TileEntity} which has been asked
+	 * about this tick and forget the ones which have not been asked about
+	 * recently. Called at the end of each server tick, after the requests
+	 * answered on the world thread so their answers come from the
+	 * {@link ResponseCache}
+	 *
+	 * @param server
+	 *            The server
+	 */
+	public static void tick(MinecraftServer server) {
+		int tick = ticks;
+		Iterator<Publisher> iterator = publishers.values().iterator();
+		while (iterator.hasNext()) {
+			Publisher publisher = iterator.next();
+			if (publisher.te.isInvalid() || tick - publisher.lastAsked > EXPIRY) {
+				iterator.remove();
+				continue;
+			}
+			if (!publisher.due)
+				continue;
+			publisher.due = false;
+			Map<String, Object> answers = new HashMap<String, Object>();
+			Iterator<Map.Entry<String, Query>> queries = publisher.queries.entrySet().iterator();
+			while (queries.hasNext()) {
+				Map.Entry<String, Query> query = queries.next();
+				if (tick - query.getValue().lastAsked > EXPIRY)
+					queries.remove();
+				else
+					answers.put(query.getKey(), query.getValue().answer.get());
+			}
+			publisher.snapshot = new TileSnapshot(tick + 1, answers);
+		}
+		ticks = tick + 1;
+	}
+
+	/**
+	 * The data published for a {@link TileEntity} at the end of a tick. Never
+	 * changes once published
+	 *
+	 * @author CJMinecraft
+	 *
+	 */
+	public static final class TileSnapshot {
+
+		private final int tick;
+		private final Map<String, Object> answers;
+
+		private TileSnapshot(int tick, Map<String, Object> answers) {
+			this.tick = tick;
+			this.answers = Collections.unmodifiableMap(answers);
+		}
+
+		/**
+		 * @param side
+		 *            The side asked
+		 * @param unit
+		 *            The unit the energy is wanted in
+		 * @return The energy stored or null if it was not published
+		 */
+		@Nullable
+		public Long getEnergyStored(@Nullable EnumFacing side, @Nonnull EnergyUnit unit) {
+			return (Long) this.answers.get(getKey(side, ResponseCache.energyQuery(unit)));
+		}
+
+		/**
+		 * @param side
+		 *            The side asked
+		 * @param unit
+		 *            The unit the capacity is wanted in
+		 * @return The energy capacity or null if it was not published
+		 */
+		@Nullable
+		public Long getCapacity(@Nullable EnumFacing side, @Nonnull EnergyUnit unit) {
+			return (Long) this.answers.get(getKey(side, ResponseCache.capacityQuery(unit)));
+		}
+
+		/**
+		 * @param side
+		 *            The side asked
+		 * @param tankIndex
+		 *            The index of the tank
+		 * @return Whether the capacity and contents of the tank were published
+		 */
+		public boolean hasFluid(@Nullable EnumFacing side, int tankIndex) {
+			return this.answers.containsKey(getKey(side, ResponseCache.fluidCapacityQuery(tankIndex)))
+					&& this.answers.containsKey(getKey(side, ResponseCache.fluidQuery(tankIndex)));
+		}
+
+		/**
+		 * @param side
+		 *            The side asked
+		 * @param tankIndex
+		 *            The index of the tank
+		 * @return The capacity of the tank. Check {@link #hasFluid} first
+		 */
+		public int getFluidCapacity(@Nullable EnumFacing side, int tankIndex) {
+			return (Integer) this.answers.get(getKey(side, ResponseCache.fluidCapacityQuery(tankIndex)));
+		}
+
+		/**
+		 * @param side
+		 *            The side asked
+		 * @param tankIndex
+		 *            The index of the tank
+		 * @return The contents of the tank, which must not be changed. Check
+		 *         {@link #hasFluid} first
+		 */
+		@Nullable
+		public FluidStack getFluidStack(@Nullable EnumFacing side, int tankIndex) {
+			return (FluidStack) this.answers.get(getKey(side, ResponseCache.fluidQuery(tankIndex)));
+		}
+
+		/**
+		 * @param side
+		 *            The side asked
+		 * @param fromSlot
+		 *            The first slot or -1 for the whole inventory
+		 * @param toSlot
+		 *            The last slot
+		 * @return The stacked inventory, which must not be changed, or null if
+		 *         it was not published
+		 */
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public ImmutableList<ItemStack> getInventoryStacked(@Nullable EnumFacing side, int fromSlot, int toSlot) {
+			return (ImmutableList<ItemStack>) this.answers
+					.get(getKey(side, ResponseCache.stackedQuery(fromSlot, toSlot)));
+		}
+
+		private static String getKey(@Nullable EnumFacing side, String query) {
+			return (side == null ? "none" : side.getName()) + "/" + query;
+		}
+
+	}
+
+	private static class Publisher {
+
+		private final TileEntity te;
+		private final Map<String, Query> queries = new LinkedHashMap<String, Query>();
+		private volatile TileSnapshot snapshot;
+		private volatile int lastAsked;
+		private volatile boolean due;
+
+		private Publisher(TileEntity te) {
+			this.te = te;
+		}
+
+	}
+
+	private static class Query {
+
+		private final Supplier<?> answer;
+		private final int lastAsked;
+
+		private Query(Supplier<?> answer, int lastAsked) {
+			this.answer = answer;
+			this.lastAsked = lastAsked;
+		}
+
+	}
+
+	private static class Key {
+
+		private final int dimension;
+		private final BlockPos pos;
+
+		private Key(int dimension, BlockPos pos) {
+			this.dimension = dimension;
+			this.pos = pos;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return this.dimension == other.dimension && this.pos.equals(other.pos);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.dimension, this.pos);
+		}
+
+	}
+
+}
@@ -0,0 +1,309 @@
+package cjminecraft.core.network.sync;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.fluid.FluidUtils;
+import cjminecraft.core.inventory.InventoryUtils;
+import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.network.energy.PacketReturnEnergyData;
+import cjminecraft.core.network.fluid.PacketReturnFluidData;
+import cjminecraft.core.network.inventory.InventoryDelta;
+import cjminecraft.core.network.inventory.PacketInventoryDelta;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**
+ * Lets the client subscribe to data from a {@link TileEntity} instead of
+ * asking for it over and over again. The server keeps a table of everything
+ * each player is watching and once a tick pushes any values which have
+ * changed, so a machine which is sitting idle sends nothing at all
+ *
+ * @author CJMinecraft
+ *
+ */
+public class SubscriptionManager {
+
+	/**
+	 * The most subscriptions a single player can have at once. When full the
+	 * oldest subscription is dropped
+	 */
+	public static final int MAX_SUBSCRIPTIONS = 64;
+
+	private static final Map<UUID, Map<Integer, Subscription>> subscriptions = new HashMap<UUID, Map<Integer, Subscription>>();
+
+	/**
+	 * Subscribe to data from the server. The values will be pushed to the
+	 * targets whenever they change until {@link #unsubscribe(int)} is called
+	 * with the first target. Energy is sent in {@link EnergyUnit#FORGE_ENERGY},
+	 * use {@link #subscribeEnergy(EnergyUnit, BlockPos, EnumFacing, int, int)}
+	 * to choose the unit
+	 *
+	 * @param type
+	 *            The {@link SyncType} of the data
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @param tankIndex
+	 *            The index of the tank when subscribing to fluid data
+	 * @param targets
+	 *            The ids of the targets registered with the
+	 *            {@link SyncTargetRegistry}, one for each
+	 *            {@link SyncType#getTargetCount()}
+	 */
+	public static void subscribe(@Nonnull SyncType type, BlockPos pos, @Nullable EnumFacing side, int tankIndex,
+			int... targets) {
+		sendSubscription(type, EnergyUnit.FORGE_ENERGY, pos, side, tankIndex, targets);
+	}
+
+	/**
+	 * Subscribe to the energy and capacity of a {@link TileEntity}. They will
+	 * be pushed to the targets in the given unit whenever they change until
+	 * {@link #unsubscribe(int)} is called with the energy target
+	 *
+	 * @param unit
+	 *            The {@link EnergyUnit} the energy and capacity are sent in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @param energyTarget
+	 *            The id of the target given the energy
+	 * @param capacityTarget
+	 *            The id of the target given the capacity
+	 */
+	public static void subscribeEnergy(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int energyTarget, int capacityTarget) {
+		sendSubscription(SyncType.ENERGY, unit, pos, side, 0, energyTarget, capacityTarget);
+	}
+
+	private static void sendSubscription(SyncType type, EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int tankIndex, int... targets) {
+		if (targets.length != type.getTargetCount())
+			throw new IllegalArgumentException(
+					String.format("%s needs %d targets but got %d", type, type.getTargetCount(), targets.length));
+		PacketHandler.INSTANCE.sendToServer(new PacketSubscribe(type, unit, pos, side, tankIndex, targets));
+	}
+
+	/**
+	 * Stop the server from pushing values to the subscription
+	 *
+	 * @param target
+	 *            The first target the subscription was made with
+	 */
+	public static void unsubscribe(int target) {
+		PacketHandler.INSTANCE.sendToServer(new PacketUnsubscribe(target));
+		InventoryDelta.forget(InventoryDelta.getKey(target));
+	}
+
+	/**
+	 * Add a subscription for the given player. For use by
+	 * {@link PacketSubscribe} only
+	 *
+	 * @param player
+	 *            The player subscribing
+	 * @param subscription
+	 *            The subscription
+	 */
+	static void addSubscription(EntityPlayerMP player, Subscription subscription) {
+		Map<Integer, Subscription> watched = subscriptions.get(player.getUniqueID());
+		if (watched == null) {
+			watched = new LinkedHashMap<Integer, Subscription>();
+			subscriptions.put(player.getUniqueID(), watched);
+		}
+		watched.remove(subscription.targets[0]);
+		if (watched.size() >= MAX_SUBSCRIPTIONS) {
+			Iterator<Integer> oldest = watched.keySet().iterator();
+			oldest.next();
+			oldest.remove();
+		}
+		watched.put(subscription.targets[0], subscription);
+		InventoryDelta.reset(player, InventoryDelta.getKey(subscription.targets[0]));
+	}
+
+	/**
+	 * Remove a subscription for the given player. For use by
+	 * {@link PacketUnsubscribe} only
+	 *
+	 * @param player
+	 *            The player unsubscribing
+	 * @param target
+	 *            The first target the subscription was made with
+	 */
+	static void removeSubscription(EntityPlayerMP player, int target) {
+		Map<Integer, Subscription> watched = subscriptions.get(player.getUniqueID());
+		if (watched != null) {
+			watched.remove(target);
+			if (watched.isEmpty())
+				subscriptions.remove(player.getUniqueID());
+		}
+	}
+
+	/**
+	 * Check whether the player is subscribed to the given type of data at the
+	 * given position
+	 *
+	 * @param player
+	 *            The player
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param type
+	 *            The type of data
+	 * @return Whether the player has a subscription of the type at the
+	 *         position
+	 */
+	public static boolean isSubscribed(EntityPlayer player, BlockPos pos, SyncType type) {
+		Map<Integer, Subscription> watched = subscriptions.get(player.getUniqueID());
+		if (watched == null)
+			return false;
+		for (Subscription subscription : watched.values())
+			if (subscription.type == type && subscription.pos.equals(pos))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Remove every subscription the player has. Called when the player logs
+	 * out or changes dimension
+	 *
+	 * @param player
+	 *            The player
+	 */
+	public static void removePlayer(EntityPlayer player) {
+		subscriptions.remove(player.getUniqueID());
+	}
+
+	/**
+	 * Push every value which has changed since the last tick. Called at the
+	 * end of each server tick
+	 *
+	 * @param server
+	 *            The server
+	 */
+	public static void tick(MinecraftServer server) {
+		Iterator<Map.Entry<UUID, Map<Integer, Subscription>>> players = subscriptions.entrySet().iterator();
+		while (players.hasNext()) {
+			Map.Entry<UUID, Map<Integer, Subscription>> entry = players.next();
+			EntityPlayerMP player = server.getPlayerList().getPlayerByUUID(entry.getKey());
+			if (player == null) {
+				players.remove();
+				continue;
+			}
+			for (Subscription subscription : entry.getValue().values()) {
+				IMessage message = subscription.poll(player);
+				if (message != null)
+					PacketHandler.sendTo(message, player);
+			}
+		}
+	}
+
+	/**
+	 * A single thing a player is watching along with the last values which
+	 * were sent to them
+	 */
+	static class Subscription {
+
+		private final SyncType type;
+		private final EnergyUnit unit;
+		private final BlockPos pos;
+		private final EnumFacing side;
+		private final int tankIndex;
+		private final int[] targets;
+
+		private boolean sent = false;
+		private long energy;
+		private long capacity;
+		private FluidStack fluidStack;
+
+		Subscription(SyncType type, EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side, int tankIndex,
+				int[] targets) {
+			this.type = type;
+			this.unit = unit;
+			this.pos = pos;
+			this.side = side;
+			this.tankIndex = tankIndex;
+			this.targets = targets;
+		}
+
+		/**
+		 * Check the {@link TileEntity} for any changes
+		 *
+		 * @param player
+		 *            The player watching
+		 * @return The message to send or null if nothing has changed
+		 */
+		@Nullable
+		IMessage poll(EntityPlayerMP player) {
+			WorldServer world = player.getServerWorld();
+			if (!world.isBlockLoaded(this.pos))
+				return null;
+			TileEntity te = world.getTileEntity(this.pos);
+			if (te == null)
+				return null;
+			switch (this.type) {
+			case ENERGY:
+				return pollEnergy(te);
+			case FLUID:
+				return pollFluid(te);
+			case INVENTORY:
+				return pollInventory(player, te);
+			default:
+				return null;
+			}
+		}
+
+		private IMessage pollEnergy(TileEntity te) {
+			if (!EnergyUtils.hasSupport(te, this.side))
+				return null;
+			long energy = ResponseCache.getEnergyStored(te, this.side, this.unit);
+			long capacity = ResponseCache.getCapacity(te, this.side, this.unit);
+			if (this.sent && energy == this.energy && capacity == this.capacity)
+				return null;
+			this.sent = true;
+			this.energy = energy;
+			this.capacity = capacity;
+			return new PacketReturnEnergyData(energy, capacity, this.targets[0], this.targets[1]);
+		}
+
+		private IMessage pollFluid(TileEntity te) {
+			if (!FluidUtils.hasSupport(te, this.side))
+				return null;
+			int capacity = ResponseCache.getFluidCapacity(te, this.side, this.tankIndex);
+			FluidStack fluidStack = ResponseCache.getFluidStack(te, this.side, this.tankIndex);
+			if (this.sent && capacity == this.capacity && (fluidStack == null ? this.fluidStack == null
+					: fluidStack.isFluidStackIdentical(this.fluidStack)))
+				return null;
+			this.sent = true;
+			this.capacity = capacity;
+			this.fluidStack = fluidStack == null ? null : fluidStack.copy();
+			return new PacketReturnFluidData(capacity, this.fluidStack, this.targets[0], this.targets[1]);
+		}
+
+		private IMessage pollInventory(EntityPlayerMP player, TileEntity te) {
+			if (!InventoryUtils.hasSupport(te, this.side))
+				return null;
+			InventoryDelta delta = InventoryDelta.compute(player, InventoryDelta.getKey(this.targets[0]), this.pos,
+					this.side, ResponseCache.getInventorySlots(te, this.side), -1);
+			return delta.isEmpty() ? null : new PacketInventoryDelta(delta, this.targets[0]);
+		}
+
+	}
+
+}
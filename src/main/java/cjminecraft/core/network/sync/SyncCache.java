@@ -0,0 +1,176 @@
+package cjminecraft.core.network.sync;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds the data the client was last sent for each modid and class name. The
+ * cache only holds so many entries and forgets the least recently used one
+ * when full. Each entry remembers when it was sent so callers can tell how old
+ * the data is
+ *
+ * @author CJMinecraft
+ *
+ * @param <V>
+ *            The type of data being cached
+ */
+public class SyncCache<V> {
+
+	/**
+	 * The most entries a cache holds unless told otherwise
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+
+	private final int maxEntries;
+	private final Map<String, Entry<V>> entries;
+
+	/**
+	 * Create a cache holding at most {@link #DEFAULT_MAX_ENTRIES} entries
+	 */
+	public SyncCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Create a cache
+	 *
+	 * @param maxEntries
+	 *            The most entries to hold before the least recently used is
+	 *            forgotten
+	 */
+	public SyncCache(int maxEntries) {
+		this.maxEntries = Math.max(1, maxEntries);
+		this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+				return size() > SyncCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Store data, replacing anything already stored for the same class
+	 *
+	 * @param modid
+	 *            The modid so each mod has its own data
+	 * @param className
+	 *            The name of the class the data was requested from
+	 * @param value
+	 *            The data
+	 */
+	public void put(String modid, String className, V value) {
+		this.entries.put(getKey(modid, className), new Entry<V>(value));
+	}
+
+	/**
+	 * Get the latest data for the class. The data stays in the cache until it
+	 * is replaced or forgotten
+	 *
+	 * @param modid
+	 *            The modid the data is stored under
+	 * @param className
+	 *            The name of the class the data was requested from
+	 * @return The latest data or null if there is none
+	 */
+	@Nullable
+	public V get(String modid, String className) {
+		Entry<V> entry = this.entries.get(getKey(modid, className));
+		return entry == null ? null : entry.value;
+	}
+
+	/**
+	 * Get the latest data for the class if it is not too old
+	 *
+	 * @param modid
+	 *            The modid the data is stored under
+	 * @param className
+	 *            The name of the class the data was requested from
+	 * @param maxAge
+	 *            The oldest the data may be in milliseconds
+	 * @return The latest data or null if there is none or it is too old
+	 */
+	@Nullable
+	public V get(String modid, String className, long maxAge) {
+		Entry<V> entry = this.entries.get(getKey(modid, className));
+		return entry == null || entry.getAge() > maxAge ? null : entry.value;
+	}
+
+	/**
+	 * Get how long ago the data was stored
+	 *
+	 * @param modid
+	 *            The modid the data is stored under
+	 * @param className
+	 *            The name of the class the data was requested from
+	 * @return The age of the data in milliseconds or -1 if there is none
+	 */
+	public long getAge(String modid, String className) {
+		Entry<V> entry = this.entries.get(getKey(modid, className));
+		return entry == null ? -1 : entry.getAge();
+	}
+
+	/**
+	 * Check whether the data should be asked for again
+	 *
+	 * @param modid
+	 *            The modid the data is stored under
+	 * @param className
+	 *            The name of the class the data was requested from
+	 * @param maxAge
+	 *            The oldest the data may be in milliseconds
+	 * @return Whether there is no data or it is older than the max age
+	 */
+	public boolean isStale(String modid, String className, long maxAge) {
+		long age = getAge(modid, className);
+		return age < 0 || age > maxAge;
+	}
+
+	/**
+	 * Forget the data for the class
+	 *
+	 * @param modid
+	 *            The modid the data is stored under
+	 * @param className
+	 *            The name of the class the data was requested from
+	 */
+	public void remove(String modid, String className) {
+		this.entries.remove(getKey(modid, className));
+	}
+
+	/**
+	 * @return How many entries are in the cache
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Forget all data
+	 */
+	public void clear() {
+		this.entries.clear();
+	}
+
+	private static String getKey(String modid, String className) {
+		return modid + ":" + className;
+	}
+
+	private static class Entry<V> {
+
+		private final V value;
+		private final long time;
+
+		private Entry(V value) {
+			this.value = value;
+			this.time = System.currentTimeMillis();
+		}
+
+		private long getAge() {
+			return System.currentTimeMillis() - this.time;
+		}
+
+	}
+
+}
@@ -0,0 +1,133 @@
+package cjminecraft.core.network.sync;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Says where synced data should be cached on the client. Create one when the
+ * gui is made and pass it to every sync call instead of letting the sync
+ * methods work out which class called them
+ *
+ * @author CJMinecraft
+ *
+ */
+public final class SyncKey {
+
+	private static final CallerResolver resolver = new CallerResolver();
+	private static final Map<Class<?>, SyncKey> callerKeys = new HashMap<Class<?>, SyncKey>();
+
+	private final String modid;
+	private final String className;
+
+	/**
+	 * Create a key
+	 *
+	 * @param modid
+	 *            The modid so each mod has its own cache of data
+	 * @param className
+	 *            The name of the class the data is cached under
+	 */
+	public SyncKey(@Nonnull String modid, @Nonnull String className) {
+		this.modid = modid;
+		this.className = className;
+	}
+
+	/**
+	 * Create a key for the given class
+	 *
+	 * @param modid
+	 *            The modid so each mod has its own cache of data
+	 * @param owner
+	 *            The class the data is cached under
+	 */
+	public SyncKey(@Nonnull String modid, @Nonnull Class<?> owner) {
+		this(modid, owner.getName());
+	}
+
+	/**
+	 * @return The modid the data is cached under
+	 */
+	public String getModid() {
+		return this.modid;
+	}
+
+	/**
+	 * @return The name of the class the data is cached under
+	 */
+	public String getClassName() {
+		return this.className;
+	}
+
+	/**
+	 * Get the key for the class which called the method calling this. Only
+	 * for the deprecated sync methods which take a modid and work out the
+	 * class themselves. The key is made once for each calling class
+	 *
+	 * @param modid
+	 *            The modid so each mod has its own cache of data
+	 * @return The key for the calling class
+	 */
+	public static SyncKey forCaller(@Nonnull String modid) {
+		Class<?> caller = resolver.getCaller();
+		SyncKey key = callerKeys.get(caller);
+		if (key == null || !key.modid.equals(modid)) {
+			key = new SyncKey(modid, caller);
+			callerKeys.put(caller, key);
+		}
+		return key;
+	}
+
+	/**
+	 * Get the name of the class which called the method calling this. Only for
+	 * the deprecated sync methods which work out the class themselves
+	 *
+	 * @return The name of the calling class
+	 */
+	public static String getCallerClassName() {
+		return resolver.getCaller().getName();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof SyncKey))
+			return false;
+		SyncKey other = (SyncKey) obj;
+		return this.modid.equals(other.modid) && this.className.equals(other.className);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.modid.hashCode() + this.className.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.modid + ":" + this.className;
+	}
+
+	/**
+	 * Reads the classes on the call stack without building a stack trace
+	 */
+	private static class CallerResolver extends SecurityManager {
+
+		/**
+		 * The classes are this, {@link SyncKey}, the sync method's class and
+		 * then the caller. The sync method's class is skipped for as long as
+		 * it calls itself so overloads which pass the call on are not mistaken
+		 * for the caller
+		 */
+		private Class<?> getCaller() {
+			Class<?>[] context = getClassContext();
+			int index = 2;
+			while (index + 1 < context.length && context[index + 1] == context[2])
+				index++;
+			return context[Math.min(index + 1, context.length - 1)];
+		}
+
+	}
+
+}
@@ -0,0 +1,395 @@
+package cjminecraft.core.network.sync;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import cjminecraft.core.energy.EnergyUnit;
+import cjminecraft.core.energy.EnergyUtils;
+import cjminecraft.core.fluid.FluidUtils;
+import cjminecraft.core.inventory.InventoryUtils;
+import cjminecraft.core.network.SyncTargetRegistry;
+import cjminecraft.core.network.sync.SnapshotManager.TileSnapshot;
+import cjminecraft.core.util.NetworkUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.fluids.FluidStack;
+
+/**
+ * A single request for data from a {@link TileEntity}. Many queries, even
+ * against different positions, can be sent together in one
+ * {@link PacketBatchQuery} and are answered together in one
+ * {@link PacketBatchResponse}
+ *
+ * @author CJMinecraft
+ *
+ */
+public class SyncQuery {
+
+	/**
+	 * The kind of data a query asks for
+	 */
+	public enum Type {
+		ENERGY(1), CAPACITY(1), ENERGY_DATA(2), FLUID(2), INVENTORY(1);
+
+		private final int targetCount;
+
+		private Type(int targetCount) {
+			this.targetCount = targetCount;
+		}
+
+		/**
+		 * @return The number of sync targets the answer is given to
+		 */
+		public int getTargetCount() {
+			return this.targetCount;
+		}
+	}
+
+	private final Type type;
+	private final BlockPos pos;
+	private final EnumFacing side;
+	private final EnergyUnit unit;
+	private final int tankIndex;
+	private final boolean stacked;
+	private final int fromSlot;
+	private final int toSlot;
+	private final int[] targets;
+
+	private SyncQuery(Type type, BlockPos pos, @Nullable EnumFacing side, EnergyUnit unit, int tankIndex,
+			boolean stacked, int fromSlot, int toSlot, int[] targets) {
+		this.type = type;
+		this.pos = pos;
+		this.side = side;
+		this.unit = unit;
+		this.tankIndex = tankIndex;
+		this.stacked = stacked;
+		this.fromSlot = fromSlot;
+		this.toSlot = toSlot;
+		this.targets = targets;
+	}
+
+	/**
+	 * Ask for the energy of a {@link TileEntity}
+	 *
+	 * @param unit
+	 *            The {@link EnergyUnit} the energy will be returned in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @param energyTarget
+	 *            The id of the {@link SyncTargetRegistry} target given the
+	 *            energy
+	 * @return The query
+	 */
+	public static SyncQuery energy(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int energyTarget) {
+		return new SyncQuery(Type.ENERGY, pos, side, unit, 0, false, -1, -1, new int[] { energyTarget });
+	}
+
+	/**
+	 * Ask for the capacity of a {@link TileEntity}
+	 *
+	 * @param unit
+	 *            The {@link EnergyUnit} the capacity will be returned in
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @param capacityTarget
+	 *            The id of the {@link SyncTargetRegistry} target given the
+	 *            capacity
+	 * @return The query
+	 */
+	public static SyncQuery capacity(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int capacityTarget) {
+		return new SyncQuery(Type.CAPACITY, pos, side, unit, 0, false, -1, -1, new int[] { capacityTarget });
+	}
+
+	/**
+	 * Ask for the energy and capacity of a {@link TileEntity}
+	 *
+	 * @param unit
+	 *            The {@link EnergyUnit} the energy and capacity will be
+	 *            returned in. Ask in the unit which is shown, as converting
+	 *            from a coarser unit loses the remainder
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @param energyTarget
+	 *            The id of the {@link SyncTargetRegistry} target given the
+	 *            energy
+	 * @param capacityTarget
+	 *            The id of the {@link SyncTargetRegistry} target given the
+	 *            capacity
+	 * @return The query
+	 */
+	public static SyncQuery energyData(@Nonnull EnergyUnit unit, BlockPos pos, @Nullable EnumFacing side,
+			int energyTarget, int capacityTarget) {
+		return new SyncQuery(Type.ENERGY_DATA, pos, side, unit, 0, false, -1, -1,
+				new int[] { energyTarget, capacityTarget });
+	}
+
+	/**
+	 * Ask for the capacity and {@link FluidStack} of a tank
+	 *
+	 * @param tankIndex
+	 *            The index of the tank
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @param capacityTarget
+	 *            The id of the {@link SyncTargetRegistry} target given the
+	 *            capacity
+	 * @param fluidStackTarget
+	 *            The id of the {@link SyncTargetRegistry} target given the
+	 *            {@link FluidStack}
+	 * @return The query
+	 */
+	public static SyncQuery fluid(int tankIndex, BlockPos pos, @Nullable EnumFacing side, int capacityTarget,
+			int fluidStackTarget) {
+		return new SyncQuery(Type.FLUID, pos, side, EnergyUnit.FORGE_ENERGY, tankIndex, false, -1, -1,
+				new int[] { capacityTarget, fluidStackTarget });
+	}
+
+	/**
+	 * Ask for the whole inventory of a {@link TileEntity}
+	 *
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @param stacked
+	 *            Whether the inventory should be "stacked" - see
+	 *            {@link InventoryUtils#getInventoryStacked(TileEntity, EnumFacing)}
+	 * @param inventoryTarget
+	 *            The id of the {@link SyncTargetRegistry} target given the
+	 *            inventory
+	 * @return The query
+	 */
+	public static SyncQuery inventory(BlockPos pos, @Nullable EnumFacing side, boolean stacked, int inventoryTarget) {
+		return inventory(pos, side, stacked, -1, -1, inventoryTarget);
+	}
+
+	/**
+	 * Ask for a range of slots in the inventory of a {@link TileEntity}
+	 *
+	 * @param pos
+	 *            The position of the {@link TileEntity}
+	 * @param side
+	 *            The side of the {@link TileEntity}
+	 * @param stacked
+	 *            Whether the inventory should be "stacked" - see
+	 *            {@link InventoryUtils#getInventoryStacked(TileEntity, EnumFacing)}
+	 * @param fromSlot
+	 *            The first slot
+	 * @param toSlot
+	 *            The last slot
+	 * @param inventoryTarget
+	 *            The id of the {@link SyncTargetRegistry} target given the
+	 *            inventory
+	 * @return The query
+	 */
+	public static SyncQuery inventory(BlockPos pos, @Nullable EnumFacing side, boolean stacked, int fromSlot,
+			int toSlot, int inventoryTarget) {
+		return new SyncQuery(Type.INVENTORY, pos, side, EnergyUnit.FORGE_ENERGY, 0, stacked, fromSlot, toSlot,
+				new int[] { inventoryTarget });
+	}
+
+	/**
+	 * Write the query to the {@link ByteBuf}
+	 *
+	 * @param buf
+	 *            The {@link ByteBuf} to write to
+	 */
+	void write(ByteBuf buf) {
+		buf.writeByte(this.type.ordinal());
+		NetworkUtils.writeBlockPos(buf, this.pos);
+		NetworkUtils.writeEnumFacing(buf, this.side);
+		switch (this.type) {
+		case ENERGY:
+		case CAPACITY:
+		case ENERGY_DATA:
+			NetworkUtils.writeEnergyUnit(buf, this.unit);
+			break;
+		case FLUID:
+			NetworkUtils.writeVarInt(buf, this.tankIndex);
+			break;
+		case INVENTORY:
+			buf.writeBoolean(this.stacked);
+			buf.writeBoolean(this.fromSlot >= 0);
+			if (this.fromSlot >= 0) {
+				NetworkUtils.writeVarInt(buf, this.fromSlot);
+				NetworkUtils.writeVarInt(buf, this.toSlot);
+			}
+			break;
+		}
+		for (int target : this.targets)
+			NetworkUtils.writeVarInt(buf, target);
+	}
+
+	/**
+	 * Read a query written by {@link #write(ByteBuf)}
+	 *
+	 * @param buf
+	 *            The {@link ByteBuf} to read from
+	 * @return The query or null if its type is unknown or its tank index is
+	 *         negative
+	 */
+	@Nullable
+	static SyncQuery read(ByteBuf buf) {
+		int ordinal = buf.readUnsignedByte();
+		if (ordinal >= Type.values().length)
+			return null;
+		Type type = Type.values()[ordinal];
+		BlockPos pos = NetworkUtils.readBlockPos(buf);
+		EnumFacing side = NetworkUtils.readEnumFacing(buf);
+		EnergyUnit unit = EnergyUnit.FORGE_ENERGY;
+		int tankIndex = 0;
+		boolean stacked = false;
+		int fromSlot = -1;
+		int toSlot = -1;
+		switch (type) {
+		case ENERGY:
+		case CAPACITY:
+		case ENERGY_DATA:
+			unit = NetworkUtils.readEnergyUnit(buf);
+			break;
+		case FLUID:
+			tankIndex = NetworkUtils.readVarInt(buf);
+			if (tankIndex < 0)
+				return null;
+			break;
+		case INVENTORY:
+			stacked = buf.readBoolean();
+			if (buf.readBoolean()) {
+				fromSlot = NetworkUtils.readVarInt(buf);
+				toSlot = NetworkUtils.readVarInt(buf);
+			}
+			break;
+		}
+		int[] targets = new int[type.getTargetCount()];
+		for (int i = 0; i < targets.length; i++)
+			targets[i] = NetworkUtils.readVarInt(buf);
+		return new SyncQuery(type, pos, side, unit, tankIndex, stacked, fromSlot, toSlot, targets);
+	}
+
+	/**
+	 * Answer the query on the server
+	 *
+	 * @param world
+	 *            The world of the player who asked
+	 * @return The answer or null if the {@link TileEntity} could not answer
+	 */
+	@Nullable
+	PacketBatchResponse.Result resolve(WorldServer world) {
+		if (!world.isBlockLoaded(this.pos))
+			return null;
+		TileEntity te = world.getTileEntity(this.pos);
+		if (te == null)
+			return null;
+		PacketBatchResponse.Result result;
+		switch (this.type) {
+		case ENERGY:
+			if (!EnergyUtils.hasSupport(te, this.side))
+				return null;
+			result = new PacketBatchResponse.Result(this.type, this.targets)
+					.setEnergy(ResponseCache.getEnergyStored(te, this.side, this.unit));
+			SnapshotManager.trackEnergyStored(te, this.side, this.unit);
+			return result;
+		case CAPACITY:
+			if (!EnergyUtils.hasSupport(te, this.side))
+				return null;
+			result = new PacketBatchResponse.Result(this.type, this.targets)
+					.setCapacity(ResponseCache.getCapacity(te, this.side, this.unit));
+			SnapshotManager.trackCapacity(te, this.side, this.unit);
+			return result;
+		case ENERGY_DATA:
+			if (!EnergyUtils.hasSupport(te, this.side))
+				return null;
+			result = new PacketBatchResponse.Result(this.type, this.targets)
+					.setEnergy(ResponseCache.getEnergyStored(te, this.side, this.unit))
+					.setCapacity(ResponseCache.getCapacity(te, this.side, this.unit));
+			SnapshotManager.trackEnergyStored(te, this.side, this.unit);
+			SnapshotManager.trackCapacity(te, this.side, this.unit);
+			return result;
+		case FLUID:
+			if (!FluidUtils.hasSupport(te, this.side))
+				return null;
+			result = new PacketBatchResponse.Result(this.type, this.targets)
+					.setCapacity(ResponseCache.getFluidCapacity(te, this.side, this.tankIndex))
+					.setFluidStack(ResponseCache.getFluidStack(te, this.side, this.tankIndex));
+			SnapshotManager.trackFluid(te, this.side, this.tankIndex);
+			return result;
+		case INVENTORY:
+			if (!InventoryUtils.hasSupport(te, this.side))
+				return null;
+			ImmutableList<ItemStack> inventory;
+			if (this.stacked) {
+				inventory = this.fromSlot >= 0
+						? ResponseCache.getInventoryStacked(te, this.fromSlot, this.toSlot, this.side)
+						: ResponseCache.getInventoryStacked(te, this.side);
+				SnapshotManager.trackInventoryStacked(te, this.side, this.fromSlot, this.toSlot);
+			} else
+				inventory = this.fromSlot >= 0 ? ResponseCache.getInventory(te, this.fromSlot, this.toSlot, this.side)
+						: ResponseCache.getInventory(te, this.side);
+			return new PacketBatchResponse.Result(this.type, this.targets).setInventory(inventory);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Answer the query from the snapshot published by the
+	 * {@link SnapshotManager} without touching the world. Safe to call from
+	 * the network thread
+	 *
+	 * @param player
+	 *            The player who asked
+	 * @return The answer or null if it has not been published
+	 */
+	@Nullable
+	PacketBatchResponse.Result resolve(EntityPlayerMP player) {
+		TileSnapshot snapshot = SnapshotManager.getSnapshot(player, this.pos);
+		if (snapshot == null)
+			return null;
+		switch (this.type) {
+		case ENERGY:
+			Long energy = snapshot.getEnergyStored(this.side, this.unit);
+			return energy == null ? null : new PacketBatchResponse.Result(this.type, this.targets).setEnergy(energy);
+		case CAPACITY:
+			Long capacity = snapshot.getCapacity(this.side, this.unit);
+			return capacity == null ? null
+					: new PacketBatchResponse.Result(this.type, this.targets).setCapacity(capacity);
+		case ENERGY_DATA:
+			energy = snapshot.getEnergyStored(this.side, this.unit);
+			capacity = snapshot.getCapacity(this.side, this.unit);
+			return energy == null || capacity == null ? null
+					: new PacketBatchResponse.Result(this.type, this.targets).setEnergy(energy).setCapacity(capacity);
+		case FLUID:
+			if (!snapshot.hasFluid(this.side, this.tankIndex))
+				return null;
+			return new PacketBatchResponse.Result(this.type, this.targets)
+					.setCapacity(snapshot.getFluidCapacity(this.side, this.tankIndex))
+					.setFluidStack(snapshot.getFluidStack(this.side, this.tankIndex));
+		case INVENTORY:
+			if (!this.stacked)
+				return null;
+			ImmutableList<ItemStack> inventory = snapshot.getInventoryStacked(this.side, this.fromSlot, this.toSlot);
+			return inventory == null ? null
+					: new PacketBatchResponse.Result(this.type, this.targets).setInventory(inventory);
+		default:
+			return null;
+		}
+	}
+
+}
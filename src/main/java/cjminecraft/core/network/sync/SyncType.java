@@ -0,0 +1,50 @@
+package cjminecraft.core.network.sync;
+
+/**
+ * The kind of data a subscription watches for
+ *
+ * @author CJMinecraft
+ *
+ */
+public enum SyncType {
+
+	/**
+	 * Energy and capacity, pushed to an energy target and a capacity target
+	 */
+	ENERGY(2),
+	/**
+	 * Capacity and fluid of a single tank, pushed to a capacity target and a
+	 * fluid stack target
+	 */
+	FLUID(2),
+	/**
+	 * Every item in the inventory, pushed to an inventory target
+	 */
+	INVENTORY(1);
+
+	private final int targetCount;
+
+	private SyncType(int targetCount) {
+		this.targetCount = targetCount;
+	}
+
+	/**
+	 * @return The number of sync targets the data is pushed to
+	 */
+	public int getTargetCount() {
+		return this.targetCount;
+	}
+
+	/**
+	 * Get the {@link SyncType} from its ordinal
+	 *
+	 * @param ordinal
+	 *            The ordinal of the {@link SyncType}
+	 * @return The {@link SyncType} or null if there is none
+	 */
+	public static SyncType fromOrdinal(int ordinal) {
+		SyncType[] values = values();
+		return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+	}
+
+}
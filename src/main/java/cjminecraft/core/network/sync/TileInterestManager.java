@@ -0,0 +1,266 @@
+package cjminecraft.core.network.sync;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.Nonnull;
+
+import cjminecraft.core.config.CJCoreConfig;
+import cjminecraft.core.network.PacketHandler;
+import cjminecraft.core.util.TileEntityBase;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+
+/**
+ * Works out which players need the viewer data of each
+ * {@link TileEntityBase}. Everyone watching the chunk is sent the cheap client
+ * data through the normal update packet, but viewer data, such as an
+ * inventory which changes every tick, is only sent to the players who are
+ * interested in it. A player is interested when they have the tile entity's
+ * gui open through an {@link ITileContainer}, are subscribed to its
+ * inventory or are within {@link CJCoreConfig.Sync#TILE_SYNC_RADIUS} blocks
+ * of it, which is off by default. Once a player has the viewer data they are
+ * only sent what changes
+ *
+ * @author CJMinecraft
+ *
+ */
+public class TileInterestManager {
+
+	/**
+	 * How many ticks between each time the interested players are worked out
+	 * again for tile entities which have not changed
+	 */
+	public static final int INTEREST_INTERVAL = 20;
+
+	private static final Map<TileEntityBase, Set<UUID>> tracked = new HashMap<TileEntityBase, Set<UUID>>();
+	private static final Set<TileEntityBase> dirty = new LinkedHashSet<TileEntityBase>();
+	private static final Map<UUID, Set<TileEntityBase>> viewers = new HashMap<UUID, Set<TileEntityBase>>();
+	private static int ticks = 0;
+
+	/**
+	 * Start sending the tile entity's viewer data to interested players.
+	 * Called by {@link TileEntityBase} when it is loaded on the server
+	 *
+	 * @param te
+	 *            The tile entity
+	 */
+	public static void track(@Nonnull TileEntityBase te) {
+		if (!tracked.containsKey(te))
+			tracked.put(te, new HashSet<UUID>());
+	}
+
+	/**
+	 * Stop sending the tile entity's viewer data. Called by
+	 * {@link TileEntityBase} when it is unloaded or removed
+	 *
+	 * @param te
+	 *            The tile entity
+	 */
+	public static void untrack(@Nonnull TileEntityBase te) {
+		tracked.remove(te);
+		dirty.remove(te);
+		for (Set<TileEntityBase> viewing : viewers.values())
+			viewing.remove(te);
+	}
+
+	/**
+	 * Send the tile entity's viewer data to every interested player at the end
+	 * of the tick. Calling this more than once in a tick only sends it once
+	 *
+	 * @param te
+	 *            The tile entity
+	 */
+	public static void markDirty(@Nonnull TileEntityBase te) {
+		if (tracked.containsKey(te))
+			dirty.add(te);
+	}
+
+	/**
+	 * Say that the player has the tile entity's gui open and send them its
+	 * viewer data straight away. Called when a container which is an
+	 * {@link ITileContainer} is opened. The player stops viewing when
+	 * {@link #removeViewer} is called or they close every gui
+	 *
+	 * @param player
+	 *            The player viewing the tile entity
+	 * @param te
+	 *            The tile entity
+	 */
+	public static void addViewer(@Nonnull EntityPlayerMP player, @Nonnull TileEntityBase te) {
+		Set<TileEntityBase> viewing = viewers.get(player.getUniqueID());
+		if (viewing == null) {
+			viewing = new HashSet<TileEntityBase>();
+			viewers.put(player.getUniqueID(), viewing);
+		}
+		viewing.add(te);
+		Set<UUID> interested = tracked.get(te);
+		if (interested != null && interested.add(player.getUniqueID()))
+			PacketHandler.sendTo(new PacketTileData(te.getPos(), getViewerData(te)), player);
+	}
+
+	/**
+	 * Say that the player no longer has the tile entity's gui open. Called when
+	 * a container which is an {@link ITileContainer} is closed
+	 *
+	 * @param player
+	 *            The player
+	 * @param te
+	 *            The tile entity
+	 */
+	public static void removeViewer(@Nonnull EntityPlayer player, @Nonnull TileEntityBase te) {
+		Set<TileEntityBase> viewing = viewers.get(player.getUniqueID());
+		if (viewing != null) {
+			viewing.remove(te);
+			if (viewing.isEmpty())
+				viewers.remove(player.getUniqueID());
+		}
+	}
+
+	/**
+	 * Forget everything the player is viewing. Called when the player logs out
+	 * or changes dimension
+	 *
+	 * @param player
+	 *            The player
+	 */
+	public static void removePlayer(@Nonnull EntityPlayer player) {
+		viewers.remove(player.getUniqueID());
+		for (Set<UUID> interested : tracked.values())
+			interested.remove(player.getUniqueID());
+	}
+
+	/**
+	 * Check whether the player should be sent the tile entity's viewer data
+	 *
+	 * @param player
+	 *            The player
+	 * @param te
+	 *            The tile entity
+	 * @return Whether the player is interested in the tile entity
+	 */
+	public static boolean isInterested(@Nonnull EntityPlayerMP player, @Nonnull TileEntity te) {
+		if (player.world != te.getWorld())
+			return false;
+		BlockPos pos = te.getPos();
+		if (!((WorldServer) te.getWorld()).getPlayerChunkMap().isPlayerWatchingChunk(player, pos.getX() >> 4,
+				pos.getZ() >> 4))
+			return false;
+		Set<TileEntityBase> viewing = viewers.get(player.getUniqueID());
+		if (viewing != null && viewing.contains(te))
+			return true;
+		if (SubscriptionManager.isSubscribed(player, pos, SyncType.INVENTORY))
+			return true;
+		int radius = CJCoreConfig.SYNC.TILE_SYNC_RADIUS;
+		return radius > 0 && player.getDistanceSq(pos.getX() + 0.5D, pos.getY() + 0.5D, pos.getZ() + 0.5D) <= radius
+				* radius;
+	}
+
+	/**
+	 * Get every player who should be sent the tile entity's viewer data
+	 *
+	 * @param te
+	 *            The tile entity
+	 * @return The interested players
+	 */
+	public static List<EntityPlayerMP> getInterestedPlayers(@Nonnull TileEntity te) {
+		List<EntityPlayerMP> players = new ArrayList<EntityPlayerMP>();
+		if (te.getWorld() == null || te.getWorld().isRemote)
+			return players;
+		for (EntityPlayer player : te.getWorld().playerEntities)
+			if (player instanceof EntityPlayerMP && isInterested((EntityPlayerMP) player, te))
+				players.add((EntityPlayerMP) player);
+		return players;
+	}
+
+	/**
+	 * Send what has changed in the viewer data of every changed tile entity to
+	 * the interested players who already have it and all of it to anyone newly
+	 * interested. Only the changed tile entities are looked at, except every
+	 * {@link #INTEREST_INTERVAL} ticks when every tile entity is, to send it
+	 * to anyone who has become interested since. Called at the end of each
+	 * server tick
+	 *
+	 * @param server
+	 *            The server
+	 */
+	public static void tick(MinecraftServer server) {
+		Iterator<Map.Entry<UUID, Set<TileEntityBase>>> players = viewers.entrySet().iterator();
+		while (players.hasNext()) {
+			EntityPlayerMP player = server.getPlayerList().getPlayerByUUID(players.next().getKey());
+			if (player == null || player.openContainer == player.inventoryContainer)
+				players.remove();
+		}
+		boolean refresh = ++ticks >= INTEREST_INTERVAL;
+		if (refresh)
+			ticks = 0;
+		if (refresh) {
+			for (Map.Entry<TileEntityBase, Set<UUID>> entry : tracked.entrySet())
+				send(entry.getKey(), entry.getValue(), dirty.contains(entry.getKey()));
+		} else
+			for (TileEntityBase te : dirty) {
+				Set<UUID> interested = tracked.get(te);
+				if (interested != null)
+					send(te, interested, true);
+			}
+		for (TileEntityBase te : dirty)
+			te.onViewerDataSent();
+		dirty.clear();
+	}
+
+	/**
+	 * Send the tile entity's viewer data to the players who have become
+	 * interested in it, and what has changed to the players who already have it
+	 *
+	 * @param te
+	 *            The tile entity
+	 * @param interested
+	 *            The players who were interested last time, which is updated
+	 * @param changed
+	 *            Whether the viewer data has changed
+	 */
+	private static void send(TileEntityBase te, Set<UUID> interested, boolean changed) {
+		NBTTagCompound nbt = null;
+		NBTTagCompound changes = null;
+		Set<UUID> now = new HashSet<UUID>();
+		for (EntityPlayerMP player : getInterestedPlayers(te)) {
+			now.add(player.getUniqueID());
+			if (!interested.contains(player.getUniqueID())) {
+				if (nbt == null)
+					nbt = getViewerData(te);
+				PacketHandler.sendTo(new PacketTileData(te.getPos(), nbt), player);
+			} else if (changed) {
+				if (changes == null)
+					changes = getViewerDataChanges(te);
+				PacketHandler.sendTo(new PacketTileData(te.getPos(), changes), player);
+			}
+		}
+		interested.clear();
+		interested.addAll(now);
+	}
+
+	private static NBTTagCompound getViewerData(TileEntityBase te) {
+		NBTTagCompound nbt = new NBTTagCompound();
+		te.writeViewerDataToNBT(nbt);
+		return nbt;
+	}
+
+	private static NBTTagCompound getViewerDataChanges(TileEntityBase te) {
+		NBTTagCompound nbt = new NBTTagCompound();
+		te.writeViewerDataChangesToNBT(nbt);
+		return nbt;
+	}
+
+}
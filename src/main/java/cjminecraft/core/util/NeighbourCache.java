@@ -0,0 +1,255 @@
+package cjminecraft.core.util;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import cjminecraft.core.energy.EnergyHandle;
+import cjminecraft.core.energy.EnergyUtils;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+
+/**
+ * Caches the {@link TileEntity}s surrounding a {@link TileEntityBase} along
+ * with their energy, item and fluid handlers. Each face is looked up lazily the
+ * first time it is needed and kept until a block next to the owner changes (see
+ * {@link #onBlockChanged(World, BlockPos)}).
+ *
+ * The handlers are always for the face of the neighbour which touches the
+ * owner. If a neighbour swaps its capabilities without a block update it
+ * should call {@link #onBlockChanged(World, BlockPos)} with its own position
+ *
+ * @author CJMinecraft
+ *
+ */
+public class NeighbourCache {
+
+	/**
+	 * The caches of each world, kept apart for each side so the client and
+	 * server threads of a single player game never share a map
+	 */
+	private static final Map<World, Long2ObjectMap<NeighbourCache>> serverCaches = new WeakHashMap<World, Long2ObjectMap<NeighbourCache>>();
+	private static final Map<World, Long2ObjectMap<NeighbourCache>> clientCaches = new WeakHashMap<World, Long2ObjectMap<NeighbourCache>>();
+
+	private final TileEntity owner;
+
+	private final TileEntity[] tiles = new TileEntity[6];
+	private final Chunk[] chunks = new Chunk[6];
+	private final EnergyHandle[] energyHandles = new EnergyHandle[6];
+	private final IItemHandler[] itemHandlers = new IItemHandler[6];
+	private final IFluidHandler[] fluidHandlers = new IFluidHandler[6];
+
+	/**
+	 * Bit masks of which faces have been looked up
+	 */
+	private int tilesResolved, energyResolved, itemsResolved, fluidsResolved;
+
+	private NeighbourCache(@Nonnull TileEntity owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Create a cache for the given {@link TileEntity} and register it so it
+	 * is told about block changes around it
+	 *
+	 * @param owner
+	 *            The {@link TileEntity} in the center
+	 * @return The new cache
+	 */
+	static NeighbourCache create(@Nonnull TileEntity owner) {
+		NeighbourCache cache = new NeighbourCache(owner);
+		Map<World, Long2ObjectMap<NeighbourCache>> caches = getCaches(owner.getWorld());
+		Long2ObjectMap<NeighbourCache> worldCaches = caches.get(owner.getWorld());
+		if (worldCaches == null) {
+			worldCaches = new Long2ObjectOpenHashMap<NeighbourCache>();
+			caches.put(owner.getWorld(), worldCaches);
+		}
+		worldCaches.put(owner.getPos().toLong(), cache);
+		return cache;
+	}
+
+	/**
+	 * Stop the cache of the given {@link TileEntity} from being told about
+	 * block changes
+	 *
+	 * @param owner
+	 *            The {@link TileEntity} in the center
+	 */
+	static void remove(@Nonnull TileEntity owner) {
+		Long2ObjectMap<NeighbourCache> worldCaches = getCaches(owner.getWorld()).get(owner.getWorld());
+		if (worldCaches != null) {
+			NeighbourCache cache = worldCaches.get(owner.getPos().toLong());
+			if (cache != null && cache.owner == owner)
+				worldCaches.remove(owner.getPos().toLong());
+		}
+	}
+
+	/**
+	 * Tells all of the caches next to the given position that the block there
+	 * has changed
+	 *
+	 * @param world
+	 *            The world the block is in
+	 * @param pos
+	 *            The position of the block which has changed
+	 */
+	public static void onBlockChanged(@Nonnull World world, @Nonnull BlockPos pos) {
+		Long2ObjectMap<NeighbourCache> worldCaches = getCaches(world).get(world);
+		if (worldCaches == null || worldCaches.isEmpty())
+			return;
+		for (EnumFacing side : EnumFacing.VALUES) {
+			NeighbourCache cache = worldCaches.get(pos.offset(side).toLong());
+			if (cache != null)
+				cache.invalidate(side.getOpposite());
+		}
+	}
+
+	private static Map<World, Long2ObjectMap<NeighbourCache>> getCaches(@Nonnull World world) {
+		return world.isRemote ? clientCaches : serverCaches;
+	}
+
+	/**
+	 * Forget everything cached about the given face
+	 *
+	 * @param side
+	 *            The face of the owner
+	 */
+	public void invalidate(@Nonnull EnumFacing side) {
+		int i = side.getIndex();
+		int mask = ~(1 << i);
+		this.tilesResolved &= mask;
+		this.energyResolved &= mask;
+		this.itemsResolved &= mask;
+		this.fluidsResolved &= mask;
+		this.tiles[i] = null;
+		this.chunks[i] = null;
+		this.energyHandles[i] = null;
+		this.itemHandlers[i] = null;
+		this.fluidHandlers[i] = null;
+	}
+
+	/**
+	 * Forget everything cached about every face
+	 */
+	public void invalidate() {
+		for (EnumFacing side : EnumFacing.VALUES)
+			invalidate(side);
+	}
+
+	/**
+	 * Get the {@link TileEntity} next to the given face
+	 *
+	 * @param side
+	 *            The face of the owner
+	 * @return The {@link TileEntity} next to the face. Can be
+	 *         <code>null</code>
+	 */
+	@Nullable
+	public TileEntity getTileEntity(@Nonnull EnumFacing side) {
+		int i = side.getIndex();
+		if ((this.tilesResolved & (1 << i)) != 0) {
+			TileEntity te = this.tiles[i];
+			if (te == null || (!te.isInvalid() && this.chunks[i].isLoaded()))
+				return te;
+			invalidate(side);
+		}
+		World world = this.owner.getWorld();
+		BlockPos pos = this.owner.getPos().offset(side);
+		Chunk chunk = world.getChunkProvider().getLoadedChunk(pos.getX() >> 4, pos.getZ() >> 4);
+		if (chunk == null)
+			return null;
+		this.chunks[i] = chunk;
+		this.tiles[i] = world.getTileEntity(pos);
+		this.tilesResolved |= 1 << i;
+		return this.tiles[i];
+	}
+
+	/**
+	 * Get the {@link EnergyHandle} of the {@link TileEntity} next to the given
+	 * face
+	 *
+	 * @param side
+	 *            The face of the owner
+	 * @return The {@link EnergyHandle} if the {@link TileEntity} has energy
+	 *         support. Can be <code>null</code>
+	 */
+	@Nullable
+	public EnergyHandle getEnergyHandle(@Nonnull EnumFacing side) {
+		TileEntity te = getTileEntity(side);
+		int i = side.getIndex();
+		if ((this.energyResolved & (1 << i)) != 0)
+			return this.energyHandles[i];
+		if (te == null)
+			return null;
+		this.energyHandles[i] = EnergyUtils.hasSupport(te, side.getOpposite())
+				? new EnergyHandle(te, side.getOpposite()) : null;
+		this.energyResolved |= 1 << i;
+		return this.energyHandles[i];
+	}
+
+	/**
+	 * Get the {@link IItemHandler} of the {@link TileEntity} next to the given
+	 * face
+	 *
+	 * @param side
+	 *            The face of the owner
+	 * @return The {@link IItemHandler} if the {@link TileEntity} has the
+	 *         {@link Capability}. Can be <code>null</code>
+	 */
+	@Nullable
+	public IItemHandler getItemHandler(@Nonnull EnumFacing side) {
+		TileEntity te = getTileEntity(side);
+		int i = side.getIndex();
+		if ((this.itemsResolved & (1 << i)) != 0)
+			return this.itemHandlers[i];
+		if (te == null)
+			return null;
+		this.itemHandlers[i] = te.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite())
+				? te.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite()) : null;
+		this.itemsResolved |= 1 << i;
+		return this.itemHandlers[i];
+	}
+
+	/**
+	 * Get the {@link IFluidHandler} of the {@link TileEntity} next to the given
+	 * face
+	 *
+	 * @param side
+	 *            The face of the owner
+	 * @return The {@link IFluidHandler} if the {@link TileEntity} has the
+	 *         {@link Capability}. Can be <code>null</code>
+	 */
+	@Nullable
+	public IFluidHandler getFluidHandler(@Nonnull EnumFacing side) {
+		TileEntity te = getTileEntity(side);
+		int i = side.getIndex();
+		if ((this.fluidsResolved & (1 << i)) != 0)
+			return this.fluidHandlers[i];
+		if (te == null)
+			return null;
+		this.fluidHandlers[i] = te.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, side.getOpposite())
+				? te.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, side.getOpposite()) : null;
+		this.fluidsResolved |= 1 << i;
+		return this.fluidHandlers[i];
+	}
+
+	/**
+	 * @return The {@link TileEntity} in the center
+	 */
+	public TileEntity getOwner() {
+		return this.owner;
+	}
+
+}
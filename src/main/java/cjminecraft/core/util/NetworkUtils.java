@@ -1,12 +1,20 @@
 package cjminecraft.core.util;
 
+import java.util.List;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.google.common.collect.ImmutableList;
+
+import cjminecraft.core.CJCore;
 import cjminecraft.core.energy.EnergyUnit;
 import io.netty.buffer.ByteBuf;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 
 /**
@@ -17,6 +25,44 @@ import net.minecraftforge.fml.common.network.ByteBufUtils;
  */
 public class NetworkUtils {
 
+	/**
+	 * The version of the format written by this class. Written at the start of
+	 * every {@link CJCore} packet so a mismatched client and server drop the
+	 * packet rather than reading garbage
+	 */
+	public static final int WIRE_VERSION = 1;
+
+	/**
+	 * Written in place of a <code>null</code> {@link EnumFacing}
+	 */
+	private static final int NULL_FACING = 0xFF;
+
+	/**
+	 * Writes the {@link #WIRE_VERSION} to the {@link ByteBuf}
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to write to
+	 */
+	public static void writeWireVersion(ByteBuf buf) {
+		buf.writeByte(WIRE_VERSION);
+	}
+
+	/**
+	 * Reads the version from the {@link ByteBuf}
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to read from
+	 * @return Whether the version matches {@link #WIRE_VERSION}. If not the
+	 *         rest of the packet should not be read
+	 */
+	public static boolean readWireVersion(ByteBuf buf) {
+		int version = buf.readUnsignedByte();
+		if (version == WIRE_VERSION)
+			return true;
+		CJCore.logger.warn(String.format("Dropping packet with wire version %s, expected %s", version, WIRE_VERSION));
+		return false;
+	}
+
 	/**
 	 * Writes the {@link BlockPos} to the {@link ByteBuf}
 	 * 
@@ -26,9 +72,7 @@ public class NetworkUtils {
 	 *            The {@link BlockPos} to write
 	 */
 	public static void writeBlockPos(ByteBuf buf, BlockPos pos) {
-		buf.writeInt(pos.getX());
-		buf.writeInt(pos.getY());
-		buf.writeInt(pos.getZ());
+		buf.writeLong(pos.toLong());
 	}
 
 	/**
@@ -39,7 +83,7 @@ public class NetworkUtils {
 	 * @return The {@link BlockPos} read from the {@link ByteBuf}
 	 */
 	public static BlockPos readBlockPos(ByteBuf buf) {
-		return new BlockPos(buf.readInt(), buf.readInt(), buf.readInt());
+		return BlockPos.fromLong(buf.readLong());
 	}
 
 	/**
@@ -51,7 +95,7 @@ public class NetworkUtils {
 	 *            The {@link EnumFacing} to write
 	 */
 	public static void writeEnumFacing(ByteBuf buf, @Nullable EnumFacing facing) {
-		ByteBufUtils.writeUTF8String(buf, facing == null ? "null" : facing.getName2());
+		buf.writeByte(facing == null ? NULL_FACING : facing.getIndex());
 	}
 
 	/**
@@ -63,8 +107,8 @@ public class NetworkUtils {
 	 */
 	@Nullable
 	public static EnumFacing readEnumFacing(ByteBuf buf) {
-		String face = ByteBufUtils.readUTF8String(buf);
-		return face == "null" ? null : EnumFacing.byName(face);
+		int index = buf.readUnsignedByte();
+		return index < EnumFacing.VALUES.length ? EnumFacing.VALUES[index] : null;
 	}
 
 	/**
@@ -76,7 +120,7 @@ public class NetworkUtils {
 	 *            The {@link EnergyUnit} to write
 	 */
 	public static void writeEnergyUnit(ByteBuf buf, @Nonnull EnergyUnit unit) {
-		ByteBufUtils.writeUTF8String(buf, unit.getUnlocalizedName());
+		buf.writeByte(unit.ordinal());
 	}
 
 	/**
@@ -88,7 +132,143 @@ public class NetworkUtils {
 	 */
 	@Nonnull
 	public static EnergyUnit readEnergyUnit(ByteBuf buf) {
-		return EnergyUnit.byUnlocalizedName(ByteBufUtils.readUTF8String(buf));
+		int ordinal = buf.readUnsignedByte();
+		return ordinal < EnergyUnit.VALUES.size() ? EnergyUnit.VALUES.get(ordinal) : EnergyUnit.MINECRAFT_JOULES;
+	}
+
+	/**
+	 * Writes a positive int to the {@link ByteBuf} using as few bytes as it
+	 * can. Small values such as sizes and slot indexes only take one byte
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to write to
+	 * @param value
+	 *            The int to write
+	 */
+	public static void writeVarInt(ByteBuf buf, int value) {
+		while ((value & ~0x7F) != 0) {
+			buf.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf.writeByte(value);
+	}
+
+	/**
+	 * Reads an int written by {@link #writeVarInt(ByteBuf, int)}
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to read from
+	 * @return The int read from the {@link ByteBuf}
+	 */
+	public static int readVarInt(ByteBuf buf) {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buf.readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IndexOutOfBoundsException("VarInt is too long");
+	}
+
+	/**
+	 * Writes a positive long to the {@link ByteBuf} using as few bytes as it
+	 * can
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to write to
+	 * @param value
+	 *            The long to write
+	 */
+	public static void writeVarLong(ByteBuf buf, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buf.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf.writeByte((int) value);
+	}
+
+	/**
+	 * Reads a long written by {@link #writeVarLong(ByteBuf, long)}
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to read from
+	 * @return The long read from the {@link ByteBuf}
+	 */
+	public static long readVarLong(ByteBuf buf) {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = buf.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IndexOutOfBoundsException("VarLong is too long");
+	}
+
+	/**
+	 * Writes the {@link FluidStack} to the {@link ByteBuf}
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to write to
+	 * @param fluidStack
+	 *            The {@link FluidStack} to write, may be null
+	 */
+	public static void writeFluidStack(ByteBuf buf, @Nullable FluidStack fluidStack) {
+		buf.writeBoolean(fluidStack != null);
+		if (fluidStack != null)
+			ByteBufUtils.writeTag(buf, fluidStack.writeToNBT(new NBTTagCompound()));
+	}
+
+	/**
+	 * Reads a {@link FluidStack} from the {@link ByteBuf}
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to read from
+	 * @return The {@link FluidStack} read from the {@link ByteBuf} or null if
+	 *         there was none
+	 */
+	@Nullable
+	public static FluidStack readFluidStack(ByteBuf buf) {
+		return buf.readBoolean() ? FluidStack.loadFluidStackFromNBT(ByteBufUtils.readTag(buf)) : null;
+	}
+
+	/**
+	 * Writes the {@link ItemStack}s to the {@link ByteBuf}. The count of each
+	 * stack is written as a var int so stacks larger than a byte survive
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to write to
+	 * @param stacks
+	 *            The {@link ItemStack}s to write
+	 */
+	public static void writeItemStacks(ByteBuf buf, List<ItemStack> stacks) {
+		writeVarInt(buf, stacks.size());
+		for (ItemStack stack : stacks) {
+			NBTTagCompound nbt = stack.serializeNBT();
+			nbt.removeTag("Count");
+			ByteBufUtils.writeTag(buf, nbt);
+			writeVarInt(buf, stack.getCount());
+		}
+	}
+
+	/**
+	 * Reads {@link ItemStack}s written by
+	 * {@link #writeItemStacks(ByteBuf, List)}
+	 * 
+	 * @param buf
+	 *            The {@link ByteBuf} to read from
+	 * @return The {@link ItemStack}s read from the {@link ByteBuf}
+	 */
+	public static ImmutableList<ItemStack> readItemStacks(ByteBuf buf) {
+		int size = readVarInt(buf);
+		ImmutableList.Builder<ItemStack> stacks = ImmutableList.builder();
+		for (int i = 0; i < size; i++) {
+			ItemStack stack = new ItemStack(ByteBufUtils.readTag(buf));
+			stack.setCount(readVarInt(buf));
+			stacks.add(stack);
+		}
+		return stacks.build();
 	}
-	
+
 }
@@ -1,5 +1,7 @@
 package cjminecraft.core.util;
 
+import cjminecraft.core.network.sync.SnapshotManager;
+import cjminecraft.core.network.sync.TileInterestManager;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
@@ -17,6 +19,8 @@ import net.minecraft.world.World;
  */
 public class TileEntityBase extends TileEntity {
 
+	private NeighbourCache neighbourCache;
+
 	/**
 	 * Unless the actual block has changed, don't remove the tile entity when a
 	 * block update occurs
@@ -44,6 +48,81 @@ public class TileEntityBase extends TileEntity {
 	public void readClientDataFromNBT(NBTTagCompound nbt) {
 	}
 
+	/**
+	 * Should write the data which changes often and is only needed by players
+	 * who are looking at the {@link TileEntity}, such as an inventory shown in
+	 * a gui. Unlike {@link #writeClientDataToNBT(NBTTagCompound)} this is only
+	 * sent to the players the {@link TileInterestManager} says are interested
+	 * 
+	 * @param nbt
+	 *            The nbt to write viewer data to
+	 */
+	public void writeViewerDataToNBT(NBTTagCompound nbt) {
+	}
+
+	/**
+	 * Should read the data written by
+	 * {@link #writeViewerDataToNBT(NBTTagCompound)} and
+	 * {@link #writeViewerDataChangesToNBT(NBTTagCompound)}
+	 * 
+	 * @param nbt
+	 *            The nbt to read viewer data from
+	 */
+	public void readViewerDataFromNBT(NBTTagCompound nbt) {
+	}
+
+	/**
+	 * Should write only the viewer data which has changed since
+	 * {@link #onViewerDataSent()} was last called. Sent to players who were
+	 * already sent the viewer data, so a slot changing in a large inventory
+	 * does not send the whole inventory again. By default writes all of the
+	 * viewer data
+	 * 
+	 * @param nbt
+	 *            The nbt to write the changed viewer data to
+	 */
+	public void writeViewerDataChangesToNBT(NBTTagCompound nbt) {
+		writeViewerDataToNBT(nbt);
+	}
+
+	/**
+	 * Called at the end of a tick the viewer data was marked dirty in, once
+	 * the changes have been sent to every interested player. Should forget
+	 * what has changed
+	 */
+	public void onViewerDataSent() {
+	}
+
+	/**
+	 * Says whether the {@link TileEntity} has any viewer data. Only
+	 * {@link TileEntity}s which do are tracked by the
+	 * {@link TileInterestManager}
+	 * 
+	 * @return Whether {@link #writeViewerDataToNBT(NBTTagCompound)} writes
+	 *         anything
+	 */
+	protected boolean hasViewerData() {
+		return false;
+	}
+
+	/**
+	 * Send the viewer data to every interested player at the end of the tick
+	 */
+	public void markViewerDataDirty() {
+		if (this.world != null && !this.world.isRemote)
+			TileInterestManager.markDirty(this);
+	}
+
+	/**
+	 * Starts tracking who is interested in the viewer data
+	 */
+	@Override
+	public void onLoad() {
+		super.onLoad();
+		if (!this.world.isRemote && hasViewerData())
+			TileInterestManager.track(this);
+	}
+
 	/**
 	 * Makes sure the client has all the data it needs
 	 */
@@ -102,4 +181,51 @@ public class TileEntityBase extends TileEntity {
 				&& player.getDistanceSq(this.pos.add(0.5, 0.5, 0.5)) <= 64;
 	}
 
+	/**
+	 * Get the cache of the surrounding {@link TileEntity}s. Should only be used
+	 * once the {@link TileEntity} has been added to the world
+	 * 
+	 * @return The cache of the surrounding {@link TileEntity}s
+	 */
+	public NeighbourCache getNeighbourCache() {
+		if (this.neighbourCache == null)
+			this.neighbourCache = NeighbourCache.create(this);
+		return this.neighbourCache;
+	}
+
+	/**
+	 * Makes sure the neighbour cache is no longer told about block changes and
+	 * the viewer data and snapshots are no longer sent
+	 */
+	@Override
+	public void invalidate() {
+		super.invalidate();
+		removeNeighbourCache();
+		if (this.world != null && !this.world.isRemote) {
+			TileInterestManager.untrack(this);
+			SnapshotManager.untrack(this);
+		}
+	}
+
+	/**
+	 * Makes sure the neighbour cache is no longer told about block changes and
+	 * the viewer data and snapshots are no longer sent
+	 */
+	@Override
+	public void onChunkUnload() {
+		super.onChunkUnload();
+		removeNeighbourCache();
+		if (this.world != null && !this.world.isRemote) {
+			TileInterestManager.untrack(this);
+			SnapshotManager.untrack(this);
+		}
+	}
+
+	private void removeNeighbourCache() {
+		if (this.neighbourCache != null) {
+			NeighbourCache.remove(this);
+			this.neighbourCache = null;
+		}
+	}
+
 }
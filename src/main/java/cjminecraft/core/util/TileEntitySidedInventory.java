@@ -1,16 +1,28 @@
 package cjminecraft.core.util;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import cjminecraft.core.inventory.ComparatorTracker;
+import cjminecraft.core.inventory.IComparatorTracked;
+import cjminecraft.core.inventory.IIndexedItemHandler;
+import cjminecraft.core.inventory.ItemKey;
+import it.unimi.dsi.fastutil.ints.IntAVLTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.network.NetworkManager;
-import net.minecraft.network.play.server.SPacketUpdateTileEntity;
+import net.minecraft.nbt.NBTTagList;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
 import net.minecraftforge.items.ItemHandlerHelper;
 import net.minecraftforge.items.ItemStackHandler;
 
@@ -20,7 +32,7 @@ import net.minecraftforge.items.ItemStackHandler;
  *
  * @author CJMinecraft
  */
-public class TileEntitySidedInventory extends TileEntityBase {
+public class TileEntitySidedInventory extends TileEntityBase implements IComparatorTracked {
 
 	/**
 	 * The holder of all the item stacks
@@ -34,6 +46,18 @@ public class TileEntitySidedInventory extends TileEntityBase {
 	 * The slots each side will represent
 	 */
 	private int[][] slotsForFace;
+	/**
+	 * Keeps the comparator output of each side up to date
+	 */
+	private ComparatorTracker comparator;
+	/**
+	 * The slots which have changed since the viewer data was last sent
+	 */
+	private final BitSet viewerChanges = new BitSet();
+	/**
+	 * Whether the inventory is sent as viewer data
+	 */
+	private boolean inventoryViewerData;
 
 	/**
 	 * Create a sided {@link TileEntity}, like the
@@ -56,12 +80,9 @@ public class TileEntitySidedInventory extends TileEntityBase {
 			int[] slotsWest, int[] slotsEast) {
 		this.slotsForFace = new int[][] { slotsDown, slotsUp, slotsNorth, slotsSouth, slotsWest, slotsEast };
 		this.handler = new SidedItemStackMainHandler(calculateSizeOfMainHandler());
-		this.sideHandlers[0] = new SidedItemStackHandler(slotsDown.length, EnumFacing.DOWN);
-		this.sideHandlers[1] = new SidedItemStackHandler(slotsUp.length, EnumFacing.UP);
-		this.sideHandlers[2] = new SidedItemStackHandler(slotsNorth.length, EnumFacing.NORTH);
-		this.sideHandlers[3] = new SidedItemStackHandler(slotsSouth.length, EnumFacing.SOUTH);
-		this.sideHandlers[4] = new SidedItemStackHandler(slotsWest.length, EnumFacing.WEST);
-		this.sideHandlers[5] = new SidedItemStackHandler(slotsEast.length, EnumFacing.EAST);
+		for (EnumFacing side : EnumFacing.VALUES)
+			this.sideHandlers[side.getIndex()] = new SidedItemStackHandler(side);
+		this.comparator = new ComparatorTracker(this, this.handler, this.slotsForFace);
 	}
 
 	/**
@@ -102,6 +123,23 @@ public class TileEntitySidedInventory extends TileEntityBase {
 	protected void onSlotChanged(int slot) {
 
 	}
+
+	@Override
+	public ComparatorTracker getComparatorTracker() {
+		return this.comparator;
+	}
+
+	/**
+	 * Get the redstone current a comparator should show without looking at
+	 * every slot
+	 * 
+	 * @param side
+	 *            The side of the inventory or null for the whole inventory
+	 * @return The redstone current from 0 to 15
+	 */
+	public int getComparatorOutput(@Nullable EnumFacing side) {
+		return this.comparator.getComparatorOutput(side);
+	}
 	
 	@Override
 	public boolean hasCapability(Capability<?> capability, EnumFacing facing) {
@@ -130,39 +168,74 @@ public class TileEntitySidedInventory extends TileEntityBase {
 	}
 
 	/**
-	 * Makes sure the client has all the data it needs
+	 * Send the inventory as viewer data to the players interested in this
+	 * {@link TileEntity}, such as those with an
+	 * {@link cjminecraft.core.network.sync.ITileContainer} open or an
+	 * inventory subscription. Off by default as a normal container already
+	 * syncs its slots. Should be called from the constructor, before the
+	 * {@link TileEntity} is loaded
+	 * 
+	 * @param enabled
+	 *            Whether to send the inventory as viewer data
 	 */
-	@Override
-	public SPacketUpdateTileEntity getUpdatePacket() {
-		NBTTagCompound nbtTag = new NBTTagCompound();
-		writeToNBT(nbtTag);
-		return new SPacketUpdateTileEntity(this.pos, 1, nbtTag);
+	protected void setInventoryViewerData(boolean enabled) {
+		this.inventoryViewerData = enabled;
 	}
 
 	/**
-	 * Make sure to read the client data when it receives the update packet
+	 * Only sends the inventory once {@link #setInventoryViewerData(boolean)}
+	 * has been called
 	 */
 	@Override
-	public void onDataPacket(NetworkManager net, SPacketUpdateTileEntity pkt) {
-		readFromNBT(pkt.getNbtCompound());
+	protected boolean hasViewerData() {
+		return this.inventoryViewerData || super.hasViewerData();
 	}
 
-	/**
-	 * Returns the tag with all of the client data saved
-	 */
 	@Override
-	public NBTTagCompound getUpdateTag() {
-		NBTTagCompound nbt = super.getUpdateTag();
-		writeToNBT(nbt);
-		return nbt;
+	public void writeViewerDataToNBT(NBTTagCompound nbt) {
+		super.writeViewerDataToNBT(nbt);
+		if (this.inventoryViewerData)
+			nbt.setTag("Inventory", this.handler.serializeNBT());
 	}
 
 	/**
-	 * Handles when you get an update
+	 * Only the slots which have changed are sent to players who already have
+	 * the inventory
 	 */
 	@Override
-	public void handleUpdateTag(NBTTagCompound nbt) {
-		readFromNBT(nbt);
+	public void writeViewerDataChangesToNBT(NBTTagCompound nbt) {
+		super.writeViewerDataChangesToNBT(nbt);
+		if (!this.inventoryViewerData)
+			return;
+		NBTTagList changes = new NBTTagList();
+		for (int slot = this.viewerChanges.nextSetBit(0); slot >= 0
+				&& slot < this.handler.getSlots(); slot = this.viewerChanges.nextSetBit(slot + 1)) {
+			NBTTagCompound item = new NBTTagCompound();
+			item.setInteger("Slot", slot);
+			this.handler.getStackInSlot(slot).writeToNBT(item);
+			changes.appendTag(item);
+		}
+		nbt.setTag("InventoryChanges", changes);
+	}
+
+	@Override
+	public void onViewerDataSent() {
+		super.onViewerDataSent();
+		this.viewerChanges.clear();
+	}
+
+	@Override
+	public void readViewerDataFromNBT(NBTTagCompound nbt) {
+		super.readViewerDataFromNBT(nbt);
+		if (nbt.hasKey("Inventory"))
+			this.handler.deserializeNBT(nbt.getCompoundTag("Inventory"));
+		NBTTagList changes = nbt.getTagList("InventoryChanges", Constants.NBT.TAG_COMPOUND);
+		for (int i = 0; i < changes.tagCount(); i++) {
+			NBTTagCompound item = changes.getCompoundTagAt(i);
+			int slot = item.getInteger("Slot");
+			if (slot >= 0 && slot < this.handler.getSlots())
+				this.handler.setStackInSlot(slot, new ItemStack(item));
+		}
 	}
 
 	/**
@@ -175,7 +248,12 @@ public class TileEntitySidedInventory extends TileEntityBase {
 		return nbt;
 	}
 
-	public class SidedItemStackMainHandler extends ItemStackHandler {
+	public class SidedItemStackMainHandler extends ItemStackHandler implements IIndexedItemHandler {
+
+		private boolean indexed = false;
+		private final Map<ItemKey, IntSortedSet> index = new HashMap<ItemKey, IntSortedSet>();
+		private final BitSet freeSlots = new BitSet();
+		private ItemKey[] slotKeys = new ItemKey[0];
 
 		public SidedItemStackMainHandler(int size) {
 			super(size);
@@ -183,11 +261,163 @@ public class TileEntitySidedInventory extends TileEntityBase {
 		
 		@Override
 		protected void onLoad() {
-			for (int slot = 0; slot < this.getSlots(); slot++)
-				for (int i = 0; i < slotsForFace.length; i++)
-					for (int j = 0; j < slotsForFace[i].length; j++)
-						if (slot == slotsForFace[i][j])
-							sideHandlers[i].setStackInSlotInternal(j, handler.getStackInSlot(slot));
+			rebuildIndex();
+			if (comparator != null)
+				comparator.rebuild();
+		}
+
+		/**
+		 * Choose whether to keep an index of which slots hold each item and
+		 * which are empty. Worth turning on for large inventories which items
+		 * are often put into or taken out of, such as storage blocks
+		 * 
+		 * @param indexed
+		 *            Whether to keep the index
+		 */
+		public void setIndexed(boolean indexed) {
+			this.indexed = indexed;
+			rebuildIndex();
+		}
+
+		@Override
+		public boolean isIndexed() {
+			return this.indexed;
+		}
+
+		/**
+		 * Work out the index again from every slot. Only needs to be called
+		 * if a stack in the inventory was changed without the handler being
+		 * told
+		 */
+		public void rebuildIndex() {
+			this.index.clear();
+			this.freeSlots.clear();
+			this.slotKeys = new ItemKey[this.indexed ? getSlots() : 0];
+			for (int slot = 0; slot < this.slotKeys.length; slot++)
+				updateIndex(slot);
+		}
+
+		private void updateIndex(int slot) {
+			if (!this.indexed)
+				return;
+			if (this.slotKeys.length != getSlots()) {
+				rebuildIndex();
+				return;
+			}
+			ItemStack stack = this.stacks.get(slot);
+			ItemKey previous = this.slotKeys[slot];
+			if (previous != null && !stack.isEmpty() && previous.matches(stack))
+				return;
+			if (previous != null) {
+				IntSortedSet slots = this.index.get(previous);
+				slots.remove(slot);
+				if (slots.isEmpty())
+					this.index.remove(previous);
+			}
+			if (stack.isEmpty()) {
+				this.slotKeys[slot] = null;
+				this.freeSlots.set(slot);
+				return;
+			}
+			this.freeSlots.clear(slot);
+			ItemKey key = ItemKey.of(stack).toImmutable();
+			this.slotKeys[slot] = key;
+			IntSortedSet slots = this.index.get(key);
+			if (slots == null) {
+				slots = new IntAVLTreeSet();
+				this.index.put(key, slots);
+			}
+			slots.add(slot);
+		}
+
+		/**
+		 * Get the slots in range which hold the item. Only works when
+		 * {@link #isIndexed()}
+		 * 
+		 * @param stack
+		 *            The item to look for
+		 * @param fromSlot
+		 *            The first slot
+		 * @param toSlot
+		 *            The last slot
+		 * @return The slots in order
+		 */
+		public int[] getSlotsHolding(@Nonnull ItemStack stack, int fromSlot, int toSlot) {
+			IntSortedSet slots = stack.isEmpty() ? null : this.index.get(ItemKey.of(stack));
+			if (slots == null || fromSlot > toSlot)
+				return new int[0];
+			return slots.subSet(fromSlot, toSlot + 1).toIntArray();
+		}
+
+		/**
+		 * Get the next empty slot. Only works when {@link #isIndexed()}
+		 * 
+		 * @param fromSlot
+		 *            The slot to start looking from
+		 * @return The index of the empty slot or -1 if there are none
+		 */
+		public int getNextFreeSlot(int fromSlot) {
+			return this.freeSlots.nextSetBit(Math.max(fromSlot, 0));
+		}
+
+		@Override
+		@Nonnull
+		public ItemStack insertItemIndexed(@Nonnull ItemStack stack, int fromSlot, int toSlot, boolean simulate) {
+			if (stack.isEmpty())
+				return ItemStack.EMPTY;
+			int lastSlot = Math.min(toSlot, getSlots() - 1);
+			ItemStack remainder = stack.copy();
+			if (!this.indexed) {
+				for (int slot = Math.max(fromSlot, 0); slot <= lastSlot && !remainder.isEmpty(); slot++)
+					remainder = insertItem(slot, remainder, simulate);
+				return remainder;
+			}
+			for (int slot : getSlotsHolding(stack, fromSlot, lastSlot)) {
+				remainder = insertItem(slot, remainder, simulate);
+				if (remainder.isEmpty())
+					return ItemStack.EMPTY;
+			}
+			for (int slot = getNextFreeSlot(fromSlot); slot >= 0 && slot <= lastSlot; slot = getNextFreeSlot(slot + 1)) {
+				remainder = insertItem(slot, remainder, simulate);
+				if (remainder.isEmpty())
+					return ItemStack.EMPTY;
+			}
+			return remainder;
+		}
+
+		@Override
+		@Nonnull
+		public ItemStack extractItemIndexed(@Nonnull ItemStack stack, int fromSlot, int toSlot, boolean simulate) {
+			if (stack.isEmpty())
+				return ItemStack.EMPTY;
+			int lastSlot = Math.min(toSlot, getSlots() - 1);
+			int[] slots;
+			if (this.indexed)
+				slots = getSlotsHolding(stack, fromSlot, lastSlot);
+			else {
+				ItemKey key = ItemKey.of(stack);
+				slots = new int[Math.max(lastSlot - fromSlot + 1, 0)];
+				int count = 0;
+				for (int slot = Math.max(fromSlot, 0); slot <= lastSlot; slot++)
+					if (!this.stacks.get(slot).isEmpty() && key.matches(this.stacks.get(slot)))
+						slots[count++] = slot;
+				slots = Arrays.copyOf(slots, count);
+			}
+			ItemStack extracted = ItemStack.EMPTY;
+			int remaining = stack.getCount();
+			for (int slot : slots) {
+				ItemStack taken = extractItem(slot, remaining, simulate);
+				if (taken.isEmpty())
+					continue;
+				if (extracted.isEmpty())
+					extracted = taken.copy();
+				else
+					extracted.grow(taken.getCount());
+				remaining -= taken.getCount();
+				if (remaining <= 0)
+					break;
+			}
+			return extracted;
 		}
 		
 		@Override
@@ -197,11 +427,15 @@ public class TileEntitySidedInventory extends TileEntityBase {
 		}
 		
 		private void onContentsChangedInternal(int slot) {
-			for (int i = 0; i < slotsForFace.length; i++)
-				for (int j = 0; j < slotsForFace[i].length; j++)
-					if (slot == slotsForFace[i][j])
-						sideHandlers[i].setStackInSlotInternal(j, handler.getStackInSlot(slot));
-			markDirty();
+			updateIndex(slot);
+			if (world != null)
+				world.markChunkDirty(pos, TileEntitySidedInventory.this);
+			if (comparator != null)
+				comparator.onSlotChanged(slot);
+			if (inventoryViewerData && world != null && !world.isRemote) {
+				viewerChanges.set(slot);
+				markViewerDataDirty();
+			}
 		}
 		
 		@Nonnull
@@ -281,32 +515,150 @@ public class TileEntitySidedInventory extends TileEntityBase {
 	    }
 	}
 
-	private class SidedItemStackHandler extends ItemStackHandler {
+	/**
+	 * A view of the slots of the main handler on one side. Holds no stacks of
+	 * its own, every slot is looked up in the main handler
+	 */
+	private class SidedItemStackHandler implements IItemHandlerModifiable, IIndexedItemHandler {
+
+		/**
+		 * The slot of the main handler for each slot of this handler
+		 */
+		private int[] slots;
+		/**
+		 * The slot of this handler for each slot of the main handler, or -1
+		 * if the slot is not on this side
+		 */
+		private int[] sideSlots;
+
+		public SidedItemStackHandler(EnumFacing side) {
+			this.slots = slotsForFace[side.getIndex()];
+			this.sideSlots = new int[handler.getSlots()];
+			Arrays.fill(this.sideSlots, -1);
+			for (int i = this.slots.length - 1; i >= 0; i--)
+				this.sideSlots[this.slots[i]] = i;
+		}
 
-		private EnumFacing side;
+		@Override
+		public int getSlots() {
+			return this.slots.length;
+		}
 
-		public SidedItemStackHandler(int size, EnumFacing side) {
-			super(size);
-			this.side = side;
+		@Override
+		@Nonnull
+		public ItemStack getStackInSlot(int slot) {
+			return handler.getStackInSlot(this.slots[slot]);
 		}
-		
+
 		@Override
-		public ItemStack insertItem(int slot, ItemStack stack, boolean simulate) {
-			if (!isStackValid(slotsForFace[this.side.getIndex()][slot], stack))
+		@Nonnull
+		public ItemStack insertItem(int slot, @Nonnull ItemStack stack, boolean simulate) {
+			if (!isStackValid(this.slots[slot], stack))
 				return stack;
-			return super.insertItem(slot, stack, simulate);
+			return handler.insertItem(this.slots[slot], stack, simulate);
 		}
-		
-		public void setStackInSlotInternal(int slot, ItemStack stack) {
-			validateSlotIndex(slot);
-	        if (ItemStack.areItemStacksEqual(this.stacks.get(slot), stack))
-	            return;
-	        this.stacks.set(slot, stack);
+
+		@Override
+		@Nonnull
+		public ItemStack extractItem(int slot, int amount, boolean simulate) {
+			return handler.extractItem(this.slots[slot], amount, simulate);
 		}
 
 		@Override
-		protected void onContentsChanged(int slot) {
-			handler.setStackInSlot(slotsForFace[this.side.getIndex()][slot], getStackInSlot(slot));
+		public int getSlotLimit(int slot) {
+			return handler.getSlotLimit(this.slots[slot]);
+		}
+
+		@Override
+		public boolean isItemValid(int slot, @Nonnull ItemStack stack) {
+			return isStackValid(this.slots[slot], stack) && handler.isItemValid(this.slots[slot], stack);
+		}
+
+		@Override
+		public void setStackInSlot(int slot, @Nonnull ItemStack stack) {
+			handler.setStackInSlot(this.slots[slot], stack);
+		}
+
+		@Override
+		public boolean isIndexed() {
+			return handler.isIndexed();
+		}
+
+		@Override
+		@Nonnull
+		public ItemStack insertItemIndexed(@Nonnull ItemStack stack, int fromSlot, int toSlot, boolean simulate) {
+			if (stack.isEmpty())
+				return ItemStack.EMPTY;
+			ItemStack remainder = stack.copy();
+			if (!isIndexed()) {
+				for (int slot = Math.max(fromSlot, 0); slot <= Math.min(toSlot, getSlots() - 1)
+						&& !remainder.isEmpty(); slot++)
+					remainder = insertItem(slot, remainder, simulate);
+				return remainder;
+			}
+			for (int slot : toSideSlots(handler.getSlotsHolding(stack, 0, handler.getSlots() - 1), fromSlot,
+					toSlot)) {
+				remainder = insertItem(slot, remainder, simulate);
+				if (remainder.isEmpty())
+					return ItemStack.EMPTY;
+			}
+			for (int mainSlot = handler.getNextFreeSlot(0); mainSlot >= 0; mainSlot = handler
+					.getNextFreeSlot(mainSlot + 1)) {
+				int slot = mainSlot < this.sideSlots.length ? this.sideSlots[mainSlot] : -1;
+				if (slot < 0 || slot < fromSlot || slot > toSlot)
+					continue;
+				remainder = insertItem(slot, remainder, simulate);
+				if (remainder.isEmpty())
+					return ItemStack.EMPTY;
+			}
+			return remainder;
+		}
+
+		@Override
+		@Nonnull
+		public ItemStack extractItemIndexed(@Nonnull ItemStack stack, int fromSlot, int toSlot, boolean simulate) {
+			if (stack.isEmpty())
+				return ItemStack.EMPTY;
+			int[] slots;
+			if (isIndexed())
+				slots = toSideSlots(handler.getSlotsHolding(stack, 0, handler.getSlots() - 1), fromSlot, toSlot);
+			else {
+				ItemKey key = ItemKey.of(stack);
+				slots = new int[getSlots()];
+				int count = 0;
+				for (int slot = Math.max(fromSlot, 0); slot <= Math.min(toSlot, getSlots() - 1); slot++)
+					if (!getStackInSlot(slot).isEmpty() && key.matches(getStackInSlot(slot)))
+						slots[count++] = slot;
+				slots = Arrays.copyOf(slots, count);
+			}
+			ItemStack extracted = ItemStack.EMPTY;
+			int remaining = stack.getCount();
+			for (int slot : slots) {
+				ItemStack taken = extractItem(slot, remaining, simulate);
+				if (taken.isEmpty())
+					continue;
+				if (extracted.isEmpty())
+					extracted = taken.copy();
+				else
+					extracted.grow(taken.getCount());
+				remaining -= taken.getCount();
+				if (remaining <= 0)
+					break;
+			}
+			return extracted;
+		}
+
+		private int[] toSideSlots(int[] mainSlots, int fromSlot, int toSlot) {
+			int[] slots = new int[mainSlots.length];
+			int count = 0;
+			for (int mainSlot : mainSlots) {
+				int slot = mainSlot < this.sideSlots.length ? this.sideSlots[mainSlot] : -1;
+				if (slot >= 0 && slot >= fromSlot && slot <= toSlot)
+					slots[count++] = slot;
+			}
+			slots = Arrays.copyOf(slots, count);
+			Arrays.sort(slots);
+			return slots;
 		}
 
 	}